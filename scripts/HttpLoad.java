@@ -0,0 +1,57 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal closed-loop load generator used by reactive-benchmark.sh and virtual-threads-benchmark.sh, so the
+ * benchmarks need nothing beyond the JDK: keeps {@code concurrency} GETs in flight until {@code requests} have completed.
+ * usage: java scripts/HttpLoad.java <url> <concurrency> <requests>
+ */
+public class HttpLoad {
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        int requests = Integer.parseInt(args[2]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                latencies[slot] = System.nanoTime() - sent;
+                if (failure != null || response.statusCode() != 200)
+                    errors.incrementAndGet();
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%8.0f req/s   p50 %6.1f ms   p99 %6.1f ms   errors %d%n",
+                requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# Streams a CSV or NDJSON file to the bulk import endpoint and prints the progress and the
+# rejected rows as they arrive. The format is taken from the file extension.
+# usage: scripts/import.sh users|tasks <file>    env: URL (default http://localhost:8080)
+set -euo pipefail
+
+KIND=${1:?usage: $0 users|tasks <file>}
+FILE=${2:?usage: $0 users|tasks <file>}
+URL=${URL:-http://localhost:8080}
+
+case "$KIND" in
+    users|tasks) ;;
+    *) echo "unknown import '$KIND', expected users or tasks" >&2; exit 1 ;;
+esac
+case "$FILE" in
+    *.csv) TYPE=text/csv ;;
+    *.ndjson|*.jsonl) TYPE=application/x-ndjson ;;
+    *) echo "$FILE must end in .csv, .ndjson or .jsonl" >&2; exit 1 ;;
+esac
+
+# -T streams the file instead of loading it into memory, -N prints each response line as it comes
+curl -sS -N --fail-with-body -X POST -T "$FILE" -H "Content-Type: $TYPE" "$URL/api/v1/$KIND/import"
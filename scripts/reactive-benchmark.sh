@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Throughput, latency and server threads of the servlet (Spring MVC + JPA) and the reactive (WebFlux + R2DBC)
+# variants under the same load, one variant at a time, both from the same jar. Load shedding is turned off in the
+# servlet variant, the reactive one has none.
+# usage: scripts/reactive-benchmark.sh [concurrency] [requests]    env: MVN (default ./mvnw)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${1:-256}
+REQUESTS=${2:-20000}
+MVN=${MVN:-./mvnw}
+JAR=target/todolist-0.0.1-SNAPSHOT.jar
+ENDPOINTS=(/api/v1/tasks /api/v1/tasks/2 /api/v1/users/2)
+
+live_threads() {
+    curl -s "http://localhost:$1/actuator/metrics/jvm.threads.live" | sed -E 's/.*"value":([0-9.]+).*/\1/'
+}
+
+run() {
+    local name=$1 port=$2; shift 2
+    "$@" >/dev/null 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:$port/actuator/health"; do
+        kill -0 "$pid" 2>/dev/null || { echo "$name exited before becoming healthy" >&2; return 1; }
+        sleep 0.2
+    done
+    echo "$name (threads at idle: $(live_threads "$port"))"
+    for endpoint in "${ENDPOINTS[@]}"; do
+        # warm-up pass so JIT compilation and pool growth are not measured
+        java scripts/HttpLoad.java "http://localhost:$port$endpoint" "$CONCURRENCY" "$REQUESTS" >/dev/null
+        printf '  %-18s %s   threads %s\n' "$endpoint" \
+            "$(java scripts/HttpLoad.java "http://localhost:$port$endpoint" "$CONCURRENCY" "$REQUESTS")" "$(live_threads "$port")"
+    done
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+"$MVN" -B -q package -DskipTests
+
+echo "concurrency $CONCURRENCY, $REQUESTS requests per endpoint"
+run servlet 8080 java -jar "$JAR" --todolist.concurrency-limit.enabled=false
+run reactive 8081 java -Dloader.main=com.mindhub.todolist.reactive.ReactiveTodolistApplication \
+    -cp "$JAR" org.springframework.boot.loader.launch.PropertiesLauncher
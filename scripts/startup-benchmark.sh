@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first successful GET /api/v1/tasks, for the default jar and for
+# the fast-start build (Spring AOT + AppCDS archive + fast-start profile).
+# usage: scripts/startup-benchmark.sh [runs]    env: MVN (default ./mvnw), PORT (default 8080)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+MVN=${MVN:-./mvnw}
+PORT=${PORT:-8080}
+URL="http://localhost:$PORT/api/v1/tasks"
+OUT=target/startup-benchmark
+JAR=todolist-0.0.1-SNAPSHOT.jar
+FAST_START_OPTS=(-Dspring.aot.enabled=true -Dspring.profiles.active=fast-start)
+
+time_to_first_request() {
+    local start end pid
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" >/dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        kill -0 "$pid" 2>/dev/null || { echo "application exited before serving $URL" >&2; return 1; }
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo $(((end - start) / 1000000))
+}
+
+report() {
+    local name=$1; shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    printf '%-12s median %5d ms   runs: %s\n' "$name" "$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")" "${times[*]}"
+}
+
+rm -rf "$OUT" && mkdir -p "$OUT"
+
+"$MVN" -B -q package -DskipTests
+cp "target/$JAR" "$OUT/default.jar"
+
+"$MVN" -B -q -Pfast-start package -DskipTests
+java -Djarmode=tools -jar "target/$JAR" extract --destination "$OUT/fast-start"
+# training run: loads the classes of a full context refresh and dumps them into the CDS archive
+java -XX:ArchiveClassesAtExit="$OUT/fast-start/application.jsa" "${FAST_START_OPTS[@]}" -Dspring.context.exit=onRefresh \
+    -jar "$OUT/fast-start/$JAR" >/dev/null 2>&1
+
+report default java -jar "$OUT/default.jar"
+report fast-start java -XX:SharedArchiveFile="$OUT/fast-start/application.jsa" "${FAST_START_OPTS[@]}" -jar "$OUT/fast-start/$JAR"
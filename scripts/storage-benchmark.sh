@@ -0,0 +1,110 @@
+#!/usr/bin/env bash
+# Write throughput and cold restart time of the file-backed storage mode as the database grows. Tasks are bulk
+# imported in steps until the database file reaches each size. After every step the application is stopped and
+# started again on the same file, and the time from JVM launch to the first GET /api/v1/tasks/{id} is measured.
+# The OS page cache is dropped before each restart when /proc/sys/vm/drop_caches is writable (root).
+# usage: scripts/storage-benchmark.sh [sizes in GB...]    env: MVN (default ./mvnw), CACHE (default 256MB),
+#        CHUNK (tasks per import request, default 100000)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+SIZES=("$@")
+[ ${#SIZES[@]} -gt 0 ] || SIZES=(1 2 4)
+MVN=${MVN:-./mvnw}
+CACHE=${CACHE:-256MB}
+JAR=target/todolist-0.0.1-SNAPSHOT.jar
+DIR=target/storage-benchmark
+DB="$DIR/to-do-list.mv.db"
+URL=http://localhost:8080
+OWNERS=100
+CHUNK=${CHUNK:-100000}
+# roughly 700 bytes per task in the file, indexes included
+DESCRIPTION=$(printf 'x%.0s' $(seq 200))
+PID=
+ELAPSED=
+
+millis() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# sets PID and ELAPSED, not run in a subshell so the application stays a child of this script
+start() {
+    local begin
+    begin=$(millis)
+    java -jar "$JAR" --todolist.storage.persistent=true --todolist.storage.directory="$DIR" \
+        --todolist.storage.cache-size="$CACHE" --todolist.concurrency-limit.enabled=false >>"$DIR/application.log" 2>&1 &
+    PID=$!
+    until curl -sf -o /dev/null "$URL/api/v1/tasks/1"; do
+        kill -0 "$PID" 2>/dev/null || { echo "application exited before serving requests, see $DIR/application.log" >&2; exit 1; }
+        sleep 0.05
+    done
+    ELAPSED=$(($(millis) - begin))
+}
+
+# SIGTERM closes the connection pool and with it the database, which compacts for up to shutdown-compact-time
+stop() {
+    local begin
+    begin=$(millis)
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+    PID=
+    ELAPSED=$(($(millis) - begin))
+}
+
+import() {
+    local kind=$1
+    # -T - streams the generated rows, the response is one NDJSON line per batch and a final summary
+    curl -sS --fail-with-body -X POST -T - -H "Content-Type: application/x-ndjson" "$URL/api/v1/$kind/import" \
+        | grep '"error"' | head -3 >&2 || true
+}
+
+users() {
+    awk -v owners="$OWNERS" 'BEGIN {
+        for (i = 0; i < owners; i++)
+            printf "{\"username\":\"owner%d\",\"email\":\"owner%d@email.com\",\"password\":\"password123\"}\n", i, i
+    }'
+}
+
+tasks() {
+    awk -v first="$1" -v count="$CHUNK" -v owners="$OWNERS" -v description="$DESCRIPTION" 'BEGIN {
+        for (i = first; i < first + count; i++)
+            printf "{\"title\":\"benchmark task %d\",\"description\":\"%s\",\"taskStatus\":\"PENDING\",\"user\":{\"email\":\"owner%d@email.com\",\"password\":\"password123\"}}\n", i, description, i % owners
+    }'
+}
+
+cleanup() {
+    [ -n "$PID" ] && kill "$PID" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+"$MVN" -B -q package -DskipTests
+rm -rf "$DIR" && mkdir -p "$DIR"
+
+start
+echo "first start (creates and seeds the database): $ELAPSED ms"
+users | import users
+
+imported=0
+for size in "${SIZES[@]}"; do
+    target=$(awk -v size="$size" 'BEGIN { printf "%d", size * 1073741824 }')
+    begin=$(millis)
+    bytes_before=$(stat -c %s "$DB")
+    rows_before=$imported
+    while [ "$(stat -c %s "$DB")" -lt "$target" ]; do
+        tasks "$imported" | import tasks
+        imported=$((imported + CHUNK))
+    done
+    elapsed=$(($(millis) - begin))
+    bytes=$(($(stat -c %s "$DB") - bytes_before))
+    rows=$((imported - rows_before))
+
+    stop
+    shutdown=$ELAPSED
+    if [ -w /proc/sys/vm/drop_caches ]; then
+        sync && echo 3 > /proc/sys/vm/drop_caches
+    fi
+    start
+    printf '%3s GB  %10d tasks   import %8d tasks/s %7.1f MB/s   shutdown %6d ms   cold restart %6d ms   file %6d MB\n' \
+        "$size" "$imported" $((rows * 1000 / elapsed)) "$(awk -v b="$bytes" -v ms="$elapsed" 'BEGIN { print b / 1048576 / (ms / 1000) }')" \
+        "$shutdown" "$ELAPSED" $(($(stat -c %s "$DB") / 1048576))
+done
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Throughput and latency of the servlet variant on platform threads and on virtual threads, at increasing numbers of
+# concurrent connections. The database is an H2 TCP server, so every query blocks on a socket, and load shedding, the
+# task JSON cache and request coalescing are turned off, so every request reaches JDBC. Needs Java 21.
+# usage: scripts/virtual-threads-benchmark.sh [requests]    env: MVN (default ./mvnw), POOL (default 10)
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+REQUESTS=${1:-50000}
+MVN=${MVN:-./mvnw}
+POOL=${POOL:-10}
+JAR=target/todolist-0.0.1-SNAPSHOT.jar
+CONCURRENCY=(1000 2500 5000 10000)
+ENDPOINTS=(/api/v1/tasks/2 /api/v1/users/2)
+H2_PORT=9099
+# a socket per connection on both ends
+ulimit -n 65536 2>/dev/null || ulimit -n "$(ulimit -Hn)"
+
+if [ "$(java -XshowSettings:properties -version 2>&1 | sed -nE 's/ *java.specification.version = ([0-9]+).*/\1/p')" -lt 21 ]; then
+    echo "virtual threads need Java 21 or newer" >&2
+    exit 1
+fi
+
+live_threads() {
+    curl -s "http://localhost:8080/actuator/metrics/jvm.threads.live" | sed -E 's/.*"value":([0-9.]+).*/\1/'
+}
+
+run() {
+    local mode=$1 virtual=$2
+    # a fresh database per mode, created by the first connection
+    local url="jdbc:h2:tcp://localhost:$H2_PORT/mem:benchmark-$mode;DB_CLOSE_DELAY=-1"
+    java -jar "$JAR" --spring.threads.virtual.enabled="$virtual" --spring.datasource.url="$url" \
+        --spring.datasource.hikari.maximum-pool-size="$POOL" --server.tomcat.max-connections=20000 \
+        --server.tomcat.accept-count=10000 --todolist.concurrency-limit.enabled=false \
+        --todolist.task-json-cache.enabled=false --todolist.single-flight.enabled=false >/dev/null 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:8080/actuator/health"; do
+        kill -0 "$pid" 2>/dev/null || { echo "$mode exited before becoming healthy" >&2; return 1; }
+        sleep 0.2
+    done
+    echo "$mode threads (pool $POOL connections)"
+    for endpoint in "${ENDPOINTS[@]}"; do
+        # warm-up pass so JIT compilation and pool growth are not measured
+        java scripts/HttpLoad.java "http://localhost:8080$endpoint" 200 "$REQUESTS" >/dev/null
+        for concurrency in "${CONCURRENCY[@]}"; do
+            printf '  %-16s %6s connections %s   threads %s\n' "$endpoint" "$concurrency" \
+                "$(java scripts/HttpLoad.java "http://localhost:8080$endpoint" "$concurrency" "$REQUESTS")" "$(live_threads)"
+        done
+    done
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+"$MVN" -B -q package -DskipTests
+unzip -o -q -j "$JAR" 'BOOT-INF/lib/h2-*.jar' -d target/benchmark-h2
+java -cp "$(ls target/benchmark-h2/h2-*.jar)" org.h2.tools.Server -tcp -tcpPort "$H2_PORT" -ifNotExists >/dev/null 2>&1 &
+H2_PID=$!
+trap 'kill $H2_PID 2>/dev/null || true' EXIT
+sleep 2
+
+echo "$REQUESTS requests per endpoint and concurrency"
+run platform false
+run virtual true
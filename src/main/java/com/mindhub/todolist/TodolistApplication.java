@@ -1,20 +1,43 @@
 package com.mindhub.todolist;
 
+import com.mindhub.todolist.configurations.BackgroundThreads;
+import com.mindhub.todolist.journal.MutationJournal;
 import com.mindhub.todolist.models.Task;
 import com.mindhub.todolist.models.TaskStatus;
 import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.readmodel.ReadModel;
 import com.mindhub.todolist.repositories.TaskRepository;
 import com.mindhub.todolist.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
-import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.List;
 
-@SpringBootApplication
+// @SpringBootApplication spelled out: the reactive variant is a separate application (ReactiveTodolistApplication)
+// with its own R2DBC database, neither its package nor the R2DBC auto-configuration belong to this one
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@ComponentScan(excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.mindhub\\.todolist\\.reactive\\..*")})
+@EnableScheduling
 public class TodolistApplication {
 
     private static final Logger log = LoggerFactory.getLogger(TodolistApplication.class);
@@ -23,11 +46,16 @@ public class TodolistApplication {
         SpringApplication.run(TodolistApplication.class, args);
     }
 
+    // with todolist.seed.async the sample data is written after startup, while requests are already served
     @Bean
-    public CommandLineRunner initData(UserRepository userRepository, TaskRepository taskRepository) {
-        return args -> {
+    public CommandLineRunner initData(UserRepository userRepository, TaskRepository taskRepository, MutationJournal mutationJournal,
+                                      ReadModel readModel, BackgroundThreads backgroundThreads, @Value("${todolist.seed.async:false}") boolean seedAsync) {
+        Runnable seed = () -> {
+            // a replayed journal or the persistent database already has the data
+            if (userRepository.count() > 0)
+                return;
             log.info("Populating Users...");
-            userRepository.saveAll(
+            List<UserEntity> users = userRepository.saveAll(
                     List.of(
                             new UserEntity("armando@email.com", "password123", "ArmandoParedes"),
                             new UserEntity("amelia@email.com", "longerPassword544", "amelia_1990"),
@@ -36,20 +64,30 @@ public class TodolistApplication {
             );
             log.info("Successfully populated Users!");
             log.info("Populating Tasks...");
-            taskRepository.saveAll(
+            List<Task> tasks = taskRepository.saveAll(
                     List.of(
-                            new Task("Title of this task", "Description for this task", TaskStatus.PENDING, userRepository.findById(1L).orElse(null)),
-                            new Task("Do the dishes", "", TaskStatus.IN_PROGRESS, userRepository.findById(2L).orElse(null)),
-                            new Task("Do the laundry", "", TaskStatus.PENDING, userRepository.findById(2L).orElse(null)),
-                            new Task("Do my bed", "", TaskStatus.COMPLETED, userRepository.findById(2L).orElse(null)),
-                            new Task("Go to the gim", "At 17:30", TaskStatus.PENDING, userRepository.findById(3L).orElse(null)),
-                            new Task("Send Armando the new documents", "Due to 8/1 until 10:00", TaskStatus.COMPLETED, userRepository.findById(3L).orElse(null)),
-                            new Task("Daily meet of MindHub", "On weekdays usually at 9:10", TaskStatus.IN_PROGRESS, userRepository.findById(3L).orElse(null))
+                            new Task("Title of this task", "Description for this task", TaskStatus.PENDING, users.get(0)),
+                            new Task("Do the dishes", "", TaskStatus.IN_PROGRESS, users.get(1)),
+                            new Task("Do the laundry", "", TaskStatus.PENDING, users.get(1)),
+                            new Task("Do my bed", "", TaskStatus.COMPLETED, users.get(1)),
+                            new Task("Go to the gim", "At 17:30", TaskStatus.PENDING, users.get(2)),
+                            new Task("Send Armando the new documents", "Due to 8/1 until 10:00", TaskStatus.COMPLETED, users.get(2)),
+                            new Task("Daily meet of MindHub", "On weekdays usually at 9:10", TaskStatus.IN_PROGRESS, users.get(2))
                     )
             );
             log.info("Successfully populated Tasks!");
+            users.forEach(mutationJournal::recordUserAfterCommit);
+            tasks.forEach(mutationJournal::recordTaskAfterCommit);
+            users.forEach(readModel::recordUserAfterCommit);
+            tasks.forEach(readModel::recordTaskAfterCommit);
             /*printResults(userRepository, taskRepository);*/
         };
+        return args -> {
+            if (seedAsync)
+                backgroundThreads.start("seed-data", seed);
+            else
+                seed.run();
+        };
     }
 
     private void printAllUsers(UserRepository userRepository) {
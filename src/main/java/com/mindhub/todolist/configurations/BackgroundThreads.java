@@ -0,0 +1,53 @@
+package com.mindhub.todolist.configurations;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads the application starts itself, e.g. the async seeding and the shard fan-outs. They follow the
+ * execution mode Spring Boot applies to request handling and @Scheduled jobs: virtual threads when
+ * {@code spring.threads.virtual.enabled} is set and the JVM is Java 21 or newer, platform threads otherwise.
+ */
+@Component
+public class BackgroundThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundThreads.class);
+
+    private final boolean virtual;
+
+    public BackgroundThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false))
+            log.warn("spring.threads.virtual.enabled needs Java 21, running on platform threads on Java {}",
+                    Runtime.version().feature());
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // platform threads are daemons too, as virtual threads always are
+    public ThreadFactory factory(String name) {
+        if (virtual)
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public Thread start(String name, Runnable task) {
+        Thread thread = factory(name).newThread(task);
+        thread.start();
+        return thread;
+    }
+}
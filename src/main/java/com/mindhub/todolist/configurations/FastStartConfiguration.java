@@ -0,0 +1,46 @@
+package com.mindhub.todolist.configurations;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.List;
+
+/**
+ * Keeps beans that no API request needs out of startup: the springdoc/Swagger UI beans are
+ * created on their first request and the H2 console servlet is initialized on first use.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfiguration {
+
+    private static final List<String> LAZY_PACKAGES = List.of("org.springdoc.");
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyNonCriticalBeans() {
+        return beanFactory -> {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+                String source = beanDefinition.getBeanClassName() != null ? beanDefinition.getBeanClassName() : beanDefinition.getFactoryBeanName();
+                if (source != null && LAZY_PACKAGES.stream().anyMatch(source::startsWith))
+                    beanDefinition.setLazyInit(true);
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor lazyH2Console() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if ("h2Console".equals(beanName) && bean instanceof ServletRegistrationBean<?> registration)
+                    registration.setLoadOnStartup(-1);
+                return bean;
+            }
+        };
+    }
+}
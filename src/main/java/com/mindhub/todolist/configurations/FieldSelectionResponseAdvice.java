@@ -0,0 +1,47 @@
+package com.mindhub.todolist.configurations;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mindhub.todolist.dtos.FieldSelection;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes only the properties listed in {@code ?fields=} for DTOs annotated with
+ * {@code @JsonFilter(FieldSelection.FILTER_ID)} on read endpoints. Without the parameter every property is written.
+ */
+@ControllerAdvice
+public class FieldSelectionResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest) || !isRead(servletRequest))
+            return;
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        if (fields == null || fields.isBlank())
+            return;
+        Set<String> selected = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+    }
+
+    // POST /batch is a read that takes its ids in the body
+    private boolean isRead(ServletServerHttpRequest request) {
+        return "GET".equals(request.getServletRequest().getMethod())
+                || request.getServletRequest().getRequestURI().endsWith("/batch");
+    }
+}
@@ -0,0 +1,19 @@
+package com.mindhub.todolist.configurations;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mindhub.todolist.dtos.FieldSelection;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfiguration {
+
+    // DTOs carry @JsonFilter, so every ObjectMapper needs a filter that writes all properties
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer serializeAllFieldsByDefault() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
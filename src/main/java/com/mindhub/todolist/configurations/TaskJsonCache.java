@@ -0,0 +1,115 @@
+package com.mindhub.todolist.configurations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encoded JSON of each task, keyed by task id and checked against the task and owner versions,
+ * so a task is only serialized again after it or its owner changed.
+ * <p>
+ * Reads and writes never share a lock: a hit only stamps the fragment with the time it was
+ * used. Once {@code maxBytes} is exceeded, one writer at a time evicts the least recently used
+ * fragments down to three quarters of it, so the sort is paid once per many inserts. The LRU
+ * order is approximate and the size can briefly go past {@code maxBytes} while that runs.
+ */
+@Component
+public class TaskJsonCache {
+
+    private static final class Fragment {
+        private final Long version, userVersion;
+        private final byte[] json;
+        private volatile long usedAt = System.nanoTime();
+
+        private Fragment(Long version, Long userVersion, byte[] json) {
+            this.version = version;
+            this.userVersion = userVersion;
+            this.json = json;
+        }
+    }
+
+    private record Candidate(Long id, Fragment fragment, long usedAt) {}
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>(256);
+    private final AtomicLong sizeBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter hits, misses;
+
+    public TaskJsonCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${todolist.task-json-cache.max-size:16MB}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("todolist.task-json-cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("todolist.task-json-cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("todolist.task-json-cache.size", this, TaskJsonCache::getSizeBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    public byte[] toJson(TaskDTO task) throws JsonProcessingException {
+        // archived tasks and trimmed representations have no version to validate against
+        if (task.getVersion() == null || task.getUserVersion() == null)
+            return objectMapper.writeValueAsBytes(task);
+
+        Fragment fragment = fragments.get(task.getId());
+        if (fragment != null && fragment.version.equals(task.getVersion()) && Objects.equals(fragment.userVersion, task.getUserVersion())) {
+            fragment.usedAt = System.nanoTime();
+            hits.increment();
+            return fragment.json;
+        }
+
+        misses.increment();
+        byte[] json = objectMapper.writeValueAsBytes(task);
+        put(task.getId(), new Fragment(task.getVersion(), task.getUserVersion(), json));
+        return json;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes.get();
+    }
+
+    private void put(Long id, Fragment fragment) {
+        if (fragment.json.length > maxBytes)
+            return;
+        Fragment previous = fragments.put(id, fragment);
+        if (sizeBytes.addAndGet(fragment.json.length - (previous != null ? previous.json.length : 0)) > maxBytes)
+            evict();
+    }
+
+    // writers arriving while another one evicts skip it, that one brings the size down for them too
+    private void evict() {
+        if (!evicting.compareAndSet(false, true))
+            return;
+        try {
+            // usedAt keeps moving under concurrent hits, so it is read once before sorting
+            List<Candidate> byUse = new ArrayList<>(fragments.size());
+            fragments.forEach((id, fragment) -> byUse.add(new Candidate(id, fragment, fragment.usedAt)));
+            byUse.sort(Comparator.comparingLong(Candidate::usedAt));
+            long target = maxBytes / 4 * 3;
+            for (int i = 0; i < byUse.size() && sizeBytes.get() > target; i++) {
+                Candidate eldest = byUse.get(i);
+                // a fragment replaced since the snapshot was already accounted for by its put
+                if (fragments.remove(eldest.id(), eldest.fragment()))
+                    sizeBytes.addAndGet(-eldest.fragment().json.length);
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
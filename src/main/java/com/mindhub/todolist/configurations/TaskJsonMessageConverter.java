@@ -0,0 +1,88 @@
+package com.mindhub.todolist.configurations;
+
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Writes task responses by copying the cached fragment of every task straight into the
+ * response body. Requests with {@code ?fields=} are left to the Jackson converter, which
+ * applies the field filter.
+ */
+public class TaskJsonMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final TaskJsonCache taskJsonCache;
+
+    public TaskJsonMessageConverter(TaskJsonCache taskJsonCache) {
+        super(MediaType.APPLICATION_JSON);
+        this.taskJsonCache = taskJsonCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TaskDTO.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && isTaskResponse(type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz))
+                && !isFieldSelectionRequested();
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        if (body instanceof TaskDTO task) {
+            out.write(taskJsonCache.toJson(task));
+            return;
+        }
+        out.write('[');
+        boolean first = true;
+        for (Object task : (Collection<?>) body) {
+            if (!first)
+                out.write(',');
+            out.write(taskJsonCache.toJson((TaskDTO) task));
+            first = false;
+        }
+        out.write(']');
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException();
+    }
+
+    private static boolean isTaskResponse(ResolvableType type) {
+        Class<?> resolved = type.resolve();
+        if (resolved == null)
+            return false;
+        if (TaskDTO.class.isAssignableFrom(resolved))
+            return true;
+        return Collection.class.isAssignableFrom(resolved) && TaskDTO.class.equals(type.asCollection().resolveGeneric(0));
+    }
+
+    private static boolean isFieldSelectionRequested() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getParameter("fields") != null;
+    }
+}
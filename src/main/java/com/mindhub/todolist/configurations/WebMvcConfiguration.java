@@ -0,0 +1,26 @@
+package com.mindhub.todolist.configurations;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private TaskJsonCache taskJsonCache;
+
+    @Value("${todolist.task-json-cache.enabled:true}")
+    private boolean taskJsonCacheEnabled;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ahead of the Jackson converter, it only claims task responses
+        if (taskJsonCacheEnabled)
+            converters.add(0, new TaskJsonMessageConverter(taskJsonCache));
+    }
+}
@@ -0,0 +1,50 @@
+package com.mindhub.todolist.controllers;
+
+import com.mindhub.todolist.flightrecorder.FlightRecording;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/admin/recording")
+// dumps hold the ids of every recorded request and there is no authentication of its own, so it is only mapped when admin endpoints are enabled
+@ConditionalOnProperty(prefix = "todolist", name = "admin.enabled", havingValue = "true")
+public class FlightRecordingController {
+
+    @Autowired
+    private FlightRecording flightRecording;
+
+    @GetMapping
+    public ResponseEntity<FlightRecording.Status> getRecording() {
+        return ResponseEntity.ok(flightRecording.status());
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<FlightRecording.Status> startRecording() throws IOException, ParseException {
+        return ResponseEntity.ok(flightRecording.start());
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<FlightRecording.Status> stopRecording() {
+        return ResponseEntity.ok(flightRecording.stop());
+    }
+
+    // open with JDK Mission Control or `jfr print --events com.mindhub.todolist.ServicePhase <file>`
+    @GetMapping("/dump")
+    public ResponseEntity<InputStreamResource> dumpRecording() throws IOException {
+        String fileName = "todolist-" + Instant.now().getEpochSecond() + ".jfr";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new InputStreamResource(flightRecording.dump()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.mindhub.todolist.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.dtos.ImportEventDTO;
+import com.mindhub.todolist.services.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import endpoints. The body is read while the response is written, one NDJSON line per
+ * rejected row, one after every batch and a final one with the totals.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class ImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping(value = "/users/import", consumes = {"text/csv", NDJSON})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImportService.Format format = ImportService.Format.of(request.getContentType());
+        importService.importUsers(request.getInputStream(), format, eventWriter(response));
+    }
+
+    @PostMapping(value = "/tasks/import", consumes = {"text/csv", NDJSON})
+    public void importTasks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImportService.Format format = ImportService.Format.of(request.getContentType());
+        importService.importTasks(request.getInputStream(), format, eventWriter(response));
+    }
+
+    // flushed per event so the client sees progress while it is still uploading
+    private Consumer<ImportEventDTO> eventWriter(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        return event -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
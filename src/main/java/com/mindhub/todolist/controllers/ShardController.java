@@ -0,0 +1,30 @@
+package com.mindhub.todolist.controllers;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/shards")
+// moves data between databases and has no authentication of its own, so it is only mapped when admin endpoints are enabled
+@ConditionalOnProperty(prefix = "todolist", name = {"sharding.enabled", "admin.enabled"}, havingValue = "true")
+public class ShardController {
+
+    @Autowired
+    private ShardManager shardManager;
+
+    @GetMapping
+    public ResponseEntity<List<ShardManager.ShardStatus>> getShards() {
+        return ResponseEntity.ok(shardManager.getStatus());
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<List<ShardManager.ShardStatus>> rebalance(@RequestParam int shards) {
+        shardManager.rebalance(shards);
+        return ResponseEntity.ok(shardManager.getStatus());
+    }
+}
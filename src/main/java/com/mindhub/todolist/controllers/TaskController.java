@@ -1,21 +1,30 @@
 package com.mindhub.todolist.controllers;
 
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.BatchRequestDTO;
+import com.mindhub.todolist.dtos.task.MoveTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.task.TaskStatsDTO;
 import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
 import com.mindhub.todolist.exceptions.InvalidTaskException;
 import com.mindhub.todolist.exceptions.TaskNotFoundException;
 import com.mindhub.todolist.exceptions.UnauthorizedException;
 import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.TaskStatus;
 import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.TaskStatsService;
+import com.mindhub.todolist.services.implementations.SingleFlight;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/tasks")
@@ -23,15 +32,54 @@ public class TaskController {
 
     @Autowired
     private TaskService taskService;
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private SingleFlight singleFlight;
 
     @GetMapping
-    public ResponseEntity<List<TaskDTO>> getAllTasks() {
-        return taskService.getAllTasksDTO();
+    public ResponseEntity<List<TaskDTO>> getAllTasks(@RequestParam(defaultValue = "false") boolean archived,
+                                                     @RequestParam(required = false) Set<String> fields) {
+        return taskService.getAllTasksDTO(archived, fields);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDTO> getTask(@PathVariable Long id) throws TaskNotFoundException {
-        return taskService.getTaskDTOById(id);
+    public ResponseEntity<TaskDTO> getTask(@PathVariable Long id,
+                                           @RequestParam(defaultValue = "false") boolean archived,
+                                           @RequestParam(required = false) Set<String> fields) throws TaskNotFoundException {
+        // coalesced outside the service transaction, so callers waiting for a shared load do not hold a connection
+        return singleFlight.execute("tasks-by-id", List.of(id, archived, fields != null ? fields : Set.of()),
+                () -> taskService.getTaskDTOById(id, archived, fields));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksByIds(@RequestParam List<Long> ids,
+                                                                    @RequestParam(required = false) Set<String> fields) {
+        return taskService.getTasksDTOByIds(ids, fields);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksByIds(@Valid @RequestBody BatchRequestDTO batchRequestDTO,
+                                                                    @RequestParam(required = false) Set<String> fields) {
+        return taskService.getTasksDTOByIds(batchRequestDTO.ids(), fields);
+    }
+
+    // e.g. ?tags=urgent AND backend AND NOT blocked&taskStatus=PENDING, pages continue with afterId
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDTO>> searchTasks(@RequestParam(required = false) String tags,
+                                                     @RequestParam(required = false) Long userId,
+                                                     @RequestParam(required = false) TaskStatus taskStatus,
+                                                     @RequestParam(required = false) Long afterId,
+                                                     @RequestParam(defaultValue = "100") int limit,
+                                                     @RequestParam(required = false) Set<String> fields) {
+        return taskService.searchTasks(tags, userId, taskStatus, afterId, limit, fields);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<TaskStatsDTO>> getTaskStats(@RequestParam(required = false) Instant from,
+                                                           @RequestParam(required = false) Instant to,
+                                                           @RequestParam(defaultValue = "HOUR") TaskStatsService.Granularity granularity) {
+        return taskStatsService.getStats(from, to, granularity);
     }
 
     @PostMapping
@@ -49,6 +97,11 @@ public class TaskController {
         return taskService.updatePutTask(id, putTaskRequestDTO);
     }
 
+    @PatchMapping("/{id}/position")
+    public ResponseEntity<TaskDTO> moveTask(@PathVariable Long id, @Valid @RequestBody MoveTaskRequestDTO moveTaskRequestDTO) throws InvalidTaskException, UnauthorizedException {
+        return taskService.moveTask(id, moveTaskRequestDTO);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<TaskDTO> updatePatchTask(@PathVariable Long id, @Valid @RequestBody PatchTaskRequestDTO patchTaskRequestDTO) throws InvalidTaskException, UnauthorizedException {
         return taskService.updatePatchTask(id, patchTaskRequestDTO);
@@ -1,5 +1,7 @@
 package com.mindhub.todolist.controllers;
 
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.BatchRequestDTO;
 import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
@@ -8,6 +10,7 @@ import com.mindhub.todolist.exceptions.EmailAlreadyExistsException;
 import com.mindhub.todolist.exceptions.InvalidUserException;
 import com.mindhub.todolist.exceptions.UserNotFoundException;
 import com.mindhub.todolist.services.UserService;
+import com.mindhub.todolist.services.implementations.SingleFlight;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +19,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @Validated
 @Controller
@@ -24,25 +28,41 @@ public class UserController {
 
     @Autowired
     private UserService userService;
+    @Autowired
+    private SingleFlight singleFlight;
 
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return userService.getAllUsersDTO();
+    public ResponseEntity<List<UserDTO>> getAllUsers(@RequestParam(required = false) Set<String> fields) {
+        return userService.getAllUsersDTO(fields);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) throws UserNotFoundException {
-        return userService.getUserDTOById(id);
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id, @RequestParam(required = false) Set<String> fields) throws UserNotFoundException {
+        // coalesced outside the service transaction, so callers waiting for a shared load do not hold a connection
+        return singleFlight.execute("users-by-id", List.of(id, fields != null ? fields : Set.of()),
+                () -> userService.getUserDTOById(id, fields));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersByIds(@RequestParam List<Long> ids,
+                                                                    @RequestParam(required = false) Set<String> fields) {
+        return userService.getUsersDTOByIds(ids, fields);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersByIds(@Valid @RequestBody BatchRequestDTO batchRequestDTO,
+                                                                    @RequestParam(required = false) Set<String> fields) {
+        return userService.getUsersDTOByIds(batchRequestDTO.ids(), fields);
     }
 
     @PostMapping
-    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody NewUserRequestDTO newUserRequestDTO) {
+    public ResponseEntity<UserDTO> createUser(@Valid @RequestBody NewUserRequestDTO newUserRequestDTO) throws EmailAlreadyExistsException {
         return userService.createUser(newUserRequestDTO);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id) throws UserNotFoundException {
-        return userService.deleteUser(id);
+    public ResponseEntity<?> deleteUser(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean soft) throws UserNotFoundException {
+        return userService.deleteUser(id, soft);
     }
 
     @PutMapping("/{id}")
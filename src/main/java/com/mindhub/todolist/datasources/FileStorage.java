@@ -0,0 +1,78 @@
+package com.mindhub.todolist.datasources;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Checkpoints and compaction of the file-backed H2 database. The MVStore is reached once through the embedded
+ * connection, so this only works with {@code jdbc:h2:file:} URLs opened in this JVM, and the gauges read it
+ * without taking a connection from the pool.
+ */
+public class FileStorage {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactionFillRate;
+    private final int compactionWriteLimit;
+    private volatile MVStore store;
+
+    public FileStorage(DataSource dataSource, StorageProperties storageProperties, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.compactionFillRate = storageProperties.compactionFillRate();
+        this.compactionWriteLimit = Math.toIntExact(storageProperties.compactionWriteLimit().toBytes());
+        this.store = openStore();
+        // NaN once the database closed on shutdown, a scrape must not open it again
+        Gauge.builder("todolist.storage.file-size", this, storage -> storage.store.isClosed() ? Double.NaN : storage.fileSize())
+                .description("size of the database file").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("todolist.storage.fill-rate", this, storage -> storage.store.isClosed() ? Double.NaN : storage.fillRate())
+                .description("percentage of the database file holding live pages").register(meterRegistry);
+    }
+
+    // writes every committed change and forces the file to disk
+    public void checkpoint() {
+        jdbcTemplate.execute("CHECKPOINT SYNC");
+    }
+
+    /**
+     * Rewrites the least filled chunks, at most {@code compaction-write-limit} bytes per call, while the
+     * fill rate is below {@code compaction-fill-rate}. Readers and writers keep running meanwhile.
+     */
+    public boolean compact() {
+        MVStore store = store();
+        return store.getFillRate() < compactionFillRate && store.compact(compactionFillRate, compactionWriteLimit);
+    }
+
+    public long fileSize() {
+        return store().getFileStore().size();
+    }
+
+    public int fillRate() {
+        return store().getFillRate();
+    }
+
+    // the store lives as long as the database, which is only opened again after it was closed
+    private MVStore store() {
+        MVStore current = store;
+        if (current.isClosed())
+            store = current = openStore();
+        return current;
+    }
+
+    private MVStore openStore() {
+        try (Connection connection = dataSource.getConnection()) {
+            SessionLocal session = (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+            return session.getDatabase().getStore().getMvStore();
+        } catch (SQLException e) {
+            throw new IllegalStateException("the file-backed database is not available", e);
+        }
+    }
+}
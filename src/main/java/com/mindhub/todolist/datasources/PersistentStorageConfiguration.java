@@ -0,0 +1,42 @@
+package com.mindhub.todolist.datasources;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Points {@code spring.datasource.url} at a file-backed H2 database in {@code todolist.storage.directory},
+ * so the data survives restarts. The shard and replica URLs are left as they are.
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+@ConditionalOnProperty(name = "todolist.storage.persistent", havingValue = "true")
+public class PersistentStorageConfiguration {
+
+    // static and bound by hand, DataSourceProperties is created before regular beans could be injected here
+    @Bean
+    public static BeanPostProcessor fileBackedDataSourceUrl(Environment environment) {
+        StorageProperties storageProperties = Binder.get(environment).bindOrCreate("todolist.storage", StorageProperties.class);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSourceProperties dataSourceProperties)
+                    dataSourceProperties.setUrl(storageProperties.jdbcUrl());
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FileStorage fileStorage(DataSource dataSource, StorageProperties storageProperties, MeterRegistry meterRegistry) {
+        return new FileStorage(dataSource, storageProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mindhub.todolist.datasources;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "todolist.datasource.replica.enabled", havingValue = "true")
+public class ReadWriteRoutingConfiguration {
+
+    private final DataSource primary, replica;
+    private final ReplicaSynchronizer replicaSynchronizer;
+
+    public ReadWriteRoutingConfiguration(DataSourceProperties dataSourceProperties,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${todolist.datasource.replica.url}") String replicaUrl) {
+        this.primary = dataSourceProperties.initializeDataSourceBuilder().build();
+        this.replica = DataSourceBuilder.create()
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(dataSourceProperties.determineUsername())
+                .password(dataSourceProperties.determinePassword())
+                .build();
+        this.replicaSynchronizer = new ReplicaSynchronizer(primary, replica,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                meterRegistry);
+    }
+
+    @Bean
+    public ReplicaSynchronizer replicaSynchronizer() {
+        return replicaSynchronizer;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(MeterRegistry meterRegistry) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replica, replicaSynchronizer, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return releaseConnectionAfterTransactionCustomizer();
+    }
+
+    // the default DELAYED_ACQUISITION_AND_HOLD keeps one connection for the whole open-in-view
+    // session, which would pin every transaction of a request to whichever target came first
+    static HibernatePropertiesCustomizer releaseConnectionAfterTransactionCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mindhub.todolist.datasources;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Must be
+ * wrapped in a LazyConnectionDataSourceProxy so the lookup happens after the transaction
+ * read-only flag is set.
+ * <p>
+ * Read-your-writes: every committed write bumps the primary version and hands it to the client
+ * in a cookie. Reads that carry a version the replica has not applied yet stay on the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {PRIMARY, REPLICA}
+
+    public static final String WRITE_VERSION_COOKIE = "todolist-write-version";
+
+    private final ReplicaSynchronizer replicaSynchronizer;
+    private final Counter writes, reads, readYourWrites, replicaUnavailable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaSynchronizer replicaSynchronizer, MeterRegistry meterRegistry) {
+        this.replicaSynchronizer = replicaSynchronizer;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.writes = routingCounter(meterRegistry, Target.PRIMARY, "write");
+        this.reads = routingCounter(meterRegistry, Target.REPLICA, "read");
+        this.readYourWrites = routingCounter(meterRegistry, Target.PRIMARY, "read-your-writes");
+        this.replicaUnavailable = routingCounter(meterRegistry, Target.PRIMARY, "replica-unavailable");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            registerWriteVersionOnCommit();
+            return Target.PRIMARY;
+        }
+        if (!replicaSynchronizer.isReady()) {
+            replicaUnavailable.increment();
+            return Target.PRIMARY;
+        }
+        if (requiredVersion() > replicaSynchronizer.getReplicaVersion()) {
+            readYourWrites.increment();
+            return Target.PRIMARY;
+        }
+        reads.increment();
+        return Target.REPLICA;
+    }
+
+    private void registerWriteVersionOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || !TransactionSynchronizationManager.isActualTransactionActive())
+            return;
+        TransactionCallbacks.afterCommit(() -> {
+            long version = replicaSynchronizer.markPrimaryWrite();
+            // the response body is written after the service returns, so the cookie still fits in
+            HttpServletResponse response = currentRequestAttributes() != null ? currentRequestAttributes().getResponse() : null;
+            if (response != null && !response.isCommitted()) {
+                Cookie cookie = new Cookie(WRITE_VERSION_COOKIE, String.valueOf(version));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+            }
+        });
+    }
+
+    // the write version sent by the client, 0 outside a request or without the cookie
+    public static long requiredVersion() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        if (attributes == null)
+            return 0;
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null)
+            return 0;
+        for (Cookie cookie : request.getCookies()) {
+            if (WRITE_VERSION_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static ServletRequestAttributes currentRequestAttributes() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes ? attributes : null;
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, Target target, String reason) {
+        return Counter.builder("todolist.datasource.routing")
+                .description("connections handed out per target datasource")
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,129 @@
+package com.mindhub.todolist.datasources;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for asynchronous replication between two H2 databases. The schema is copied
+ * once, then each tick refreshes the replica from linked tables in a single transaction, so
+ * replica readers always see a consistent, slightly stale snapshot.
+ * <p>
+ * A tick that sees a new write deletes every replica table and copies it again with
+ * {@code insert ... select} over the linked table: its cost grows with the whole database, not
+ * with the writes since the last tick. Fine for a demo-sized database, not a model of what real
+ * replication costs.
+ */
+public class ReplicaSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSynchronizer.class);
+    private static final String LINK_SCHEMA = "PRIMARY_LINK";
+
+    private final DataSource primary, replica;
+    private final String primaryUrl, primaryUsername, primaryPassword;
+    private final AtomicLong primaryVersion = new AtomicLong();
+    private final AtomicLong replicaVersion = new AtomicLong();
+    private volatile List<String> tables;
+
+    public ReplicaSynchronizer(DataSource primary, DataSource replica,
+                               String primaryUrl, String primaryUsername, String primaryPassword,
+                               MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.primaryUrl = primaryUrl;
+        this.primaryUsername = primaryUsername;
+        this.primaryPassword = primaryPassword;
+        Gauge.builder("todolist.datasource.replica.lag", this, synchronizer -> synchronizer.primaryVersion.get() - synchronizer.replicaVersion.get())
+                .description("committed writes not yet applied to the replica")
+                .register(meterRegistry);
+    }
+
+    public long markPrimaryWrite() {
+        return primaryVersion.incrementAndGet();
+    }
+
+    public long getReplicaVersion() {
+        return replicaVersion.get();
+    }
+
+    public boolean isReady() {
+        return tables != null;
+    }
+
+    @Scheduled(fixedDelayString = "${todolist.datasource.replica.sync-interval:PT0.2S}")
+    public void synchronize() {
+        long version = primaryVersion.get();
+        if (isReady() && version == replicaVersion.get())
+            return;
+        try (Connection replicaConnection = replica.getConnection()) {
+            if (!isReady())
+                copySchema(replicaConnection);
+            copyData(replicaConnection);
+            replicaVersion.set(version);
+        } catch (SQLException e) {
+            log.warn("Replica synchronization failed, reads stay on the primary until it succeeds", e);
+            tables = null;
+        }
+    }
+
+    private void copySchema(Connection replicaConnection) throws SQLException {
+        List<String> primaryTables = new ArrayList<>();
+        List<String> schemaScript = new ArrayList<>();
+        try (Connection primaryConnection = primary.getConnection();
+             Statement statement = primaryConnection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(
+                    "select table_name from information_schema.tables where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'")) {
+                while (resultSet.next())
+                    primaryTables.add(resultSet.getString(1));
+            }
+            try (ResultSet resultSet = statement.executeQuery("script nodata nopasswords")) {
+                while (resultSet.next())
+                    schemaScript.add(resultSet.getString(1));
+            }
+        }
+
+        try (Statement statement = replicaConnection.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : schemaScript)
+                if (!sql.startsWith("CREATE USER"))
+                    statement.execute(sql);
+            statement.execute("create schema " + LINK_SCHEMA);
+            for (String table : primaryTables)
+                statement.execute("create linked table " + LINK_SCHEMA + "." + table + "('org.h2.Driver', '"
+                        + primaryUrl + "', '" + primaryUsername + "', '" + primaryPassword + "', 'PUBLIC', '" + table + "') readonly");
+        }
+        tables = primaryTables;
+    }
+
+    private void copyData(Connection replicaConnection) throws SQLException {
+        boolean autoCommit = replicaConnection.getAutoCommit();
+        replicaConnection.setAutoCommit(false);
+        try (Statement statement = replicaConnection.createStatement()) {
+            statement.execute("set referential_integrity false");
+            for (String table : tables) {
+                statement.execute("delete from " + table);
+                statement.execute("insert into " + table + " select * from " + LINK_SCHEMA + "." + table);
+            }
+            replicaConnection.commit();
+        } catch (SQLException e) {
+            replicaConnection.rollback();
+            throw e;
+        } finally {
+            try (Statement statement = replicaConnection.createStatement()) {
+                statement.execute("set referential_integrity true");
+            }
+            replicaConnection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mindhub.todolist.datasources;
+
+/**
+ * Shard the current thread talks to. Read by ShardRoutingDataSource when a transaction takes
+ * its first connection; unbound threads use shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT_SHARD.get();
+    }
+
+    static Integer bind(Integer shard) {
+        Integer previous = CURRENT_SHARD.get();
+        if (shard == null)
+            CURRENT_SHARD.remove();
+        else
+            CURRENT_SHARD.set(shard);
+        return previous;
+    }
+}
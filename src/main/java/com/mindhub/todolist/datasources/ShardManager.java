@@ -0,0 +1,206 @@
+package com.mindhub.todolist.datasources;
+
+import com.mindhub.todolist.exceptions.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Partitions users, and the tasks they own, across H2 databases by {@code (id - 1) mod N}.
+ * Identity columns are striped so every shard only generates ids that map back to itself,
+ * which lets a task or user id be routed without a lookup.
+ * <p>
+ * Request paths hold the read side of {@code rebalanceLock}; {@link #rebalance} takes the
+ * write side, so moving rows never races with regular traffic.
+ */
+public class ShardManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardManager.class);
+
+    // tables that move with their owning user, parents first
+    private static final List<String[]> OWNED_TABLES = List.of(
+            new String[]{"USERS", "ID"},
+            new String[]{"TASKS", "USER_ID"},
+            new String[]{"TASKS_ARCHIVE", "USER_ID"});
+
+    private final List<DataSource> shards;
+    private final ExecutorService executor;
+    private final ReentrantReadWriteLock rebalanceLock = new ReentrantReadWriteLock();
+    private final AtomicInteger nextUserShard = new AtomicInteger();
+    private volatile int activeShards;
+
+    public ShardManager(List<DataSource> shards, int activeShards, ExecutorService executor) {
+        if (activeShards < 1 || activeShards > shards.size())
+            throw new IllegalArgumentException("active shards must be between 1 and " + shards.size());
+        this.shards = shards;
+        this.activeShards = activeShards;
+        this.executor = executor;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public record ShardStatus(int shard, boolean active, long users, long tasks, long archivedTasks) {}
+
+    public int getActiveShards() {
+        return activeShards;
+    }
+
+    public int shardOf(Long id) {
+        return (int) Math.floorMod(id - 1, (long) activeShards);
+    }
+
+    public int nextShardForNewUser() {
+        return Math.floorMod(nextUserShard.getAndIncrement(), activeShards);
+    }
+
+    public Scope enter(int shard) {
+        rebalanceLock.readLock().lock();
+        Integer previous = ShardContext.bind(shard);
+        return () -> {
+            ShardContext.bind(previous);
+            rebalanceLock.readLock().unlock();
+        };
+    }
+
+    // runs the operation on every active shard in parallel, results are in shard order
+    public <T> List<T> fanOut(IntFunction<T> operation) {
+        rebalanceLock.readLock().lock();
+        try {
+            List<CompletableFuture<T>> results = IntStream.range(0, activeShards)
+                    .mapToObj(shard -> CompletableFuture.supplyAsync(() -> {
+                        Integer previous = ShardContext.bind(shard);
+                        try {
+                            return operation.apply(shard);
+                        } finally {
+                            ShardContext.bind(previous);
+                        }
+                    }, executor))
+                    .toList();
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the schema Hibernate created on shard 0 to every other configured shard and
+     * stripes the identity columns for the active shard count.
+     */
+    public void initialize() {
+        JdbcTemplate source = new JdbcTemplate(shards.get(0));
+        List<String> schemaScript = source.queryForList("script nodata nopasswords", String.class);
+        for (int shard = 1; shard < shards.size(); shard++) {
+            JdbcTemplate target = new JdbcTemplate(shards.get(shard));
+            target.execute("drop all objects");
+            schemaScript.stream()
+                    .filter(sql -> !sql.startsWith("--") && !sql.startsWith("CREATE USER"))
+                    .forEach(target::execute);
+        }
+        stripeIdentities(activeShards);
+        log.info("Initialized {} shards, {} active", shards.size(), activeShards);
+    }
+
+    /**
+     * Moves every user whose id maps to another shard under {@code targetShards}, together with
+     * its tasks and archived tasks, then re-stripes the identity columns. Returns the number of
+     * users moved.
+     */
+    public int rebalance(int targetShards) {
+        if (targetShards < 1 || targetShards > shards.size())
+            throw new BadRequestException("shards must be between 1 and " + shards.size());
+        rebalanceLock.writeLock().lock();
+        try {
+            int moved = 0;
+            for (int shard = 0; shard < shards.size(); shard++) {
+                List<Long> userIds = new JdbcTemplate(shards.get(shard)).queryForList("select id from users", Long.class);
+                for (Long userId : userIds) {
+                    int target = (int) Math.floorMod(userId - 1, (long) targetShards);
+                    if (target != shard) {
+                        moveUser(userId, shard, target);
+                        moved++;
+                    }
+                }
+            }
+            activeShards = targetShards;
+            stripeIdentities(targetShards);
+            log.info("Rebalanced to {} shards, moved {} users", targetShards, moved);
+            return moved;
+        } finally {
+            rebalanceLock.writeLock().unlock();
+        }
+    }
+
+    public List<ShardStatus> getStatus() {
+        List<ShardStatus> status = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+            status.add(new ShardStatus(shard, shard < activeShards,
+                    jdbc.queryForObject("select count(*) from users", Long.class),
+                    jdbc.queryForObject("select count(*) from tasks", Long.class),
+                    jdbc.queryForObject("select count(*) from tasks_archive", Long.class)));
+        }
+        return status;
+    }
+
+    // rows are merged by id on the target first, so a move interrupted halfway can simply be run again
+    private void moveUser(Long userId, int from, int to) {
+        JdbcTemplate source = new JdbcTemplate(shards.get(from));
+        JdbcTemplate target = new JdbcTemplate(shards.get(to));
+
+        new TransactionTemplate(new DataSourceTransactionManager(shards.get(to))).executeWithoutResult(status -> {
+            for (String[] table : OWNED_TABLES) {
+                List<Map<String, Object>> rows = source.queryForList("select * from " + table[0] + " where " + table[1] + " = ?", userId);
+                for (Map<String, Object> row : rows) {
+                    String columns = String.join(", ", row.keySet());
+                    String placeholders = row.keySet().stream().map(column -> "?").collect(Collectors.joining(", "));
+                    target.update("merge into " + table[0] + " (" + columns + ") key (id) values (" + placeholders + ")", row.values().toArray());
+                }
+            }
+        });
+        new TransactionTemplate(new DataSourceTransactionManager(shards.get(from))).executeWithoutResult(status -> {
+            for (int i = OWNED_TABLES.size() - 1; i >= 0; i--)
+                source.update("delete from " + OWNED_TABLES.get(i)[0] + " where " + OWNED_TABLES.get(i)[1] + " = ?", userId);
+        });
+    }
+
+    private void stripeIdentities(int shardCount) {
+        List<Map<String, Object>> identityColumns = new JdbcTemplate(shards.get(0)).queryForList(
+                "select table_name, column_name from information_schema.columns where table_schema = 'PUBLIC' and is_identity = 'YES'");
+        for (Map<String, Object> identityColumn : identityColumns) {
+            String table = (String) identityColumn.get("TABLE_NAME");
+            String column = (String) identityColumn.get("COLUMN_NAME");
+            long max = 0;
+            for (DataSource shard : shards) {
+                Long shardMax = new JdbcTemplate(shard).queryForObject("select max(" + column + ") from " + table, Long.class);
+                max = Math.max(max, shardMax != null ? shardMax : 0);
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                // first id above every existing one that maps to this shard
+                long start = max + 1 + Math.floorMod(shard - max, (long) shardCount);
+                JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+                jdbc.execute("alter table " + table + " alter column " + column + " restart with " + start);
+                jdbc.execute("alter table " + table + " alter column " + column + " set increment by " + shardCount);
+            }
+        }
+    }
+}
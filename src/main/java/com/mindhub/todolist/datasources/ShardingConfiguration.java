@@ -0,0 +1,81 @@
+package com.mindhub.todolist.datasources;
+
+import com.mindhub.todolist.configurations.BackgroundThreads;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "todolist.sharding.enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    private final List<DataSource> shards;
+    private final ExecutorService shardExecutor;
+    private final ShardManager shardManager;
+
+    public ShardingConfiguration(DataSourceProperties dataSourceProperties,
+                                 ShardingProperties shardingProperties,
+                                 BackgroundThreads backgroundThreads,
+                                 @Value("${todolist.datasource.replica.enabled:false}") boolean replicaEnabled) {
+        if (replicaEnabled)
+            throw new IllegalStateException("todolist.sharding can not be combined with todolist.datasource.replica");
+        this.shards = shardingProperties.urls().stream()
+                .map(url -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(dataSourceProperties.determineDriverClassName())
+                        .url(url)
+                        .username(dataSourceProperties.determineUsername())
+                        .password(dataSourceProperties.determinePassword())
+                        .build())
+                .toList();
+        // with virtual threads every fan-out gets its own threads, the shard pools bound the queries
+        this.shardExecutor = backgroundThreads.isVirtual()
+                ? Executors.newCachedThreadPool(backgroundThreads.factory("shard"))
+                : Executors.newFixedThreadPool(shards.size(), backgroundThreads.factory("shard"));
+        this.shardManager = new ShardManager(shards, shardingProperties.activeShards(), shardExecutor);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardExecutor() {
+        return shardExecutor;
+    }
+
+    @Bean
+    public ShardManager shardManager() {
+        return shardManager;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return ReadWriteRoutingConfiguration.releaseConnectionAfterTransactionCustomizer();
+    }
+
+    // Hibernate creates the schema on shard 0 only, the other shards get a copy once every singleton exists,
+    // which is before @Scheduled jobs start at the end of the refresh and before the data is seeded
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(EntityManagerFactory entityManagerFactory) {
+        return shardManager::initialize;
+    }
+}
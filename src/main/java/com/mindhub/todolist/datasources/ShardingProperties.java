@@ -0,0 +1,9 @@
+package com.mindhub.todolist.datasources;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@ConfigurationProperties("todolist.sharding")
+public record ShardingProperties(boolean enabled, int activeShards, List<String> urls) {
+}
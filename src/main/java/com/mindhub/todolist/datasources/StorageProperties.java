@@ -0,0 +1,24 @@
+package com.mindhub.todolist.datasources;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("todolist.storage")
+public record StorageProperties(boolean persistent, Path directory, DataSize cacheSize, Duration writeDelay,
+                                Duration checkpointInterval, int compactionFillRate, Duration compactionInterval,
+                                DataSize compactionWriteLimit, Duration shutdownCompactTime) {
+
+    // H2 takes the cache size in KB and the delays in milliseconds
+    public String jdbcUrl() {
+        return "jdbc:h2:file:" + directory.toAbsolutePath().resolve("to-do-list")
+                + ";CACHE_SIZE=" + cacheSize.toKilobytes()
+                + ";WRITE_DELAY=" + writeDelay.toMillis()
+                + ";AUTO_COMPACT_FILL_RATE=" + compactionFillRate
+                + ";MAX_COMPACT_TIME=" + shutdownCompactTime.toMillis()
+                // the database is closed with the connection pool, after the last job finished
+                + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+}
@@ -0,0 +1,40 @@
+package com.mindhub.todolist.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * One entry of a multi-get response. Entries come back in the order the ids were requested,
+ * and ids that do not exist carry an error instead of failing the whole call.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemDTO<T>(Long id, T data, String error) {
+
+    public static <T> List<BatchItemDTO<T>> inRequestOrder(List<Long> ids, Map<Long, T> found, String missingError) {
+        return ids.stream()
+                .map(id -> found.containsKey(id)
+                        ? new BatchItemDTO<>(id, found.get(id), null)
+                        : new BatchItemDTO<T>(id, null, missingError))
+                .toList();
+    }
+
+    // every shard answers for the full id list, an entry is found if any shard has it
+    public static <T> List<BatchItemDTO<T>> mergeShards(List<List<BatchItemDTO<T>>> shardResults) {
+        return IntStream.range(0, shardResults.get(0).size())
+                .mapToObj(position -> shardResults.stream()
+                        .map(items -> items.get(position))
+                        .filter(BatchItemDTO::isFound)
+                        .findFirst()
+                        .orElse(shardResults.get(0).get(position)))
+                .toList();
+    }
+
+    @JsonIgnore
+    public boolean isFound() {
+        return data != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mindhub.todolist.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BatchRequestDTO(
+
+        @NotEmpty(message = "ids must not be empty")
+        List<@NotNull(message = "ids can not contain null") Long> ids
+) {
+}
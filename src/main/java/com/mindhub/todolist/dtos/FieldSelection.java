@@ -0,0 +1,30 @@
+package com.mindhub.todolist.dtos;
+
+import com.mindhub.todolist.exceptions.BadRequestException;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Top-level fields requested through {@code ?fields=}. Services use it to skip joins and
+ * collections that will not be serialized; FieldSelectionResponseAdvice trims the JSON.
+ */
+public record FieldSelection(Set<String> fields) {
+
+    public static final String FILTER_ID = "fieldSelection";
+
+    public static FieldSelection of(Set<String> requested, Set<String> accepted) {
+        if (requested == null || requested.isEmpty())
+            return new FieldSelection(null);
+        if (!accepted.containsAll(requested)) {
+            Set<String> unknown = new TreeSet<>(requested);
+            unknown.removeAll(accepted);
+            throw new BadRequestException("invalid fields " + unknown + ". Accepted values: " + new TreeSet<>(accepted));
+        }
+        return new FieldSelection(Set.copyOf(requested));
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindhub.todolist.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One line of an import response: a rejected row, the running totals after each batch, or the
+ * final totals.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportEventDTO(String type, Long line, List<String> errors, Long rows, Long imported, Long failed) {
+
+    public static ImportEventDTO error(long line, List<String> errors) {
+        return new ImportEventDTO("error", line, errors, null, null, null);
+    }
+
+    public static ImportEventDTO progress(long rows, long imported, long failed) {
+        return new ImportEventDTO("progress", null, null, rows, imported, failed);
+    }
+
+    public static ImportEventDTO done(long rows, long imported, long failed) {
+        return new ImportEventDTO("done", null, null, rows, imported, failed);
+    }
+}
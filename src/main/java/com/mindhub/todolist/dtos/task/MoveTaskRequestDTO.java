@@ -0,0 +1,13 @@
+package com.mindhub.todolist.dtos.task;
+
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import jakarta.validation.constraints.NotNull;
+
+// exactly one anchor: the task is placed right after afterTaskId or right before beforeTaskId
+public record MoveTaskRequestDTO(
+        Long afterTaskId,
+        Long beforeTaskId,
+        @NotNull(message = "user must be provided")
+        UserTaskRequestDTO user
+) {
+}
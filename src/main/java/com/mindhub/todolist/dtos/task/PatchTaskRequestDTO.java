@@ -3,11 +3,19 @@ package com.mindhub.todolist.dtos.task;
 import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
 import com.mindhub.todolist.models.TaskStatus;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.Set;
 
 public record PatchTaskRequestDTO(
         String title,
         String description,
         TaskStatus taskStatus,
+        Instant dueAt,
+        @Size(max = 16, message = "a task can have at most 16 tags")
+        Set<@Pattern(regexp = "[A-Za-z0-9_-]{1,32}", message = "tags must have 1 to 32 letters, digits, '_' or '-'") String> tags,
         @NotNull(message = "user must be provided")
         UserTaskRequestDTO user
 ) {
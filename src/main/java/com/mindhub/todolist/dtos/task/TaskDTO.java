@@ -1,24 +1,99 @@
 package com.mindhub.todolist.dtos.task;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mindhub.todolist.dtos.FieldSelection;
 import com.mindhub.todolist.dtos.user.UserTaskDTO;
+import com.mindhub.todolist.models.ArchivedTask;
 import com.mindhub.todolist.models.Task;
 import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.readmodel.TaskView;
+import com.mindhub.todolist.readmodel.UserView;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Set;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 public class TaskDTO {
 
+    public static final Set<String> FIELDS = Set.of("id", "title", "description", "taskStatus", "createdAt", "statusChangedAt", "dueAt", "overdue",
+            "tags", "user");
+
     private final Long id;
     private final String title, description;
     private final TaskStatus taskStatus;
+    private final Instant createdAt, statusChangedAt, dueAt;
+    private final boolean overdue;
+    private final Set<String> tags;
     private final UserTaskDTO userTaskDTO;
+    private final Long version, userVersion;
 
     public TaskDTO(Task task) {
+        this(task, FieldSelection.of(null, FIELDS));
+    }
+
+    // the owner is a lazy association, it is only touched when "user" was selected
+    public TaskDTO(Task task, FieldSelection fieldSelection) {
         this.id = task.getId();
         this.title = task.getTitle();
         this.description = task.getDescription();
         this.taskStatus = task.getTaskStatus();
-        this.userTaskDTO = new UserTaskDTO(task.getUser());
+        this.createdAt = task.getCreatedAt();
+        this.statusChangedAt = task.getStatusChangedAt();
+        this.dueAt = task.getDueAt();
+        this.overdue = task.isOverdue();
+        this.tags = task.getTags();
+        this.userTaskDTO = fieldSelection.includes("user") ? new UserTaskDTO(task.getUser()) : null;
+        this.version = task.getVersion();
+        this.userVersion = userTaskDTO != null ? task.getUser().getVersion() : null;
+    }
+
+    // used by the reactive variant, which reads plain rows instead of entities
+    public TaskDTO(Long id, String title, String description, TaskStatus taskStatus, Instant createdAt, Instant statusChangedAt,
+                   Instant dueAt, boolean overdue, Set<String> tags, UserTaskDTO userTaskDTO, Long version) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.taskStatus = taskStatus;
+        this.createdAt = createdAt;
+        this.statusChangedAt = statusChangedAt;
+        this.dueAt = dueAt;
+        this.overdue = overdue;
+        this.tags = tags;
+        this.userTaskDTO = userTaskDTO;
+        this.version = version;
+        this.userVersion = null;
+    }
+
+    public TaskDTO(TaskView task, UserView owner, FieldSelection fieldSelection) {
+        this.id = task.id();
+        this.title = task.title();
+        this.description = task.description();
+        this.taskStatus = task.taskStatus();
+        this.createdAt = task.createdAt();
+        this.statusChangedAt = task.statusChangedAt();
+        this.dueAt = task.dueAt();
+        this.overdue = task.overdue();
+        this.tags = task.tags();
+        this.userTaskDTO = fieldSelection.includes("user") ? new UserTaskDTO(owner.id(), owner.username(), owner.email()) : null;
+        this.version = task.version();
+        this.userVersion = userTaskDTO != null ? owner.version() : null;
+    }
+
+    public TaskDTO(ArchivedTask archivedTask, FieldSelection fieldSelection) {
+        this.id = archivedTask.getId();
+        this.title = archivedTask.getTitle();
+        this.description = archivedTask.getDescription();
+        this.taskStatus = archivedTask.getTaskStatus();
+        this.createdAt = archivedTask.getCreatedAt();
+        this.statusChangedAt = archivedTask.getStatusChangedAt();
+        this.dueAt = archivedTask.getDueAt();
+        this.overdue = false;
+        this.tags = archivedTask.getTags() != null ? archivedTask.getTags() : Set.of();
+        this.userTaskDTO = fieldSelection.includes("user") ? new UserTaskDTO(archivedTask.getUser()) : null;
+        this.version = null;
+        this.userVersion = null;
     }
 
     public Long getId() {
@@ -37,10 +112,40 @@ public class TaskDTO {
         return taskStatus;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
     public UserTaskDTO getUser() {
         return userTaskDTO;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public Long getUserVersion() {
+        return userVersion;
+    }
+
     private boolean isValidTask() {
         return Arrays.stream(TaskStatus.values()).parallel().anyMatch(taskStatus::equals);
     }
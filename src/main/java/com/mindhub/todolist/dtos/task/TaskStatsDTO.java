@@ -0,0 +1,17 @@
+package com.mindhub.todolist.dtos.task;
+
+import com.mindhub.todolist.models.TaskStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Task throughput of one hour or day. {@code completed} is the number of tasks that entered
+ * {@code COMPLETED}; the time in a status is counted in the bucket where the task left it.
+ */
+public record TaskStatsDTO(Instant bucketStart, long created, long completed, Map<TaskStatus, StatusStats> statuses) {
+
+    public record StatusStats(long entered, long exited, Duration timeInStatus, Duration averageTimeInStatus) {
+    }
+}
@@ -1,7 +1,6 @@
 package com.mindhub.todolist.dtos.user;
 
 import com.mindhub.todolist.validations.NoWhitespaces;
-import com.mindhub.todolist.validations.UniqueEmail;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.hibernate.validator.constraints.Length;
@@ -12,7 +11,6 @@ public record NewUserRequestDTO(
         @NoWhitespaces(message = "username can not contain whitespaces")
         String username,
         @Email(message = "invalid email")
-        @UniqueEmail
         String email,
         @NotBlank(message = "password must not be empty")
         @NoWhitespaces(message = "password can not contain whitespaces")
@@ -1,21 +1,41 @@
 package com.mindhub.todolist.dtos.user;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.mindhub.todolist.dtos.FieldSelection;
 import com.mindhub.todolist.dtos.task.TaskUserDTO;
 import com.mindhub.todolist.models.UserEntity;
 
 import java.util.List;
+import java.util.Set;
 
+@JsonFilter(FieldSelection.FILTER_ID)
 public class UserDTO {
 
+    public static final Set<String> FIELDS = Set.of("id", "username", "email", "tasks");
+
     private final Long id;
     private final String username, email;
     private final List<TaskUserDTO> taskUserDTOS;
 
     public UserDTO(UserEntity userEntity) {
+        this(userEntity, FieldSelection.of(null, FIELDS));
+    }
+
+    // the tasks collection is lazy, it is only initialized when "tasks" was selected
+    public UserDTO(UserEntity userEntity, FieldSelection fieldSelection) {
         this.id = userEntity.getId();
         this.username = userEntity.getUsername();
         this.email = userEntity.getEmail();
-        this.taskUserDTOS = userEntity.getTasks().stream().map(TaskUserDTO::new).toList();
+        this.taskUserDTOS = fieldSelection.includes("tasks")
+                ? userEntity.getTasks().stream().map(TaskUserDTO::new).toList()
+                : null;
+    }
+
+    public UserDTO(Long id, String username, String email, List<TaskUserDTO> taskUserDTOS) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.taskUserDTOS = taskUserDTOS;
     }
 
     public Long getId() {
@@ -14,6 +14,12 @@ public class UserTaskDTO {
         this.email = userEntity.getEmail();
     }
 
+    public UserTaskDTO(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+
     public Long getId() {
         return id;
     }
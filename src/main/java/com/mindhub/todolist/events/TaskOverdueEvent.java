@@ -0,0 +1,9 @@
+package com.mindhub.todolist.events;
+
+import java.time.Instant;
+
+/**
+ * Published once per task when its due date passes before it was completed.
+ */
+public record TaskOverdueEvent(Long taskId, Instant dueAt, Instant firedAt) {
+}
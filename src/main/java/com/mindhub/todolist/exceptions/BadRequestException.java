@@ -0,0 +1,9 @@
+package com.mindhub.todolist.exceptions;
+
+// unchecked because it is raised from parsers and lambdas that can not declare checked exceptions
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mindhub.todolist.exceptions;
+
+// the request is valid but does not fit the current state of the resource, e.g. stopping what is not running
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
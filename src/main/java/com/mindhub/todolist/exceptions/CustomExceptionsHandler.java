@@ -2,9 +2,11 @@ package com.mindhub.todolist.exceptions;
 
 
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -49,6 +51,28 @@ public class CustomExceptionsHandler {
         return finalResponse(emailAlreadyExistsException.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> optimisticLockingFailureHandler(ObjectOptimisticLockingFailureException optimisticLockingFailureException) {
+        return finalResponse("the resource was modified by another request, retry", HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> badRequestExceptionHandler(BadRequestException badRequestException) {
+        return finalResponse(badRequestException.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> conflictExceptionHandler(ConflictException conflictException) {
+        return finalResponse(conflictException.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> tooManyRequestsExceptionHandler(TooManyRequestsException tooManyRequestsException) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooManyRequestsException.getRetryAfterSeconds()))
+                .body(response(tooManyRequestsException.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleInvalidArgument(MethodArgumentNotValidException methodArgumentNotValidException) {
         return finalResponse(
@@ -86,11 +110,11 @@ public class CustomExceptionsHandler {
         return errorsList;
     }
 
-    private ResponseEntity<ErrorResponse> finalResponse(String errorMessage, HttpStatus codeStatus) {
+    protected ResponseEntity<ErrorResponse> finalResponse(String errorMessage, HttpStatus codeStatus) {
         return new ResponseEntity<>(response(errorMessage), codeStatus);
     }
 
-    private ResponseEntity<ErrorResponse> finalResponse(List<String> errorMessageList, HttpStatus codeStatus) {
+    protected ResponseEntity<ErrorResponse> finalResponse(List<String> errorMessageList, HttpStatus codeStatus) {
         return new ResponseEntity<>(response(errorMessageList), codeStatus);
     }
 
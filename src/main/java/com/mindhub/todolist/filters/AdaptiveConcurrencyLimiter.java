@@ -0,0 +1,195 @@
+package com.mindhub.todolist.filters;
+
+import com.mindhub.todolist.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AIMD concurrency limiter: the global limit grows by one per window of fast responses and
+ * is cut by {@code backoffRatio} when latency rises above {@code latencyTolerance} times the
+ * lowest latency of the last one or two windows of {@code minLatencyWindow} samples. Each user
+ * may hold at most {@code maxUserShare} of the limit, so a single client can not take every slot.
+ * A request counts against its client address until it authenticated, then against its user.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    // the permit of the request being served, set by ConcurrencyLimitFilter
+    static final String PERMIT_ATTRIBUTE = AdaptiveConcurrencyLimiter.class.getName() + ".permit";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<String, AtomicInteger> inFlightPerUser = new ConcurrentHashMap<>();
+    // the limit is a double so it can grow by fractions, stored as raw long bits to CAS it
+    private final AtomicLong limitBits;
+    // the minimum of the current window and of the one before it
+    private final AtomicLong windowMinLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong previousWindowMinLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final Counter rejectedGlobal, rejectedUser;
+
+    private final int minLimit, maxLimit, minPerUser;
+    private final double maxUserShare, latencyTolerance, backoffRatio;
+    private final long minLatencyWindow;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${todolist.concurrency-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${todolist.concurrency-limit.min-limit:4}") int minLimit,
+                                      @Value("${todolist.concurrency-limit.max-limit:200}") int maxLimit,
+                                      @Value("${todolist.concurrency-limit.min-per-user:2}") int minPerUser,
+                                      @Value("${todolist.concurrency-limit.max-user-share:0.5}") double maxUserShare,
+                                      @Value("${todolist.concurrency-limit.latency-tolerance:2.0}") double latencyTolerance,
+                                      @Value("${todolist.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${todolist.concurrency-limit.min-latency-window:1000}") long minLatencyWindow) {
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.minPerUser = minPerUser;
+        this.maxUserShare = maxUserShare;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.minLatencyWindow = minLatencyWindow;
+
+        Gauge.builder("todolist.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("current global concurrency limit").register(meterRegistry);
+        Gauge.builder("todolist.concurrency.user-limit", this, AdaptiveConcurrencyLimiter::getUserLimit)
+                .description("current concurrency limit for a single user").register(meterRegistry);
+        Gauge.builder("todolist.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("todolist.concurrency.active-users", inFlightPerUser, ConcurrentHashMap::size)
+                .register(meterRegistry);
+        this.rejectedGlobal = Counter.builder("todolist.concurrency.rejected").tag("reason", "global").register(meterRegistry);
+        this.rejectedUser = Counter.builder("todolist.concurrency.rejected").tag("reason", "user").register(meterRegistry);
+    }
+
+    public record Permit(String userKey, long startNanos) {}
+
+    /**
+     * Returns a permit that must be handed back to {@link #release}, or {@code null} when the
+     * request has to be shed.
+     */
+    public Permit tryAcquire(String userKey) {
+        int limit = getLimit();
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            rejectedGlobal.increment();
+            return null;
+        }
+
+        if (!tryAcquireUser(userKey)) {
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit(userKey, System.nanoTime());
+    }
+
+    /**
+     * Moves a permit to another user key once the request proved who it is, e.g. from the client
+     * address to the authenticated user. Returns {@code null}, and the permit keeps its key, when
+     * that user already holds its share.
+     */
+    public Permit transfer(Permit permit, String userKey) {
+        if (permit.userKey().equals(userKey))
+            return permit;
+        if (!tryAcquireUser(userKey))
+            return null;
+        releaseUser(permit.userKey());
+        return new Permit(userKey, permit.startNanos());
+    }
+
+    /**
+     * Moves the permit of the current request from its client address to the verified user, so
+     * the user's share applies whichever address it comes from and the address share only counts
+     * anonymous requests. Does nothing for a call that did not go through ConcurrencyLimitFilter.
+     */
+    public void authenticated(Long userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !(attributes.getAttribute(PERMIT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AtomicReference<?> holder))
+            return;
+        @SuppressWarnings("unchecked")
+        AtomicReference<Permit> current = (AtomicReference<Permit>) holder;
+        Permit moved = transfer(current.get(), "user:" + userId);
+        if (moved == null)
+            throw new TooManyRequestsException("too many concurrent requests, retry later", retryAfterSeconds());
+        current.set(moved);
+    }
+
+    public void release(Permit permit, boolean dropped) {
+        long latency = System.nanoTime() - permit.startNanos();
+        int currentInFlight = inFlight.getAndDecrement();
+        releaseUser(permit.userKey());
+        adjustLimit(latency, currentInFlight, dropped);
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getUserLimit() {
+        return Math.max(minPerUser, (int) Math.ceil(getLimit() * maxUserShare));
+    }
+
+    // suggested client back-off, based on the no-load latency and how far over the limit we are
+    public long retryAfterSeconds() {
+        long minLatency = minLatencyNanos();
+        if (minLatency == Long.MAX_VALUE)
+            return 1;
+        double overload = (double) inFlight.get() / Math.max(1, getLimit());
+        return Math.max(1, (long) Math.ceil(minLatency * latencyTolerance * overload / 1_000_000_000d));
+    }
+
+    private long minLatencyNanos() {
+        return Math.min(windowMinLatencyNanos.get(), previousWindowMinLatencyNanos.get());
+    }
+
+    private boolean tryAcquireUser(String userKey) {
+        AtomicInteger userInFlight = inFlightPerUser.compute(userKey, (key, counter) -> {
+            AtomicInteger current = counter != null ? counter : new AtomicInteger();
+            current.incrementAndGet();
+            return current;
+        });
+        if (userInFlight.get() > getUserLimit()) {
+            releaseUser(userKey);
+            rejectedUser.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseUser(String userKey) {
+        inFlightPerUser.computeIfPresent(userKey, (key, counter) -> counter.decrementAndGet() == 0 ? null : counter);
+    }
+
+    private void adjustLimit(long latency, int currentInFlight, boolean dropped) {
+        // the no-load latency is re-learned window by window so it can follow slower hardware or data growth,
+        // but the previous window is kept so a window that starts under overload does not become the baseline
+        if (samples.incrementAndGet() % minLatencyWindow == 0)
+            previousWindowMinLatencyNanos.set(windowMinLatencyNanos.getAndSet(latency));
+        else
+            windowMinLatencyNanos.accumulateAndGet(latency, Math::min);
+
+        boolean overloaded = dropped || latency > minLatencyNanos() * latencyTolerance;
+        while (true) {
+            long currentBits = limitBits.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double next;
+            if (overloaded)
+                next = Math.max(minLimit, current * backoffRatio);
+            else if (currentInFlight * 2 >= current)
+                next = Math.min(maxLimit, current + 1 / current);
+            else
+                return;
+            if (next == current || limitBits.compareAndSet(currentBits, Double.doubleToLongBits(next)))
+                return;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mindhub.todolist.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.exceptions.CustomExceptionsHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sheds load with 429 before a request takes a DB connection. Credentials are only verified by
+ * the services, and ids in the path or emails in the body can be chosen freely by the caller, so
+ * a request is admitted on its client address; once a service verified the user, the permit is
+ * moved to it with {@link AdaptiveConcurrencyLimiter#authenticated}. Behind a proxy, set
+ * {@code server.forward-headers-strategy} so the address is the client's rather than the proxy's.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${todolist.concurrency-limit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // imports run for minutes and would skew the latency the limit adapts to
+        return !enabled || !request.getRequestURI().startsWith("/api/") || request.getRequestURI().endsWith("/import");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire("addr:" + request.getRemoteAddr());
+        if (permit == null) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(List.of("too many concurrent requests, retry later")));
+            return;
+        }
+
+        AtomicReference<AdaptiveConcurrencyLimiter.Permit> current = new AtomicReference<>(permit);
+        request.setAttribute(AdaptiveConcurrencyLimiter.PERMIT_ATTRIBUTE, current);
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(current.get(), dropped);
+        }
+    }
+}
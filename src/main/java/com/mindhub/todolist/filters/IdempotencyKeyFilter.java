@@ -0,0 +1,196 @@
+package com.mindhub.todolist.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.exceptions.CustomExceptionsHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Honors the {@code Idempotency-Key} header on the create endpoints. Runs before argument
+ * resolution and validation, so a retried signup is answered from the store instead of
+ * failing on the unique email constraint.
+ */
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/api/v1/tasks", "/api/v1/users");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${todolist.idempotency.wait-timeout:PT10S}")
+    private Duration waitTimeout;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !IDEMPOTENT_PATHS.contains(stripTrailingSlash(request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters", HttpStatus.BAD_REQUEST);
+            return;
+        }
+
+        BufferedBodyRequest bufferedRequest = new BufferedBodyRequest(request);
+        String storeKey = stripTrailingSlash(request.getRequestURI()) + ":" + idempotencyKey;
+        IdempotencyStore.Claim claim = idempotencyStore.claim(storeKey, fingerprint(bufferedRequest.body));
+
+        if (!claim.owner()) {
+            replay(claim.entry(), bufferedRequest.body, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(bufferedRequest, cachingResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyStore.release(storeKey, claim.entry(), e);
+            throw e;
+        }
+
+        int status = cachingResponse.getStatus();
+        if (status >= 500)
+            idempotencyStore.release(storeKey, claim.entry(), new IllegalStateException("request failed with status " + status));
+        else
+            idempotencyStore.complete(claim.entry(), new IdempotencyStore.StoredResponse(
+                    status,
+                    cachingResponse.getContentType(),
+                    cachingResponse.getHeader(HttpHeaders.LOCATION),
+                    cachingResponse.getContentAsByteArray()));
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyStore.Entry entry, byte[] body, HttpServletResponse response) throws IOException {
+        if (!entry.matches(fingerprint(body))) {
+            writeError(response, "Idempotency-Key was already used with a different request", HttpStatus.UNPROCESSABLE_ENTITY);
+            return;
+        }
+
+        IdempotencyStore.StoredResponse stored;
+        try {
+            stored = entry.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            writeError(response, "a request with the same Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+            return;
+        } catch (ExecutionException e) {
+            writeError(response, "the original request with this Idempotency-Key failed, retry it", HttpStatus.CONFLICT);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, "request was interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        response.setStatus(stored.status());
+        if (stored.contentType() != null)
+            response.setContentType(stored.contentType());
+        if (stored.location() != null)
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        response.setHeader("Idempotent-Replayed", "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, String message, HttpStatus status) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(List.of(message)));
+    }
+
+    private static byte[] fingerprint(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String stripTrailingSlash(String uri) {
+        return uri.length() > 1 && uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+
+    // the body is read once for the fingerprint and then served again to the controller
+    private static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return inputStream.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
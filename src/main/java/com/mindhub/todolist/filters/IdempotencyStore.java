@@ -0,0 +1,96 @@
+package com.mindhub.todolist.filters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+public class IdempotencyStore {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // entries are claimed in createdAt order, so the oldest one is always at the head
+    private final Queue<Claimed> claimOrder = new ConcurrentLinkedQueue<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public IdempotencyStore(@Value("${todolist.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${todolist.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public record StoredResponse(int status, String contentType, String location, byte[] body) {}
+
+    public record Entry(byte[] fingerprint, long createdAt, CompletableFuture<StoredResponse> response) {
+
+        public boolean matches(byte[] otherFingerprint) {
+            return Arrays.equals(fingerprint, otherFingerprint);
+        }
+    }
+
+    public record Claim(Entry entry, boolean owner) {}
+
+    private record Claimed(String key, Entry entry) {}
+
+    /**
+     * Registers a new in-flight entry for the key, or returns the one already registered.
+     * When {@code owner} is true the caller must execute the request and then call
+     * {@link #complete} or {@link #release}.
+     */
+    public Claim claim(String key, byte[] fingerprint) {
+        long now = System.nanoTime();
+        Entry candidate = new Entry(fingerprint, now, new CompletableFuture<>());
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, candidate);
+            if (existing == null) {
+                claimOrder.add(new Claimed(key, candidate));
+                evict(now);
+                return new Claim(candidate, true);
+            }
+            if (!isExpired(existing, now))
+                return new Claim(existing, false);
+            entries.remove(key, existing);
+        }
+    }
+
+    public void complete(Entry entry, StoredResponse response) {
+        entry.response().complete(response);
+    }
+
+    // failed executions are not recorded, so the client can retry with the same key
+    public void release(String key, Entry entry, Throwable cause) {
+        entries.remove(key, entry);
+        entry.response().completeExceptionally(cause);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.response().isDone() && now - entry.createdAt() > ttlNanos;
+    }
+
+    /**
+     * Drops expired entries, and the oldest completed ones while there are more than {@code maxEntries},
+     * from the head of the claim order. Stops at the first entry still in flight, so the store can exceed
+     * {@code maxEntries} by the number of requests being executed.
+     */
+    private void evict(long now) {
+        synchronized (claimOrder) {
+            for (Claimed oldest; (oldest = claimOrder.peek()) != null; claimOrder.poll()) {
+                // released, or replaced after it expired
+                if (entries.get(oldest.key()) != oldest.entry())
+                    continue;
+                boolean evictable = isExpired(oldest.entry(), now)
+                        || entries.size() > maxEntries && oldest.entry().response().isDone();
+                if (!evictable)
+                    return;
+                entries.remove(oldest.key(), oldest.entry());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.mindhub.todolist.flightrecorder;
+
+import com.mindhub.todolist.services.implementations.TaskServiceImp;
+import com.mindhub.todolist.services.implementations.UserServiceImp;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds the Flight Recorder interceptors to the task and user services and to every Spring Data repository.
+ * With no recording running they only check whether their event is enabled.
+ */
+@Configuration
+public class FlightRecorderConfiguration {
+
+    @Bean
+    public static BeanPostProcessor flightRecorderInterceptors() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // the repository proxy is created when the factory bean is initialized
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean)
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                            proxyFactory.addAdvice(new RepositoryCallInterceptor(information.getRepositoryInterface().getSimpleName()))));
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof TaskServiceImp)
+                    return withFirstAdvice(bean, new ServiceOperationInterceptor("TaskService", false));
+                if (bean instanceof UserServiceImp)
+                    return withFirstAdvice(bean, new ServiceOperationInterceptor("UserService", true));
+                return bean;
+            }
+        };
+    }
+
+    // first, so the event also covers the transaction interceptor and its commit
+    private static Object withFirstAdvice(Object bean, ServiceOperationInterceptor interceptor) {
+        if (bean instanceof Advised advised) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,99 @@
+package com.mindhub.todolist.flightrecorder;
+
+import com.mindhub.todolist.exceptions.ConflictException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The one continuous JDK Flight Recorder recording the admin endpoint controls. It uses the JDK settings
+ * named by {@code todolist.flight-recorder.settings} ("default" is the low-overhead continuous profile)
+ * plus the service and repository events, and only keeps the last {@code max-age} or {@code max-size} of data.
+ */
+@Component
+public class FlightRecording {
+
+    public record Status(String state, Instant startedAt, Duration maxAge, long maxSizeBytes, long sizeBytes) {}
+
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Duration threshold;
+    private Recording recording;
+
+    public FlightRecording(@Value("${todolist.flight-recorder.settings:default}") String settings,
+                           @Value("${todolist.flight-recorder.max-age:PT30M}") Duration maxAge,
+                           @Value("${todolist.flight-recorder.max-size:64MB}") DataSize maxSize,
+                           @Value("${todolist.flight-recorder.threshold:PT0S}") Duration threshold) {
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.threshold = threshold;
+    }
+
+    // starting a running recording leaves it as it is, a stopped one is discarded and replaced
+    public synchronized Status start() throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            return status();
+        if (recording != null)
+            recording.close();
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("todolist");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        // the dump is downloadable, it must not carry credentials passed as environment variables or -D flags
+        recording.disable("jdk.InitialEnvironmentVariable");
+        recording.disable("jdk.InitialSystemProperty");
+        recording.enable(ServiceOperationEvent.class).withThreshold(threshold);
+        recording.enable(ServicePhaseEvent.class).withThreshold(threshold);
+        recording.enable(RepositoryCallEvent.class).withThreshold(threshold);
+        recording.start();
+        return status();
+    }
+
+    // the data of a stopped recording can still be dumped until the next start
+    public synchronized Status stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING)
+            throw new ConflictException("no recording is running");
+        recording.stop();
+        return status();
+    }
+
+    /**
+     * Writes the retained data to a temporary file and opens it; the file is deleted when the stream is closed.
+     */
+    public synchronized InputStream dump() throws IOException {
+        if (recording == null)
+            throw new ConflictException("no recording was started");
+        Path file = Files.createTempFile("todolist-", ".jfr");
+        recording.dump(file);
+        return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    public synchronized Status status() {
+        if (recording == null)
+            return new Status(RecordingState.NEW.name(), null, maxAge, maxSize.toBytes(), 0);
+        return new Status(recording.getState().name(), recording.getStartTime(), recording.getMaxAge(), recording.getMaxSize(),
+                recording.getSize());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null)
+            recording.close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mindhub.todolist.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mindhub.todolist.RepositoryCall")
+@Label("Repository Call")
+@Category({"To-Do List", "Repository"})
+@Description("A Spring Data repository call, with the service operation and ids it ran for")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Service")
+    String service;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Task Id")
+    long taskId;
+}
@@ -0,0 +1,43 @@
+package com.mindhub.todolist.flightrecorder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Emits a RepositoryCallEvent around every call of one Spring Data repository, tagged with the
+ * service operation of the calling thread when there is one.
+ */
+class RepositoryCallInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    RepositoryCallInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled())
+            return invocation.proceed();
+
+        event.begin();
+        try {
+            return invocation.proceed();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                ServiceOperation operation = ServiceOperation.current();
+                if (operation != null) {
+                    event.service = operation.service;
+                    event.operation = operation.operation;
+                    event.userId = operation.userId;
+                    event.taskId = operation.taskId;
+                }
+                event.commit();
+            }
+        }
+    }
+}
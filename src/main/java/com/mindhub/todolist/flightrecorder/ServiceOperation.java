@@ -0,0 +1,87 @@
+package com.mindhub.todolist.flightrecorder;
+
+/**
+ * The service operation running on this thread while a flight recording is active. ServiceOperationInterceptor
+ * opens one per TaskService/UserService call; the services mark their phases and the ids they resolve, and the
+ * ids are copied onto every phase and repository event of the operation. Without a recording every method is a no-op.
+ */
+public final class ServiceOperation {
+
+    public enum Phase {AUTH, LOOKUP, VALIDATION, SAVE, MAPPING}
+
+    private static final ThreadLocal<ServiceOperation> CURRENT = new ThreadLocal<>();
+
+    final String service;
+    final String operation;
+    long userId;
+    long taskId;
+    private final ServiceOperation outer;
+    private ServicePhaseEvent phaseEvent;
+
+    private ServiceOperation(String service, String operation, ServiceOperation outer) {
+        this.service = service;
+        this.operation = operation;
+        this.outer = outer;
+    }
+
+    /**
+     * Ends the phase the current operation is in and starts the given one, which lasts until the next phase or the
+     * end of the operation.
+     */
+    public static void phase(Phase phase) {
+        ServiceOperation current = CURRENT.get();
+        if (current == null)
+            return;
+        current.endPhase();
+        ServicePhaseEvent phaseEvent = new ServicePhaseEvent();
+        if (!phaseEvent.isEnabled())
+            return;
+        phaseEvent.phase = phase.name().toLowerCase();
+        phaseEvent.begin();
+        current.phaseEvent = phaseEvent;
+    }
+
+    public static void userId(Long userId) {
+        ServiceOperation current = CURRENT.get();
+        if (current != null && userId != null)
+            current.userId = userId;
+    }
+
+    public static void taskId(Long taskId) {
+        ServiceOperation current = CURRENT.get();
+        if (current != null && taskId != null)
+            current.taskId = taskId;
+    }
+
+    static ServiceOperation current() {
+        return CURRENT.get();
+    }
+
+    static ServiceOperation begin(String service, String operation) {
+        ServiceOperation started = new ServiceOperation(service, operation, CURRENT.get());
+        CURRENT.set(started);
+        return started;
+    }
+
+    void end() {
+        endPhase();
+        if (outer != null)
+            CURRENT.set(outer);
+        else
+            CURRENT.remove();
+    }
+
+    private void endPhase() {
+        if (phaseEvent == null)
+            return;
+        phaseEvent.end();
+        if (phaseEvent.shouldCommit()) {
+            phaseEvent.service = service;
+            phaseEvent.operation = operation;
+            phaseEvent.userId = userId;
+            phaseEvent.taskId = taskId;
+            phaseEvent.commit();
+        }
+        phaseEvent = null;
+    }
+}
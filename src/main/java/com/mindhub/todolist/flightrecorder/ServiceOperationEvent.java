@@ -0,0 +1,32 @@
+package com.mindhub.todolist.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mindhub.todolist.ServiceOperation")
+@Label("Service Operation")
+@Category({"To-Do List", "Service"})
+@Description("A call of a TaskService or UserService method, ids are 0 when the operation never resolved them")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Task Id")
+    long taskId;
+
+    @Label("Outcome")
+    @Description("ok, or the simple name of the exception the operation threw")
+    String outcome;
+}
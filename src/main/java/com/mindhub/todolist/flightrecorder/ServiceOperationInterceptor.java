@@ -0,0 +1,56 @@
+package com.mindhub.todolist.flightrecorder;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Emits a ServiceOperationEvent around every call of a service bean, outside its transaction so the
+ * commit is part of the operation. The first {@code Long} argument is taken as the id the call is about.
+ */
+class ServiceOperationInterceptor implements MethodInterceptor {
+
+    private final String service;
+    private final boolean idArgumentIsUser;
+
+    ServiceOperationInterceptor(String service, boolean idArgumentIsUser) {
+        this.service = service;
+        this.idArgumentIsUser = idArgumentIsUser;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ServiceOperationEvent event = new ServiceOperationEvent();
+        if (!event.isEnabled())
+            return invocation.proceed();
+
+        ServiceOperation operation = ServiceOperation.begin(service, invocation.getMethod().getName());
+        for (Object argument : invocation.getArguments()) {
+            if (argument instanceof Long id) {
+                if (idArgumentIsUser)
+                    operation.userId = id;
+                else
+                    operation.taskId = id;
+                break;
+            }
+        }
+        String outcome = "ok";
+        event.begin();
+        try {
+            return invocation.proceed();
+        } catch (Throwable failure) {
+            outcome = failure.getClass().getSimpleName();
+            throw failure;
+        } finally {
+            operation.end();
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = operation.service;
+                event.operation = operation.operation;
+                event.userId = operation.userId;
+                event.taskId = operation.taskId;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindhub.todolist.flightrecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mindhub.todolist.ServicePhase")
+@Label("Service Phase")
+@Category({"To-Do List", "Service"})
+@Description("One phase of a service operation: auth, lookup, validation, save or mapping")
+@StackTrace(false)
+public class ServicePhaseEvent extends Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Task Id")
+    long taskId;
+}
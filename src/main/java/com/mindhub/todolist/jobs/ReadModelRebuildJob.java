@@ -0,0 +1,33 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.readmodel.ReadModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// the periodic rebuild repairs whatever was written around the services, e.g. by a journal replay
+@Component
+public class ReadModelRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelRebuildJob.class);
+
+    @Autowired
+    private ReadModel readModel;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${todolist.read-model.rebuild-interval:PT10M}", fixedDelayString = "${todolist.read-model.rebuild-interval:PT10M}")
+    public void rebuild() {
+        if (!readModel.isEnabled())
+            return;
+        readModel.rebuild();
+        log.info("Loaded {} users and {} tasks into the read model", readModel.userCount(), readModel.taskCount());
+    }
+}
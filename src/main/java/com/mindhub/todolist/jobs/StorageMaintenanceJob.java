@@ -0,0 +1,31 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.datasources.FileStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "todolist.storage.persistent", havingValue = "true")
+public class StorageMaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageMaintenanceJob.class);
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    // bounds what a crash of the machine can lose to one interval, on top of write-delay
+    @Scheduled(initialDelayString = "${todolist.storage.checkpoint-interval:PT1M}", fixedDelayString = "${todolist.storage.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        fileStorage.checkpoint();
+    }
+
+    @Scheduled(initialDelayString = "${todolist.storage.compaction-interval:PT5M}", fixedDelayString = "${todolist.storage.compaction-interval:PT5M}")
+    public void compact() {
+        if (fileStorage.compact())
+            log.info("Compacted the database file to {} bytes, {}% live", fileStorage.fileSize(), fileStorage.fillRate());
+    }
+}
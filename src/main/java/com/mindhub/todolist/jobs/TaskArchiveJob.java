@@ -0,0 +1,26 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.TaskArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "todolist.task-archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiveJob.class);
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Scheduled(fixedDelayString = "${todolist.task-archive.delay:PT5M}")
+    public void archiveCompletedTasks() {
+        int archived = taskArchiveService.archiveCompletedTasks();
+        if (archived > 0)
+            log.info("Archived {} completed tasks", archived);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.TaskDueDateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskDueDateJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDueDateJob.class);
+
+    @Autowired
+    private TaskDueDateService taskDueDateService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingDueDates() {
+        log.info("Loaded {} pending due dates", taskDueDateService.loadPendingDueDates());
+    }
+
+    @Scheduled(fixedRateString = "${todolist.due-dates.tick:PT1S}")
+    public void fireDueTasks() {
+        int fired = taskDueDateService.fireDueTasks();
+        if (fired > 0)
+            log.info("{} tasks became overdue", fired);
+    }
+}
@@ -0,0 +1,29 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.TaskRankService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskRankCompactionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRankCompactionJob.class);
+
+    @Autowired
+    private TaskRankService taskRankService;
+
+    @Scheduled(initialDelayString = "${todolist.task-rank.initial-delay:PT5S}", fixedDelayString = "${todolist.task-rank.delay:PT1M}")
+    public void compactRanks() {
+        try {
+            int compacted = taskRankService.compactRanks();
+            if (compacted > 0)
+                log.info("Compacted task ranks of {} users", compacted);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("Task rank compaction raced with a move, it is retried on the next run");
+        }
+    }
+}
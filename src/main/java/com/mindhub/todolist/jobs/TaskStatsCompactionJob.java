@@ -0,0 +1,24 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.TaskStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskStatsCompactionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsCompactionJob.class);
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Scheduled(fixedDelayString = "${todolist.task-stats.compact-interval:PT1M}")
+    public void compactStats() {
+        int compacted = taskStatsService.compactClosedBuckets();
+        if (compacted > 0)
+            log.info("Compacted {} hours of task stats", compacted);
+    }
+}
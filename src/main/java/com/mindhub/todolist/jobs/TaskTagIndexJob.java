@@ -0,0 +1,23 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.TaskTagService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskTagIndexJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskTagIndexJob.class);
+
+    @Autowired
+    private TaskTagService taskTagService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        log.info("Indexed tags of {} tasks", taskTagService.loadIndex());
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// once every row has a normalized email a run costs nothing
+@Component
+public class UserEmailBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEmailBackfillJob.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Scheduled(initialDelayString = "${todolist.email-backfill.initial-delay:PT0S}", fixedDelayString = "${todolist.email-backfill.delay:PT1M}")
+    public void backfillNormalizedEmails() {
+        int normalized = userService.backfillNormalizedEmails();
+        if (normalized > 0)
+            log.info("Normalized the emails of {} users", normalized);
+    }
+}
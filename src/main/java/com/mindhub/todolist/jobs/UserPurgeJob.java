@@ -0,0 +1,24 @@
+package com.mindhub.todolist.jobs;
+
+import com.mindhub.todolist.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeJob.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Scheduled(fixedDelayString = "${todolist.user-purge.delay:PT30S}")
+    public void purgeSoftDeletedUsers() {
+        int purged = userService.purgeSoftDeletedUsers();
+        if (purged > 0)
+            log.info("Purged {} soft-deleted users", purged);
+    }
+}
@@ -0,0 +1,149 @@
+package com.mindhub.todolist.journal;
+
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.UserEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Payloads of the upsert records: full rows, so a replay does not depend on earlier records
+ * of the same entity. Nullable values are prefixed with a presence flag.
+ */
+public final class JournalCodec {
+
+    public record UserRow(long id, Long version, String username, String email, String password) {}
+
+    public record TaskRow(long id, Long version, long userId, String title, String description, Integer taskStatus,
+                          Instant completedAt, Instant dueAt, boolean overdue, String rank, Set<String> tags,
+                          Instant createdAt, Instant statusChangedAt) {}
+
+    private JournalCodec() {
+    }
+
+    static byte[] encodeUser(UserEntity user) {
+        return write(out -> {
+            writeLong(out, user.getVersion());
+            writeString(out, user.getUsername());
+            writeString(out, user.getEmail());
+            writeString(out, user.getPassword());
+        });
+    }
+
+    static byte[] encodeTask(Task task) {
+        return write(out -> {
+            writeLong(out, task.getVersion());
+            out.writeLong(task.getUser().getId());
+            writeString(out, task.getTitle());
+            writeString(out, task.getDescription());
+            out.writeByte(task.getTaskStatus() != null ? task.getTaskStatus().ordinal() : -1);
+            writeInstant(out, task.getCompletedAt());
+            writeInstant(out, task.getDueAt());
+            out.writeBoolean(task.isOverdue());
+            writeString(out, task.getRank());
+            out.writeShort(task.getTags().size());
+            for (String tag : task.getTags())
+                out.writeUTF(tag);
+            writeInstant(out, task.getCreatedAt());
+            writeInstant(out, task.getStatusChangedAt());
+        });
+    }
+
+    static byte[] encodeInstant(Instant instant) {
+        return write(out -> writeInstant(out, instant));
+    }
+
+    public static UserRow decodeUser(JournalRecord record) {
+        return read(record, in -> new UserRow(record.id(), readLong(in), readString(in), readString(in), readString(in)));
+    }
+
+    public static TaskRow decodeTask(JournalRecord record) {
+        return read(record, in -> {
+            Long version = readLong(in);
+            long userId = in.readLong();
+            String title = readString(in), description = readString(in);
+            byte taskStatus = in.readByte();
+            Instant completedAt = readInstant(in), dueAt = readInstant(in);
+            boolean overdue = in.readBoolean();
+            String rank = readString(in);
+            // records written before tags and timestamps existed end after the rank or the tags
+            Set<String> tags = new TreeSet<>();
+            if (in.available() > 0)
+                for (int count = in.readShort(); count > 0; count--)
+                    tags.add(in.readUTF());
+            Instant createdAt = in.available() > 0 ? readInstant(in) : null;
+            Instant statusChangedAt = in.available() > 0 ? readInstant(in) : null;
+            return new TaskRow(record.id(), version, userId, title, description, taskStatus >= 0 ? (int) taskStatus : null,
+                    completedAt, dueAt, overdue, rank, tags, createdAt, statusChangedAt);
+        });
+    }
+
+    public static Instant decodeInstant(JournalRecord record) {
+        return read(record, JournalCodec::readInstant);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static <T> T read(JournalRecord record, Reader<T> reader) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record.payload()))) {
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("corrupt payload in journal record " + record.sequence(), e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeLong(value);
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
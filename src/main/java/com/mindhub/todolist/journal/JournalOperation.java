@@ -0,0 +1,19 @@
+package com.mindhub.todolist.journal;
+
+public enum JournalOperation {
+    USER_UPSERT,
+    USER_SOFT_DELETE,
+    USER_DELETE,
+    TASK_UPSERT,
+    TASK_DELETE;
+
+    private static final JournalOperation[] VALUES = values();
+
+    static JournalOperation of(byte code) {
+        return VALUES[code];
+    }
+
+    byte code() {
+        return (byte) ordinal();
+    }
+}
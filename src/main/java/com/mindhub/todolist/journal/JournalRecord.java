@@ -0,0 +1,15 @@
+package com.mindhub.todolist.journal;
+
+/**
+ * One journal entry. On disk it is laid out as
+ * {@code length:int crc32:int sequence:long timestamp:long operation:byte id:long payload},
+ * where {@code length} counts every byte after itself and the CRC covers everything after it.
+ */
+public record JournalRecord(long sequence, long timestampMillis, JournalOperation operation, long id, byte[] payload) {
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 1 + 8;
+
+    int size() {
+        return HEADER_SIZE + payload.length;
+    }
+}
@@ -0,0 +1,118 @@
+package com.mindhub.todolist.journal;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.models.TagsConverter;
+import com.mindhub.todolist.models.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds USERS and TASKS from the mutation journal before the sample data would be seeded.
+ * Upserts carry the whole row, so records are applied in sequence order with {@code merge};
+ * the identity columns are then moved past the highest replayed id. Records are appended once
+ * their transaction committed, so two concurrent writes of a row can land in the other order:
+ * an upsert older than the stored version is skipped.
+ * <p>
+ * Archiving, rank compaction and the overdue flag are not journaled: archived tasks come back
+ * as tasks and are archived again by the next run of the archive job.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "todolist.journal.replay-on-startup", havingValue = "true")
+public class JournalReplayRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayRunner.class);
+
+    private static final TagsConverter TAGS = new TagsConverter();
+
+    private final MutationJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ShardManager> shardManager;
+
+    public JournalReplayRunner(MutationJournal journal, DataSource dataSource, PlatformTransactionManager transactionManager,
+                               ObjectProvider<ShardManager> shardManager) {
+        this.journal = journal;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardManager = shardManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (shardManager.getIfAvailable() != null)
+            throw new IllegalStateException("todolist.journal.replay-on-startup is not supported with todolist.sharding.enabled");
+        Map<JournalOperation, Integer> applied = new EnumMap<>(JournalOperation.class);
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                journal.forEach(record -> {
+                    apply(record);
+                    applied.merge(record.operation(), 1, Integer::sum);
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException("could not read the mutation journal", e);
+            }
+        });
+        restartIdentity("users");
+        restartIdentity("tasks");
+        log.info("Replayed mutation journal in {} ms: {}", (System.nanoTime() - started) / 1_000_000, applied);
+    }
+
+    private void apply(JournalRecord record) {
+        switch (record.operation()) {
+            case USER_UPSERT -> {
+                JournalCodec.UserRow user = JournalCodec.decodeUser(record);
+                if (isStale("users", user.id(), user.version()))
+                    return;
+                jdbcTemplate.update("merge into users (id, version, username, email, normalized_email, password, deleted_at) key (id)"
+                                + " values (?, ?, ?, ?, ?, ?, null)",
+                        user.id(), user.version(), user.username(), user.email(), UserEntity.normalizeEmail(user.email()), user.password());
+            }
+            case USER_SOFT_DELETE -> jdbcTemplate.update("update users set deleted_at = ? where id = ?",
+                    JournalCodec.decodeInstant(record), record.id());
+            case USER_DELETE -> {
+                jdbcTemplate.update("delete from tasks where user_id = ?", record.id());
+                jdbcTemplate.update("delete from tasks_archive where user_id = ?", record.id());
+                jdbcTemplate.update("delete from users where id = ?", record.id());
+            }
+            case TASK_UPSERT -> {
+                JournalCodec.TaskRow task = JournalCodec.decodeTask(record);
+                if (isStale("tasks", task.id(), task.version()))
+                    return;
+                jdbcTemplate.update("merge into tasks (id, version, user_id, title, description, task_status, created_at, status_changed_at,"
+                                + " completed_at, due_at, overdue, rank, tags) key (id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        task.id(), task.version(), task.userId(), task.title(), task.description(), task.taskStatus(),
+                        task.createdAt(), task.statusChangedAt(), task.completedAt(), task.dueAt(), task.overdue(), task.rank(),
+                        TAGS.convertToDatabaseColumn(task.tags()));
+            }
+            case TASK_DELETE -> jdbcTemplate.update("delete from tasks where id = ?", record.id());
+        }
+    }
+
+    private boolean isStale(String table, long id, Long version) {
+        List<Long> stored = jdbcTemplate.queryForList("select version from " + table + " where id = ?", Long.class, id);
+        return version != null && !stored.isEmpty() && stored.get(0) != null && version < stored.get(0);
+    }
+
+    private void restartIdentity(String table) {
+        Long max = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (max != null)
+            jdbcTemplate.execute("alter table " + table + " alter column id restart with " + (max + 1));
+    }
+}
@@ -0,0 +1,435 @@
+package com.mindhub.todolist.journal;
+
+import com.mindhub.todolist.datasources.TransactionCallbacks;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.UserEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every committed user and task mutation, written to memory-mapped segment
+ * files instead of the database. Appends only copy into the mapped buffer; a background thread
+ * forces the dirty pages to disk every {@code flush-interval}, so one fsync covers every write of
+ * that window and a crash loses at most that window.
+ * <p>
+ * A segment is rolled once the next record does not fit. Rolled segments older than
+ * {@code retention} are folded into a snapshot holding the latest row of every user and task,
+ * and only deleted once the snapshot is on disk, so a replay still rebuilds every row. The tail
+ * of the last segment is zero filled, so reading stops at the first zero length or the first
+ * record whose CRC does not match (a torn write).
+ */
+@Component
+public class MutationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MutationJournal.class);
+
+    private static final int MAGIC = 0x54444A31; // "TDJ1"
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SEGMENT_PREFIX = "journal-", SNAPSHOT_PREFIX = "snapshot-", SEGMENT_SUFFIX = ".seg";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration retention, flushInterval;
+    private final Counter appended;
+    private final Timer flushes;
+
+    private ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence = 1;
+    private boolean dirty;
+
+    public MutationJournal(MeterRegistry meterRegistry,
+                           @Value("${todolist.journal.enabled:false}") boolean enabled,
+                           @Value("${todolist.journal.directory:journal}") Path directory,
+                           @Value("${todolist.journal.segment-size:64MB}") DataSize segmentSize,
+                           @Value("${todolist.journal.retention:P30D}") Duration retention,
+                           @Value("${todolist.journal.flush-interval:PT0.05S}") Duration flushInterval) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.retention = retention;
+        this.flushInterval = flushInterval;
+        this.appended = Counter.builder("todolist.journal.records").register(meterRegistry);
+        this.flushes = Timer.builder("todolist.journal.flush")
+                .description("time spent forcing journal pages to disk").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled)
+            return;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory, SEGMENT_PREFIX);
+        if (segments.isEmpty()) {
+            startSegment();
+        } else {
+            // continue after the last valid record of the newest segment
+            Path last = segments.get(segments.size() - 1);
+            channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+            long[] lastSequence = {sequenceOf(last, SEGMENT_PREFIX) - 1};
+            int end = readSegment(segment.duplicate(), last, record -> lastSequence[0] = record.sequence());
+            segment.position(end);
+            nextSequence = lastSequence[0] + 1;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Mutation journal open in {}, next sequence {}", directory.toAbsolutePath(), nextSequence);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        ScheduledExecutorService stopped;
+        synchronized (this) {
+            if (flusher == null)
+                return;
+            // appends are dropped from here on
+            stopped = flusher;
+            flusher = null;
+        }
+        stopped.shutdown();
+        try {
+            // lets a compaction that already started finish, outside the monitor the flush needs
+            stopped.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    public void recordUserAfterCommit(UserEntity user) {
+        afterCommit(() -> append(JournalOperation.USER_UPSERT, user.getId(), JournalCodec.encodeUser(user)));
+    }
+
+    public void recordUserSoftDeletedAfterCommit(Long userId, Instant deletedAt) {
+        afterCommit(() -> append(JournalOperation.USER_SOFT_DELETE, userId, JournalCodec.encodeInstant(deletedAt)));
+    }
+
+    public void recordUserDeletedAfterCommit(Long userId) {
+        afterCommit(() -> append(JournalOperation.USER_DELETE, userId, new byte[0]));
+    }
+
+    public void recordTaskAfterCommit(Task task) {
+        afterCommit(() -> append(JournalOperation.TASK_UPSERT, task.getId(), JournalCodec.encodeTask(task)));
+    }
+
+    public void recordTaskDeletedAfterCommit(Long taskId) {
+        afterCommit(() -> append(JournalOperation.TASK_DELETE, taskId, new byte[0]));
+    }
+
+    synchronized void append(JournalOperation operation, long id, byte[] payload) {
+        if (flusher == null)
+            return;
+        int size = JournalRecord.HEADER_SIZE + payload.length;
+        if (size > segmentSize - SEGMENT_HEADER_SIZE)
+            throw new IllegalArgumentException("journal record of " + size + " bytes does not fit in a segment");
+        if (segment.remaining() < size)
+            roll();
+
+        putRecord(segment, new JournalRecord(nextSequence++, System.currentTimeMillis(), operation, id, payload));
+        dirty = true;
+        appended.increment();
+    }
+
+    // forces outside the monitor so appends keep going while the pages are written
+    public void flush() {
+        MappedByteBuffer dirtySegment;
+        synchronized (this) {
+            if (!dirty)
+                return;
+            dirtySegment = segment;
+            dirty = false;
+        }
+        flushes.record(() -> dirtySegment.force());
+    }
+
+    /**
+     * Reads the snapshot, users before tasks, then every retained record in sequence order. Safe
+     * to call while the journal is being appended to, records written after the call started may
+     * or may not be included. A compaction running at the same time may delete a segment before
+     * it is read.
+     */
+    public void forEach(Consumer<JournalRecord> consumer) throws IOException {
+        if (!Files.isDirectory(directory))
+            return;
+        Path snapshot = latestSnapshot(directory);
+        long coveredUntil = 0;
+        if (snapshot != null) {
+            read(snapshot, consumer);
+            coveredUntil = sequenceOf(snapshot, SNAPSHOT_PREFIX);
+        }
+        for (Path path : segments(directory, SEGMENT_PREFIX))
+            // a segment the snapshot covers is only left over when a compaction did not finish
+            if (sequenceOf(path, SEGMENT_PREFIX) >= coveredUntil)
+                read(path, consumer);
+    }
+
+    /**
+     * Folds the previous snapshot and the oldest rolled segments past retention into a new
+     * snapshot, then deletes them. Only a run of segments from the oldest one on is folded, so
+     * the snapshot followed by the remaining segments replays to the same rows.
+     */
+    void compact() throws IOException {
+        Instant cutoff = Instant.now().minus(retention);
+        List<Path> segments = segments(directory, SEGMENT_PREFIX);
+        int expired = 0;
+        // the newest segment is the one being written
+        while (expired < segments.size() - 1 && Files.getLastModifiedTime(segments.get(expired)).toInstant().isBefore(cutoff))
+            expired++;
+        if (expired == 0)
+            return;
+
+        Snapshot snapshot = new Snapshot();
+        Path previous = latestSnapshot(directory);
+        long previousCoveredUntil = 0;
+        if (previous != null) {
+            read(previous, snapshot::add);
+            previousCoveredUntil = sequenceOf(previous, SNAPSHOT_PREFIX);
+        }
+        for (Path path : segments.subList(0, expired))
+            if (sequenceOf(path, SEGMENT_PREFIX) >= previousCoveredUntil)
+                read(path, snapshot::add);
+        Path path = directory.resolve(fileName(SNAPSHOT_PREFIX, sequenceOf(segments.get(expired), SEGMENT_PREFIX)));
+        List<JournalRecord> records = snapshot.records();
+        writeSnapshot(path, records);
+
+        for (Path segment : segments.subList(0, expired))
+            Files.delete(segment);
+        if (previous != null && !previous.equals(path))
+            Files.delete(previous);
+        log.info("Folded {} journal segments past retention into {} with {} records", expired, path.getFileName(), records.size());
+    }
+
+    private void roll() {
+        try {
+            segment.force();
+            channel.close();
+            startSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not roll journal segment", e);
+        }
+        // off the append path, compaction reads every expired segment
+        flusher.execute(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not compact the mutation journal", e);
+            }
+        });
+    }
+
+    private void startSegment() throws IOException {
+        Path path = directory.resolve(fileName(SEGMENT_PREFIX, nextSequence));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(MAGIC).putInt(FORMAT_VERSION);
+        log.debug("Started journal segment {}", path.getFileName());
+    }
+
+    // written next to its final name and moved into place, a crash never leaves half a snapshot
+    private static void writeSnapshot(Path path, List<JournalRecord> records) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+            for (JournalRecord record : records) {
+                ByteBuffer buffer = ByteBuffer.allocate(record.size());
+                putRecord(buffer, record);
+                writeFully(out, buffer.flip());
+            }
+            out.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            out.write(buffer);
+    }
+
+    // the length goes in last, a reader never sees a record whose body is still being written
+    private static void putRecord(ByteBuffer buffer, JournalRecord record) {
+        int start = buffer.position();
+        buffer.position(start + 8);
+        buffer.putLong(record.sequence()).putLong(record.timestampMillis()).put(record.operation().code())
+                .putLong(record.id()).put(record.payload());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + 8, record.size() - 8));
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, record.size() - 4);
+    }
+
+    private static void read(Path path, Consumer<JournalRecord> consumer) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readSegment(readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size()), path, consumer);
+        }
+    }
+
+    // returns the position after the last valid record
+    private static int readSegment(ByteBuffer buffer, Path path, Consumer<JournalRecord> consumer) {
+        if (buffer.limit() < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IllegalStateException(path + " is not a journal segment");
+        if (buffer.getInt(4) != FORMAT_VERSION)
+            throw new IllegalStateException(path + " has unsupported journal format " + buffer.getInt(4));
+        int position = SEGMENT_HEADER_SIZE;
+        while (buffer.limit() - position >= JournalRecord.HEADER_SIZE) {
+            int length = buffer.getInt(position);
+            if (length < JournalRecord.HEADER_SIZE - 4 || length > buffer.limit() - position - 4)
+                break;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + 8, length - 4));
+            if ((int) crc.getValue() != buffer.getInt(position + 4))
+                break;
+            ByteBuffer record = buffer.slice(position + 8, length - 4);
+            long sequence = record.getLong(), timestamp = record.getLong();
+            JournalOperation operation = JournalOperation.of(record.get());
+            long id = record.getLong();
+            byte[] payload = new byte[record.remaining()];
+            record.get(payload);
+            consumer.accept(new JournalRecord(sequence, timestamp, operation, id, payload));
+            position += 4 + length;
+        }
+        return position;
+    }
+
+    private static List<Path> segments(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path latestSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = segments(directory, SNAPSHOT_PREFIX);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    private static String fileName(String prefix, long sequence) {
+        return String.format("%s%020d%s", prefix, sequence, SEGMENT_SUFFIX);
+    }
+
+    // first sequence of a segment, first sequence not covered by a snapshot
+    private static long sequenceOf(Path path, String prefix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // latest row of every user and task among the records it is given; users come first so every
+    // task row finds its owner when the snapshot is replayed. Records are appended in the order
+    // their transactions' afterCommit callbacks ran, so the latest row is the highest version
+    private static final class Snapshot {
+        private final Map<Long, JournalRecord> users = new HashMap<>(), softDeletes = new HashMap<>(), tasks = new HashMap<>();
+        private final Map<Long, Set<Long>> taskIdsByUser = new HashMap<>();
+
+        void add(JournalRecord record) {
+            long id = record.id();
+            switch (record.operation()) {
+                case USER_UPSERT -> {
+                    if (isStale(record, users.get(id)))
+                        return;
+                    users.put(id, record);
+                    softDeletes.remove(id);
+                }
+                case USER_SOFT_DELETE -> {
+                    if (users.containsKey(id))
+                        softDeletes.put(id, record);
+                }
+                case USER_DELETE -> {
+                    users.remove(id);
+                    softDeletes.remove(id);
+                    Set<Long> owned = taskIdsByUser.remove(id);
+                    if (owned != null)
+                        tasks.keySet().removeAll(owned);
+                }
+                case TASK_UPSERT -> {
+                    if (isStale(record, tasks.get(id)))
+                        return;
+                    tasks.put(id, record);
+                    taskIdsByUser.computeIfAbsent(JournalCodec.decodeTask(record).userId(), user -> new HashSet<>()).add(id);
+                }
+                case TASK_DELETE -> tasks.remove(id);
+            }
+        }
+
+        // an equal version is the same row written again, the later record wins
+        private static boolean isStale(JournalRecord record, JournalRecord stored) {
+            if (stored == null)
+                return false;
+            Long version = version(record), storedVersion = version(stored);
+            return version != null && storedVersion != null && version < storedVersion;
+        }
+
+        private static Long version(JournalRecord upsert) {
+            return upsert.operation() == JournalOperation.USER_UPSERT
+                    ? JournalCodec.decodeUser(upsert).version()
+                    : JournalCodec.decodeTask(upsert).version();
+        }
+
+        List<JournalRecord> records() {
+            Comparator<JournalRecord> bySequence = Comparator.comparingLong(JournalRecord::sequence);
+            return Stream.of(users, softDeletes, tasks)
+                    .flatMap(rows -> rows.values().stream().sorted(bySequence))
+                    .toList();
+        }
+    }
+
+    // a failed append must not fail the request, the mutation is already committed
+    private void afterCommit(Runnable append) {
+        if (!enabled)
+            return;
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                append.run();
+            } catch (RuntimeException e) {
+                log.error("Could not append to the mutation journal", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com.mindhub.todolist.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Completed task moved out of TASKS by TaskArchiveService. Keeps the id it had in TASKS so it
+ * can be restored with the same id when it is reopened.
+ */
+@Entity
+@Table(name = "TASKS_ARCHIVE", indexes = @Index(name = "IDX_TASKS_ARCHIVE_USER_ID", columnList = "user_id"))
+@SQLRestriction("not exists (select 1 from users u where u.id = user_id and u.deleted_at is not null)")
+public class ArchivedTask {
+    @Id
+    private Long id;
+
+    // version the row had in TASKS, a restored task continues after it so cached JSON of the old row never matches
+    private Long version;
+
+    private String title;
+
+    private String description;
+
+    private TaskStatus taskStatus;
+
+    @ManyToOne
+    private UserEntity user;
+
+    private Instant createdAt;
+
+    private Instant statusChangedAt;
+
+    private Instant completedAt;
+
+    private Instant dueAt;
+
+    private String rank;
+
+    @Convert(converter = TagsConverter.class)
+    @Column(length = 600)
+    private Set<String> tags;
+
+    private Instant archivedAt;
+
+    public ArchivedTask() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public UserEntity getUser() {
+        return user;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedTask{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", description='" + description + '\'' +
+                ", taskStatus=" + taskStatus +
+                ", archivedAt=" + archivedAt +
+                '}';
+    }
+}
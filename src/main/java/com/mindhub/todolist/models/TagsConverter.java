@@ -0,0 +1,31 @@
+package com.mindhub.todolist.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Stores a task's tags as one comma separated column, so the native statements that copy or move
+ * task rows (archiving, restoring, shard rebalancing) carry them without a join table.
+ */
+@Converter
+public class TagsConverter implements AttributeConverter<Set<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> tags) {
+        return tags == null || tags.isEmpty() ? null : String.join(",", new TreeSet<>(tags));
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String column) {
+        if (column == null || column.isEmpty())
+            return Collections.emptySortedSet();
+        SortedSet<String> tags = new TreeSet<>(Arrays.asList(column.split(",")));
+        return Collections.unmodifiableSortedSet(tags);
+    }
+}
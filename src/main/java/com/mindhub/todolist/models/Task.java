@@ -2,49 +2,93 @@ package com.mindhub.todolist.models;
 
 import com.mindhub.todolist.dtos.task.TaskDTO;
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "TASKS")
+@Table(name = "TASKS", indexes = {
+        @Index(name = "IDX_TASKS_USER_ID_RANK", columnList = "user_id, rank"),
+        @Index(name = "IDX_TASKS_STATUS_COMPLETED_AT", columnList = "task_status, completed_at")
+})
+// one primary key lookup in USERS per task row, on every task read path instead of in each query
+@SQLRestriction("not exists (select 1 from users u where u.id = user_id and u.deleted_at is not null)")
 public class Task {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // bumped on every update, TaskJsonCache keys the encoded task by it
+    @Version
+    private Long version;
+
     private String title;
 
     private String description;
 
     private TaskStatus taskStatus;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private UserEntity user;
 
+    private Instant createdAt;
+
+    // when taskStatus last changed, TaskStatsService uses it for the time spent in a status
+    private Instant statusChangedAt;
+
+    // used by TaskArchiveService to move tasks that stayed completed for a while to TASKS_ARCHIVE
+    private Instant completedAt;
+
+    private Instant dueAt;
+
+    // user-defined position inside the owner's list, see FractionalRank
+    private String rank;
+
+    // set by TaskDueDateService when dueAt passes before the task is completed
+    private boolean overdue;
+
+    // lower-cased labels, indexed in memory by TaskTagService
+    @Convert(converter = TagsConverter.class)
+    @Column(length = 600)
+    private Set<String> tags = Collections.emptySortedSet();
+
     public Task() {
     }
 
     public Task(String title, String description, TaskStatus taskStatus) {
         this.title = title;
         this.description = description;
-        this.taskStatus = taskStatus;
+        setTaskStatus(taskStatus);
     }
 
     public Task(String title, String description, TaskStatus taskStatus, UserEntity user) {
         this.title = title;
         this.description = description;
-        this.taskStatus = taskStatus;
+        setTaskStatus(taskStatus);
         this.user = user;
     }
 
     public Task(TaskDTO taskDTO) {
         this.title = taskDTO.getTitle();
         this.description = taskDTO.getDescription();
-        this.taskStatus = taskDTO.getTaskStatus();
+        setTaskStatus(taskDTO.getTaskStatus());
     }
 
     public Long getId() {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -66,9 +110,65 @@ public class Task {
     }
 
     public void setTaskStatus(TaskStatus taskStatus) {
+        if (taskStatus != this.taskStatus)
+            this.statusChangedAt = Instant.now();
+        if (taskStatus != TaskStatus.COMPLETED)
+            this.completedAt = null;
+        else if (this.taskStatus != TaskStatus.COMPLETED)
+            this.completedAt = Instant.now();
         this.taskStatus = taskStatus;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Instant dueAt) {
+        if (!Objects.equals(this.dueAt, dueAt))
+            this.overdue = false;
+        this.dueAt = dueAt;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Collection<String> tags) {
+        this.tags = tags == null ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(tags.stream()
+                .map(tag -> tag.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null)
+            createdAt = statusChangedAt != null ? statusChangedAt : Instant.now();
+    }
+
     public UserEntity getUser() {
         return user;
     }
@@ -0,0 +1,95 @@
+package com.mindhub.todolist.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Task counters of one hour and one status, written by TaskStatsService when it compacts its
+ * in-memory buckets. Time spent in a status is counted in the hour the task left it.
+ */
+@Entity
+@Table(name = "TASK_STATS_ROLLUP")
+@IdClass(TaskStatsRollup.Key.class)
+public class TaskStatsRollup {
+
+    public static class Key implements Serializable {
+        private Instant bucketStart;
+        private TaskStatus taskStatus;
+
+        public Key() {
+        }
+
+        public Key(Instant bucketStart, TaskStatus taskStatus) {
+            this.bucketStart = bucketStart;
+            this.taskStatus = taskStatus;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(bucketStart, key.bucketStart) && taskStatus == key.taskStatus;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketStart, taskStatus);
+        }
+    }
+
+    @Id
+    private Instant bucketStart;
+
+    @Id
+    private TaskStatus taskStatus;
+
+    // tasks created with this status
+    private long created;
+
+    // tasks that moved into / out of this status, including the creation
+    private long entered;
+
+    private long exited;
+
+    private long timeInStatusMillis;
+
+    public TaskStatsRollup() {
+    }
+
+    public TaskStatsRollup(Instant bucketStart, TaskStatus taskStatus) {
+        this.bucketStart = bucketStart;
+        this.taskStatus = taskStatus;
+    }
+
+    public void add(long created, long entered, long exited, long timeInStatusMillis) {
+        this.created += created;
+        this.entered += entered;
+        this.exited += exited;
+        this.timeInStatusMillis += timeInStatusMillis;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getEntered() {
+        return entered;
+    }
+
+    public long getExited() {
+        return exited;
+    }
+
+    public long getTimeInStatusMillis() {
+        return timeInStatusMillis;
+    }
+}
@@ -5,18 +5,31 @@ import com.mindhub.todolist.validations.NoWhitespaces;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.validator.constraints.Length;
 
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
-@Table(name = "USERS")
+// the constraint is the only email uniqueness check, its violation is translated by the user services;
+// the plain email index only serves lookups of rows the backfill has not normalized yet
+@Table(name = "USERS",
+        uniqueConstraints = @UniqueConstraint(name = UserEntity.EMAIL_CONSTRAINT, columnNames = "normalized_email"),
+        indexes = @Index(name = "IDX_USERS_EMAIL", columnList = "email"))
+@SQLRestriction("deleted_at is null")
 public class UserEntity {
+    public static final String EMAIL_CONSTRAINT = "UK_USERS_NORMALIZED_EMAIL";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @NotBlank(message = "username must not be empty")
     @NoWhitespaces(message = "username can not contain whitespaces")
     private String username;
@@ -29,24 +42,33 @@ public class UserEntity {
 
     @NotBlank(message = "email must not be empty")
     @Email(message = "invalid email")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @NoWhitespaces(message = "username can not contain whitespaces")
     private String email;
 
+    // trimmed, lower-cased email that lookups match on, kept in step with email by the constructors and setEmail
+    private String normalizedEmail;
+
     @OneToMany(mappedBy = "user")
+    @OrderBy("rank ASC, id ASC")
     private Set<Task> tasks = new HashSet<>();
 
+    // set on soft delete, the row and its tasks are removed later by UserPurgeJob
+    private Instant deletedAt;
+
     public UserEntity() {
     }
 
     public UserEntity(String email, String password, String username) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
         this.password = password;
         this.username = username;
     }
 
     public UserEntity(NewUserRequestDTO newUserRequestDTO) {
         this.email = newUserRequestDTO.email();
+        this.normalizedEmail = normalizeEmail(newUserRequestDTO.email());
         this.password = newUserRequestDTO.password();
         this.username = newUserRequestDTO.username();
     }
@@ -55,6 +77,10 @@ public class UserEntity {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -77,6 +103,16 @@ public class UserEntity {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    // same as lower(trim(email)) in SQL for the ASCII emails @Email accepts
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     public Set<Task> getTasks() {
@@ -87,6 +123,10 @@ public class UserEntity {
         this.tasks = tasks;
     }
 
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
     public void addTask(Task task) {
         task.setUser(this);
         this.tasks.add(task);
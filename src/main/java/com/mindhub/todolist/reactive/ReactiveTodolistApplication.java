@@ -0,0 +1,37 @@
+package com.mindhub.todolist.reactive;
+
+import com.mindhub.todolist.configurations.JacksonConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Reactive variant of the API: the core {@code /api/v1/users} and {@code /api/v1/tasks} endpoints
+ * on WebFlux (Netty) and R2DBC, with the request DTOs, validation rules and error format of
+ * TodolistApplication. It has its own in-memory database and reads reactive.yml instead of
+ * application.yml. Start it from the packaged jar with
+ * {@code java -Dloader.main=com.mindhub.todolist.reactive.ReactiveTodolistApplication -cp target/todolist-0.0.1-SNAPSHOT.jar org.springframework.boot.loader.launch.PropertiesLauncher}.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@Import(JacksonConfiguration.class)
+public class ReactiveTodolistApplication {
+
+    public static void main(String[] args) {
+        // Spring MVC is on the classpath too, it would win without an explicit type
+        new SpringApplicationBuilder(ReactiveTodolistApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+
+    // Tomcat is on the classpath for TodolistApplication and would otherwise be picked as the reactive server too
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,41 @@
+package com.mindhub.todolist.reactive.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.mindhub.todolist.dtos.FieldSelection;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * WebFlux counterpart of FieldSelectionResponseAdvice, which only exists for Spring MVC: read
+ * endpoints pass each body through here so only the properties listed in {@code ?fields=} are written.
+ * The filter is applied per element because the WebFlux encoder ignores MappingJacksonValue inside a Flux.
+ */
+@Component
+public class FieldSelectionFilter {
+
+    private final ObjectMapper objectMapper;
+
+    public FieldSelectionFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Object select(Object body, Set<String> fields) {
+        if (fields == null || fields.isEmpty())
+            return body;
+        ObjectWriter writer = objectMapper.writer(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        try (TokenBuffer buffer = new TokenBuffer(objectMapper, false)) {
+            writer.writeValue(buffer, body);
+            return objectMapper.readTree(buffer.asParser());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
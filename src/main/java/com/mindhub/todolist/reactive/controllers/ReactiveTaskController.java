@@ -0,0 +1,69 @@
+package com.mindhub.todolist.reactive.controllers;
+
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.BadRequestException;
+import com.mindhub.todolist.reactive.configurations.FieldSelectionFilter;
+import com.mindhub.todolist.reactive.services.ReactiveTaskService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// the list is streamed as the rows arrive, as a JSON array or as NDJSON with Accept: application/x-ndjson
+@Validated
+@RestController
+@RequestMapping("/api/v1/tasks")
+public class ReactiveTaskController {
+
+    @Autowired
+    private ReactiveTaskService taskService;
+    @Autowired
+    private FieldSelectionFilter fieldSelectionFilter;
+
+    @GetMapping
+    public Flux<Object> getAllTasks(@RequestParam(defaultValue = "false") boolean archived,
+                                    @RequestParam(required = false) Set<String> fields) {
+        if (archived)
+            return Flux.error(new BadRequestException("archived tasks are only served by the servlet variant"));
+        return taskService.getAllTasksDTO(fields).map(task -> fieldSelectionFilter.select(task, fields));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getTask(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "false") boolean archived,
+                                                @RequestParam(required = false) Set<String> fields) {
+        if (archived)
+            return Mono.error(new BadRequestException("archived tasks are only served by the servlet variant"));
+        return taskService.getTaskDTOById(id, fields)
+                .map(response -> ResponseEntity.status(response.getStatusCode()).body(fieldSelectionFilter.select(response.getBody(), fields)));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<TaskDTO>> createTask(@Valid @RequestBody NewTaskRequestDTO newTaskRequestDTO) {
+        return taskService.createTask(newTaskRequestDTO);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable Long id, @Valid @RequestBody UserTaskRequestDTO userTaskRequestDTO) {
+        return taskService.deleteTask(id, userTaskRequestDTO);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TaskDTO>> updatePutTask(@PathVariable Long id, @Valid @RequestBody PutTaskRequestDTO putTaskRequestDTO) {
+        return taskService.updatePutTask(id, putTaskRequestDTO);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<TaskDTO>> updatePatchTask(@PathVariable Long id, @Valid @RequestBody PatchTaskRequestDTO patchTaskRequestDTO) {
+        return taskService.updatePatchTask(id, patchTaskRequestDTO);
+    }
+}
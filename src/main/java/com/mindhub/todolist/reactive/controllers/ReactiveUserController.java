@@ -0,0 +1,60 @@
+package com.mindhub.todolist.reactive.controllers;
+
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.reactive.configurations.FieldSelectionFilter;
+import com.mindhub.todolist.reactive.services.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// the list is streamed as the rows arrive, as a JSON array or as NDJSON with Accept: application/x-ndjson
+@Validated
+@RestController
+@RequestMapping("/api/v1/users")
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+    @Autowired
+    private FieldSelectionFilter fieldSelectionFilter;
+
+    @GetMapping
+    public Flux<Object> getAllUsers(@RequestParam(required = false) Set<String> fields) {
+        return userService.getAllUsersDTO(fields).map(user -> fieldSelectionFilter.select(user, fields));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable Long id, @RequestParam(required = false) Set<String> fields) {
+        return userService.getUserDTOById(id, fields)
+                .map(response -> ResponseEntity.status(response.getStatusCode()).body(fieldSelectionFilter.select(response.getBody(), fields)));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserDTO>> createUser(@Valid @RequestBody NewUserRequestDTO newUserRequestDTO) {
+        return userService.createUser(newUserRequestDTO);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean soft) {
+        return userService.deleteUser(id, soft);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserDTO>> updatePutUser(@PathVariable Long id, @Valid @RequestBody PutUserRequestDTO putUserRequestDTO) {
+        return userService.updatePutUser(id, putUserRequestDTO);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<UserDTO>> updatePatchUser(@PathVariable Long id, @Valid @RequestBody PatchUserRequestDTO patchUserRequestDTO) {
+        return userService.updatePatchUser(id, patchUserRequestDTO);
+    }
+}
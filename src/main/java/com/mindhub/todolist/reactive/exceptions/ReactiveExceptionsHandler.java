@@ -0,0 +1,50 @@
+package com.mindhub.todolist.reactive.exceptions;
+
+import com.mindhub.todolist.exceptions.CustomExceptionsHandler;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * Inherits every handler of CustomExceptionsHandler and maps the WebFlux counterparts of the
+ * Spring MVC exceptions it handles, so both variants answer with the same status and errors.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionsHandler extends CustomExceptionsHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidArgument(WebExchangeBindException webExchangeBindException) {
+        return finalResponse(
+                webExchangeBindException
+                        .getFieldErrors().stream()
+                        .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                        .toList()
+                , HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> serverWebInputExceptionHandler(ServerWebInputException ex) {
+        // only an unreadable body is a JSON error, other input errors (path variables, parameters) keep their reason
+        if (ex.getMethodParameter() == null || !ex.getMethodParameter().hasParameterAnnotation(RequestBody.class))
+            return finalResponse(ex.getReason(), HttpStatus.BAD_REQUEST);
+        String cause = ex.getMostSpecificCause().getMessage();
+        if (cause == null || !cause.contains("not one of the values accepted for Enum"))
+            return finalResponse("invalid JSON request", HttpStatus.BAD_REQUEST);
+
+        return finalResponse(
+                "invalid taskStatus. Accepted values: [COMPLETED, IN_PROGRESS, PENDING]",
+                HttpStatus.BAD_REQUEST);
+    }
+
+    // R2DBC reports a version conflict with the plain exception, JPA with ObjectOptimisticLockingFailureException
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> r2dbcOptimisticLockingFailureHandler(OptimisticLockingFailureException optimisticLockingFailureException) {
+        return finalResponse("the resource was modified by another request, retry", HttpStatus.CONFLICT);
+    }
+}
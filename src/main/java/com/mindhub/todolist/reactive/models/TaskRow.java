@@ -0,0 +1,144 @@
+package com.mindhub.todolist.reactive.models;
+
+import com.mindhub.todolist.models.TagsConverter;
+import com.mindhub.todolist.models.TaskStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// row of TASKS in the reactive variant, the setters keep the timestamps the way Task does
+@Table("TASKS")
+public class TaskRow {
+
+    private static final TagsConverter TAGS = new TagsConverter();
+
+    @Id
+    private Long id;
+
+    @Version
+    private Long version;
+
+    private String title;
+
+    private String description;
+
+    private TaskStatus taskStatus;
+
+    private Long userId;
+
+    private Instant createdAt;
+
+    private Instant statusChangedAt;
+
+    private Instant completedAt;
+
+    private Instant dueAt;
+
+    private String rank;
+
+    private boolean overdue;
+
+    // comma separated, the same column layout as TagsConverter writes
+    private String tags;
+
+    public TaskRow() {
+    }
+
+    public TaskRow(String title, String description, TaskStatus taskStatus, Long userId) {
+        this.title = title;
+        this.description = description;
+        setTaskStatus(taskStatus);
+        this.userId = userId;
+        this.createdAt = statusChangedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public TaskStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public void setTaskStatus(TaskStatus taskStatus) {
+        if (taskStatus != this.taskStatus)
+            this.statusChangedAt = Instant.now();
+        if (taskStatus != TaskStatus.COMPLETED)
+            this.completedAt = null;
+        else if (this.taskStatus != TaskStatus.COMPLETED)
+            this.completedAt = Instant.now();
+        this.taskStatus = taskStatus;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Instant dueAt) {
+        if (!Objects.equals(this.dueAt, dueAt))
+            this.overdue = false;
+        this.dueAt = dueAt;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public Set<String> getTags() {
+        return TAGS.convertToEntityAttribute(tags);
+    }
+
+    public void setTags(Collection<String> tags) {
+        this.tags = tags == null ? null : TAGS.convertToDatabaseColumn(tags.stream()
+                .map(tag -> tag.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(TreeSet::new)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mindhub.todolist.reactive.models;
+
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.models.UserEntity;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+// row of USERS in the reactive variant, mirrors UserEntity without the tasks association
+@Table("USERS")
+public class UserRow {
+    @Id
+    private Long id;
+
+    @Version
+    private Long version;
+
+    private String username;
+
+    private String password;
+
+    private String email;
+
+    private String normalizedEmail;
+
+    // set on soft delete, the reactive variant has no purge job so the row stays
+    private Instant deletedAt;
+
+    public UserRow() {
+    }
+
+    public UserRow(NewUserRequestDTO newUserRequestDTO) {
+        this.email = newUserRequestDTO.email();
+        this.normalizedEmail = UserEntity.normalizeEmail(newUserRequestDTO.email());
+        this.password = newUserRequestDTO.password();
+        this.username = newUserRequestDTO.username();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.normalizedEmail = UserEntity.normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
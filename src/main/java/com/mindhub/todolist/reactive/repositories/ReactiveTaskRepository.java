@@ -0,0 +1,35 @@
+package com.mindhub.todolist.reactive.repositories;
+
+import com.mindhub.todolist.reactive.models.TaskRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// tasks of soft-deleted users are filtered in every read, as @SQLRestriction does for Task
+@Repository
+public interface ReactiveTaskRepository extends ReactiveCrudRepository<TaskRow, Long> {
+
+    @Query("select t.* from tasks t join users u on u.id = t.user_id where u.deleted_at is null order by t.id")
+    Flux<TaskRow> findAllActive();
+
+    @Query("select t.* from tasks t join users u on u.id = t.user_id where t.id = :id and u.deleted_at is null")
+    Mono<TaskRow> findActiveById(@Param("id") Long id);
+
+    // ordered by owner first, so the tasks of one user arrive together
+    @Query("select t.* from tasks t join users u on u.id = t.user_id where u.deleted_at is null order by t.user_id, t.rank, t.id")
+    Flux<TaskRow> findAllOfActiveUsers();
+
+    @Query("select * from tasks where user_id = :userId order by rank, id")
+    Flux<TaskRow> findAllByUserId(@Param("userId") Long userId);
+
+    @Query("select max(rank) from tasks where user_id = :userId")
+    Mono<String> findLastRankByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from tasks where user_id = :userId")
+    Mono<Integer> deleteAllByUserId(@Param("userId") Long userId);
+}
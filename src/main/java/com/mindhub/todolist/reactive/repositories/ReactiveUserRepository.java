@@ -0,0 +1,34 @@
+package com.mindhub.todolist.reactive.repositories;
+
+import com.mindhub.todolist.reactive.models.UserRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+// soft-deleted users are filtered in every read, as @SQLRestriction does for UserEntity
+@Repository
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRow, Long> {
+
+    @Query("select * from users where deleted_at is null order by id")
+    Flux<UserRow> findAllActive();
+
+    @Query("select * from users where id = :id and deleted_at is null")
+    Mono<UserRow> findActiveById(@Param("id") Long id);
+
+    @Query("select * from users where normalized_email = :normalizedEmail and deleted_at is null")
+    Mono<UserRow> findActiveByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
+
+    @Modifying
+    @Query("update users set deleted_at = :deletedAt where id = :id and deleted_at is null")
+    Mono<Integer> softDeleteById(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+    @Modifying
+    @Query("delete from users where id = :id")
+    Mono<Integer> deleteUserById(@Param("id") Long id);
+}
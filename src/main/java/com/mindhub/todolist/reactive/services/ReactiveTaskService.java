@@ -0,0 +1,27 @@
+package com.mindhub.todolist.reactive.services;
+
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// errors are signalled through the returned publishers with the exceptions of the servlet services
+public interface ReactiveTaskService {
+    Flux<TaskDTO> getAllTasksDTO(Set<String> fields);
+
+    Mono<ResponseEntity<TaskDTO>> getTaskDTOById(Long id, Set<String> fields);
+
+    Mono<ResponseEntity<TaskDTO>> createTask(NewTaskRequestDTO newTaskRequestDTO);
+
+    Mono<ResponseEntity<Void>> deleteTask(Long id, UserTaskRequestDTO userTaskRequestDTO);
+
+    Mono<ResponseEntity<TaskDTO>> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO);
+
+    Mono<ResponseEntity<TaskDTO>> updatePatchTask(Long id, PatchTaskRequestDTO patchTaskRequestDTO);
+}
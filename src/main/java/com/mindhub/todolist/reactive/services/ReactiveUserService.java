@@ -0,0 +1,26 @@
+package com.mindhub.todolist.reactive.services;
+
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// errors are signalled through the returned publishers with the exceptions of the servlet services
+public interface ReactiveUserService {
+    Flux<UserDTO> getAllUsersDTO(Set<String> fields);
+
+    Mono<ResponseEntity<UserDTO>> getUserDTOById(Long id, Set<String> fields);
+
+    Mono<ResponseEntity<UserDTO>> createUser(NewUserRequestDTO newUserRequestDTO);
+
+    Mono<ResponseEntity<Void>> deleteUser(Long id, boolean soft);
+
+    Mono<ResponseEntity<UserDTO>> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO);
+
+    Mono<ResponseEntity<UserDTO>> updatePatchUser(Long id, PatchUserRequestDTO patchUserRequestDTO);
+}
@@ -0,0 +1,171 @@
+package com.mindhub.todolist.reactive.services.implementations;
+
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.InvalidTaskException;
+import com.mindhub.todolist.exceptions.TaskNotFoundException;
+import com.mindhub.todolist.exceptions.UnauthorizedException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.reactive.models.TaskRow;
+import com.mindhub.todolist.reactive.models.UserRow;
+import com.mindhub.todolist.reactive.repositories.ReactiveTaskRepository;
+import com.mindhub.todolist.reactive.repositories.ReactiveUserRepository;
+import com.mindhub.todolist.reactive.services.ReactiveTaskService;
+import com.mindhub.todolist.services.implementations.FractionalRank;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Service
+public class ReactiveTaskServiceImp implements ReactiveTaskService {
+
+    @Autowired
+    private ReactiveTaskRepository taskRepository;
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<TaskDTO> getAllTasksDTO(Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        if (!fieldSelection.includes("user"))
+            return taskRepository.findAllActive().map(task -> toDTO(task, null));
+        // owners are far fewer than tasks, they are read once and the tasks stream past them
+        return userRepository.findAllActive()
+                .collectMap(UserRow::getId)
+                .flatMapMany(owners -> taskRepository.findAllActive().map(task -> toDTO(task, owners.get(task.getUserId()))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<TaskDTO>> getTaskDTOById(Long id, Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        Mono<TaskRow> task = taskRepository.findActiveById(id).switchIfEmpty(Mono.error(TaskNotFoundException::new));
+        Mono<TaskDTO> taskDTO = fieldSelection.includes("user")
+                ? task.flatMap(this::withOwner)
+                : task.map(found -> toDTO(found, null));
+        return taskDTO.map(ResponseEntity::ok);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<TaskDTO>> createTask(NewTaskRequestDTO newTaskRequestDTO) {
+        return authenticate(newTaskRequestDTO.user(), () -> new UserNotFoundException("email or password are incorrect"))
+                .flatMap(user -> validateTitleAndDescription(newTaskRequestDTO.title(), newTaskRequestDTO.description())
+                        .then(taskRepository.findLastRankByUserId(user.getId())
+                                .map(lastRank -> FractionalRank.between(lastRank, null))
+                                .defaultIfEmpty(FractionalRank.between(null, null)))
+                        .flatMap(rank -> taskRepository.save(newTask(newTaskRequestDTO, user, rank)))
+                        .map(savedTask -> new ResponseEntity<>(toDTO(savedTask, user), HttpStatus.CREATED)));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<Void>> deleteTask(Long id, UserTaskRequestDTO userTaskRequestDTO) {
+        return authenticate(userTaskRequestDTO, () -> new UnauthorizedException("email or password are incorrect"))
+                .flatMap(user -> getTaskInUser(user, id))
+                .flatMap(task -> taskRepository.delete(task))
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<TaskDTO>> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO) {
+        return authenticate(putTaskRequestDTO.user(), () -> new UnauthorizedException("email or password are incorrect"))
+                .flatMap(user -> getTaskInUser(user, id)
+                        .flatMap(task -> validateTitleAndDescription(putTaskRequestDTO.title(), putTaskRequestDTO.description())
+                                .then(Mono.defer(() -> {
+                                    // the title is kept, as in TaskServiceImp
+                                    task.setDescription(putTaskRequestDTO.description());
+                                    task.setTaskStatus(putTaskRequestDTO.taskStatus());
+                                    task.setDueAt(putTaskRequestDTO.dueAt());
+                                    task.setTags(putTaskRequestDTO.tags());
+                                    return taskRepository.save(task);
+                                })))
+                        .map(savedTask -> ResponseEntity.ok(toDTO(savedTask, user))));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<TaskDTO>> updatePatchTask(Long id, PatchTaskRequestDTO patchTaskRequestDTO) {
+        return authenticate(patchTaskRequestDTO.user(), () -> new UnauthorizedException("email or password are incorrect"))
+                .flatMap(user -> getTaskInUser(user, id)
+                        .flatMap(task -> makeUpdatesPatchTask(task, patchTaskRequestDTO))
+                        .flatMap(taskRepository::save)
+                        .map(savedTask -> ResponseEntity.ok(toDTO(savedTask, user))));
+    }
+
+    private static TaskRow newTask(NewTaskRequestDTO newTaskRequestDTO, UserRow user, String rank) {
+        TaskRow task = new TaskRow(newTaskRequestDTO.title(),
+                newTaskRequestDTO.description(),
+                newTaskRequestDTO.taskStatus() != null ? newTaskRequestDTO.taskStatus() : TaskStatus.PENDING,
+                user.getId());
+        task.setDueAt(newTaskRequestDTO.dueAt());
+        task.setTags(newTaskRequestDTO.tags());
+        task.setRank(rank);
+        return task;
+    }
+
+    private Mono<TaskRow> makeUpdatesPatchTask(TaskRow task, PatchTaskRequestDTO taskUpdate) {
+        if (taskUpdate.title() == null && taskUpdate.description() == null && taskUpdate.taskStatus() == null && taskUpdate.dueAt() == null
+                && taskUpdate.tags() == null)
+            return Mono.error(new InvalidTaskException("at least one field of the task must be provided"));
+        if (taskUpdate.title() != null && taskUpdate.description() != null && taskUpdate.title().isBlank() && taskUpdate.description().isBlank())
+            return Mono.error(new InvalidTaskException("either title or description must have text"));
+        if (taskUpdate.title() != null)
+            task.setTitle(taskUpdate.title());
+        if (taskUpdate.description() != null)
+            task.setDescription(taskUpdate.description());
+        if (taskUpdate.taskStatus() != null)
+            task.setTaskStatus(taskUpdate.taskStatus());
+        if (taskUpdate.dueAt() != null)
+            task.setDueAt(taskUpdate.dueAt());
+        if (taskUpdate.tags() != null)
+            task.setTags(taskUpdate.tags());
+        return Mono.just(task);
+    }
+
+    private Mono<UserRow> authenticate(UserTaskRequestDTO userRequest, Supplier<Exception> unknownUser) {
+        return userRepository.findActiveByNormalizedEmail(UserEntity.normalizeEmail(userRequest.email()))
+                .switchIfEmpty(Mono.error(unknownUser))
+                .flatMap(user -> user.getPassword().equals(userRequest.password())
+                        ? Mono.just(user)
+                        : Mono.error(new UnauthorizedException("email or password are incorrect")));
+    }
+
+    private Mono<TaskRow> getTaskInUser(UserRow user, Long id) {
+        return taskRepository.findById(id)
+                .filter(task -> task.getUserId().equals(user.getId()))
+                .switchIfEmpty(Mono.error(() -> new UnauthorizedException("unauthorized user")));
+    }
+
+    private Mono<TaskDTO> withOwner(TaskRow task) {
+        return userRepository.findById(task.getUserId()).map(owner -> toDTO(task, owner));
+    }
+
+    private static Mono<Void> validateTitleAndDescription(String title, String description) {
+        if (title.isBlank() && description.isBlank())
+            return Mono.error(new InvalidTaskException("either title or description must have text"));
+        return Mono.empty();
+    }
+
+    private static TaskDTO toDTO(TaskRow task, UserRow owner) {
+        return new TaskDTO(task.getId(), task.getTitle(), task.getDescription(), task.getTaskStatus(), task.getCreatedAt(),
+                task.getStatusChangedAt(), task.getDueAt(), task.isOverdue(), task.getTags(),
+                owner != null ? new UserTaskDTO(owner.getId(), owner.getUsername(), owner.getEmail()) : null, task.getVersion());
+    }
+}
@@ -0,0 +1,144 @@
+package com.mindhub.todolist.reactive.services.implementations;
+
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.task.TaskUserDTO;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.exceptions.EmailAlreadyExistsException;
+import com.mindhub.todolist.exceptions.InvalidUserException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.reactive.models.TaskRow;
+import com.mindhub.todolist.reactive.models.UserRow;
+import com.mindhub.todolist.reactive.repositories.ReactiveTaskRepository;
+import com.mindhub.todolist.reactive.repositories.ReactiveUserRepository;
+import com.mindhub.todolist.reactive.services.ReactiveUserService;
+import com.mindhub.todolist.validations.UserPatchValidation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ReactiveUserServiceImp implements ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+    @Autowired
+    private ReactiveTaskRepository taskRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<UserDTO> getAllUsersDTO(Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, UserDTO.FIELDS);
+        if (!fieldSelection.includes("tasks"))
+            return userRepository.findAllActive().map(user -> toDTO(user, null));
+        // the tasks are grouped in memory, like the fetch join of the servlet variant; users still stream
+        return taskRepository.findAllOfActiveUsers()
+                .collectMultimap(TaskRow::getUserId)
+                .flatMapMany(tasksByUser -> userRepository.findAllActive()
+                        .map(user -> toDTO(user, tasksByUser.getOrDefault(user.getId(), List.of()))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<ResponseEntity<UserDTO>> getUserDTOById(Long id, Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, UserDTO.FIELDS);
+        Mono<UserRow> user = userRepository.findActiveById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("user was not found")));
+        Mono<UserDTO> userDTO = fieldSelection.includes("tasks")
+                ? user.flatMap(this::withTasks)
+                : user.map(found -> toDTO(found, null));
+        return userDTO.map(ResponseEntity::ok);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<UserDTO>> createUser(NewUserRequestDTO newUserRequestDTO) {
+        // a single INSERT, the unique constraint is what decides whether the email is taken
+        return userRepository.save(new UserRow(newUserRequestDTO))
+                .onErrorMap(ReactiveUserServiceImp::violatesUniqueEmail, e -> new EmailAlreadyExistsException("email already taken"))
+                .map(savedUser -> new ResponseEntity<>(toDTO(savedUser, List.of()), HttpStatus.CREATED));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<Void>> deleteUser(Long id, boolean soft) {
+        Mono<Integer> deleted = soft
+                ? userRepository.softDeleteById(id, Instant.now())
+                : taskRepository.deleteAllByUserId(id).then(userRepository.deleteUserById(id));
+        return deleted.flatMap(count -> count == 0
+                ? Mono.error(new UserNotFoundException("user with id '" + id + "' was not found"))
+                : Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<UserDTO>> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO) {
+        return findForUpdate(id)
+                .flatMap(user -> {
+                    user.setUsername(putUserRequestDTO.username());
+                    user.setEmail(putUserRequestDTO.email());
+                    return userRepository.save(user);
+                })
+                .onErrorMap(ReactiveUserServiceImp::violatesUniqueEmail,
+                        e -> new EmailAlreadyExistsException("email '" + putUserRequestDTO.email() + "' is already taken"))
+                .flatMap(this::withTasks)
+                .map(ResponseEntity::ok);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Mono<ResponseEntity<UserDTO>> updatePatchUser(Long id, PatchUserRequestDTO patchUserRequestDTO) {
+        return findForUpdate(id)
+                .flatMap(user -> {
+                    String currentEmail = user.getEmail();
+                    List<String> errors = UserPatchValidation.validate(user.getUsername(), currentEmail, user.getPassword(), patchUserRequestDTO);
+                    if (!errors.isEmpty())
+                        return Mono.error(new InvalidUserException(errors.toString()));
+                    if (patchUserRequestDTO.username() != null)
+                        user.setUsername(patchUserRequestDTO.username());
+                    if (patchUserRequestDTO.email() != null)
+                        user.setEmail(patchUserRequestDTO.email());
+                    if (patchUserRequestDTO.password() != null)
+                        user.setPassword(patchUserRequestDTO.password());
+                    return userRepository.save(user)
+                            .onErrorMap(ReactiveUserServiceImp::violatesUniqueEmail,
+                                    e -> new InvalidUserException(List.of(UserPatchValidation.emailTakenError(currentEmail)).toString()));
+                })
+                .flatMap(this::withTasks)
+                .map(ResponseEntity::ok);
+    }
+
+    // the driver only reports the violated index in the message, which names the constraint
+    private static boolean violatesUniqueEmail(Throwable e) {
+        return e instanceof DataIntegrityViolationException violation && violation.getMostSpecificCause().getMessage() != null
+                && violation.getMostSpecificCause().getMessage().toUpperCase().contains(UserEntity.EMAIL_CONSTRAINT);
+    }
+
+    private Mono<UserRow> findForUpdate(Long id) {
+        return userRepository.findActiveById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("user with id '" + id + "' was not found")));
+    }
+
+    private Mono<UserDTO> withTasks(UserRow user) {
+        return taskRepository.findAllByUserId(user.getId()).collectList().map(tasks -> toDTO(user, tasks));
+    }
+
+    private static UserDTO toDTO(UserRow user, Collection<TaskRow> tasks) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), tasks == null ? null : tasks.stream()
+                .map(task -> new TaskUserDTO(task.getId(), task.getTitle(), task.getDescription(), task.getTaskStatus()))
+                .toList());
+    }
+}
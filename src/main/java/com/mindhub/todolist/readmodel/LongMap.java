@@ -0,0 +1,213 @@
+package com.mindhub.todolist.readmodel;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Immutable map from long ids to values, split into {@code 2^SEGMENT_BITS} tables picked by the top bits of the
+ * hash. Each table uses open addressing with linear probing over a {@code long[]} of keys and an {@code Object[]}
+ * of values, so a lookup neither boxes the id nor follows entry nodes. Changes go through a {@link Builder},
+ * which copies the array of tables and, once, each table it writes to. A batch of a few changes copies a few
+ * tables instead of the whole map.
+ */
+final class LongMap<V> {
+
+    // a change to a map of a million entries copies a table of about a thousand
+    private static final int SEGMENT_BITS = 10;
+    private static final Table EMPTY_TABLE = new Table(new long[8], new Object[8], 0);
+    private static final LongMap<?> EMPTY = new LongMap<>(emptyTables(), 0);
+
+    // shared with the builders copied from this map, which never write to them
+    private final Table[] tables;
+    private final int size;
+
+    private LongMap(Table[] tables, int size) {
+        this.tables = tables;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> LongMap<V> empty() {
+        return (LongMap<V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        long hash = hash(key);
+        return (V) tables[segment(hash)].get(key, hash);
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<V> action) {
+        for (Table table : tables)
+            for (Object value : table.values)
+                if (value != null)
+                    action.accept((V) value);
+    }
+
+    Builder<V> toBuilder() {
+        return new Builder<>(tables.clone(), size);
+    }
+
+    private static Table[] emptyTables() {
+        Table[] tables = new Table[1 << SEGMENT_BITS];
+        Arrays.fill(tables, EMPTY_TABLE);
+        return tables;
+    }
+
+    private static long hash(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    private static int segment(long hash) {
+        return (int) (hash >>> (64 - SEGMENT_BITS));
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    static final class Builder<V> {
+
+        private Table[] tables;
+        // the tables this builder copied, and may write to
+        private boolean[] owned;
+        private int size;
+
+        private Builder(Table[] tables, int size) {
+            this.tables = tables;
+            this.owned = new boolean[tables.length];
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(long key) {
+            long hash = hash(key);
+            return (V) tables[segment(hash)].get(key, hash);
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, V value) {
+            long hash = hash(key);
+            V previous = (V) writable(segment(hash)).put(key, hash, value);
+            if (previous == null)
+                size++;
+            return previous;
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key) {
+            long hash = hash(key);
+            int segment = segment(hash);
+            // nothing to copy for a key that is not there
+            if (tables[segment].get(key, hash) == null)
+                return null;
+            size--;
+            return (V) writable(segment).remove(key, hash);
+        }
+
+        LongMap<V> build() {
+            LongMap<V> map = new LongMap<>(tables, size);
+            // the tables now belong to the published map
+            tables = null;
+            owned = null;
+            return map;
+        }
+
+        private Table writable(int segment) {
+            if (!owned[segment]) {
+                tables[segment] = tables[segment].copy();
+                owned[segment] = true;
+            }
+            return tables[segment];
+        }
+    }
+
+    // only written to by the builder that copied it, before it is published
+    private static final class Table {
+
+        private long[] keys;
+        // a null value marks a free slot
+        private Object[] values;
+        private int size;
+
+        Table(long[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        Table copy() {
+            return new Table(keys.clone(), values.clone(), size);
+        }
+
+        Object get(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int i = slot(hash, mask); values[i] != null; i = (i + 1) & mask)
+                if (keys[i] == key)
+                    return values[i];
+            return null;
+        }
+
+        Object put(long key, long hash, Object value) {
+            // kept at most 3/4 full so probe sequences stay short
+            if ((size + 1) * 4L > keys.length * 3L)
+                resize(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = slot(hash, mask);
+            for (; values[i] != null; i = (i + 1) & mask)
+                if (keys[i] == key) {
+                    Object previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return null;
+        }
+
+        // backward-shift deletion: the entries after the freed slot are moved up, so no tombstones are left
+        Object remove(long key, long hash) {
+            int mask = keys.length - 1;
+            int i = slot(hash, mask);
+            while (values[i] != null && keys[i] != key)
+                i = (i + 1) & mask;
+            if (values[i] == null)
+                return null;
+            Object previous = values[i];
+            int free = i;
+            for (int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = slot(hash(keys[next]), mask);
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            values[free] = null;
+            size--;
+            return previous;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++)
+                if (oldValues[j] != null) {
+                    int i = slot(hash(oldKeys[j]), mask);
+                    while (values[i] != null)
+                        i = (i + 1) & mask;
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.mindhub.todolist.readmodel;
+
+import com.mindhub.todolist.datasources.TransactionCallbacks;
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.task.TaskUserDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.events.TaskOverdueEvent;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.repositories.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Denormalized in-memory copy of the users and their tasks that the {@code ReadModel*Service} decorators serve
+ * reads from. Readers take the current {@link Snapshot} from a volatile field and never lock.
+ * <p>
+ * The write paths record their changes after they commit. A change is queued and published with every other
+ * change queued by then as one new snapshot, which shares every part of the maps the batch did not change.
+ * The change is visible before the write returns. {@link #rebuild()} reloads everything from the database, and replays
+ * the changes published while it ran onto the result. Versions keep a late or replayed change from
+ * overwriting a newer one, and {@link Tombstones} keep it from bringing back a removed user or task.
+ */
+@Component
+public class ReadModel {
+
+    private record Snapshot(LongMap<UserView> users, LongMap<TaskView> tasks, long[] taskIds) {
+        static final Snapshot EMPTY = new Snapshot(LongMap.empty(), LongMap.empty(), new long[0]);
+    }
+
+    private interface Change {
+        void applyTo(Changes changes);
+    }
+
+    private static final Comparator<TaskView> USER_TASK_ORDER = Comparator
+            .comparing(TaskView::rank, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(TaskView::id);
+
+    private final boolean enabled;
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readTransaction;
+    private final int batchSize;
+
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final Object publishLock = new Object();
+    private final Object rebuildLock = new Object();
+    private final Tombstones removedUsers = new Tombstones();
+    private final Tombstones removedTasks = new Tombstones();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+    // non-null while a rebuild runs, guarded by publishLock
+    private List<Change> publishedDuringRebuild;
+
+    public ReadModel(UserRepository userRepository, TaskRepository taskRepository, PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${todolist.read-model.enabled:false}") boolean enabled,
+                     @Value("${todolist.read-model.batch-size:1000}") int batchSize,
+                     @Value("${todolist.sharding.enabled:false}") boolean shardingEnabled) {
+        if (enabled && shardingEnabled)
+            throw new IllegalStateException("todolist.read-model can not be combined with todolist.sharding");
+        this.enabled = enabled;
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        Gauge.builder("todolist.read-model.users", this, readModel -> readModel.snapshot.users().size())
+                .description("users in the read model").register(meterRegistry);
+        Gauge.builder("todolist.read-model.tasks", this, readModel -> readModel.snapshot.tasks().size())
+                .description("tasks in the read model").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // reads go to the database until the first load is published
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public List<TaskDTO> findAllTasks(FieldSelection fieldSelection) {
+        Snapshot current = snapshot;
+        List<TaskDTO> tasks = new ArrayList<>(current.taskIds().length);
+        for (long id : current.taskIds()) {
+            TaskView task = current.tasks().get(id);
+            UserView owner = current.users().get(task.userId());
+            // tasks of a deleted user are hidden, as @SQLRestriction does
+            if (owner != null)
+                tasks.add(new TaskDTO(task, owner, fieldSelection));
+        }
+        return tasks;
+    }
+
+    public Optional<TaskDTO> findTask(long id, FieldSelection fieldSelection) {
+        Snapshot current = snapshot;
+        TaskView task = current.tasks().get(id);
+        UserView owner = task != null ? current.users().get(task.userId()) : null;
+        return owner != null ? Optional.of(new TaskDTO(task, owner, fieldSelection)) : Optional.empty();
+    }
+
+    public Optional<UserDTO> findUser(long id, FieldSelection fieldSelection) {
+        Snapshot current = snapshot;
+        UserView user = current.users().get(id);
+        if (user == null)
+            return Optional.empty();
+        List<TaskUserDTO> tasks = null;
+        if (fieldSelection.includes("tasks")) {
+            tasks = new ArrayList<>(user.taskIds().length);
+            for (long taskId : user.taskIds()) {
+                TaskView task = current.tasks().get(taskId);
+                tasks.add(new TaskUserDTO(task.id(), task.title(), task.description(), task.taskStatus()));
+            }
+        }
+        return Optional.of(new UserDTO(user.id(), user.username(), user.email(), tasks));
+    }
+
+    public void recordUserAfterCommit(UserEntity user) {
+        if (enabled)
+            TransactionCallbacks.afterCommit(() -> publish(changes -> changes.putUser(UserView.of(user))));
+    }
+
+    // soft and hard deletes alike, the user's tasks go with it. A removed user never comes back
+    public void recordUserRemovedAfterCommit(Long userId) {
+        if (enabled)
+            TransactionCallbacks.afterCommit(() -> publish(changes -> changes.removeUser(userId)));
+    }
+
+    public void recordTaskAfterCommit(Task task) {
+        if (enabled)
+            TransactionCallbacks.afterCommit(() -> publish(changes -> changes.putTask(TaskView.of(task))));
+    }
+
+    // by the version each task had when it was removed, an archived task is restored with a higher one
+    public void recordTasksRemovedAfterCommit(Map<Long, Long> versionsById) {
+        if (!enabled)
+            return;
+        Map<Long, Long> versions = Map.copyOf(versionsById);
+        TransactionCallbacks.afterCommit(() -> publish(changes -> versions.forEach(changes::removeTask)));
+    }
+
+    // published after the overdue flags were committed
+    @EventListener
+    public void onTaskOverdue(TaskOverdueEvent event) {
+        if (enabled)
+            publish(changes -> changes.markOverdue(event.taskId()));
+    }
+
+    /**
+     * Loads every user and task in pages of {@code batch-size}, each page in its own read-only transaction,
+     * and publishes the result in place of the current snapshot.
+     */
+    public void rebuild() {
+        if (!enabled)
+            return;
+        synchronized (rebuildLock) {
+            synchronized (publishLock) {
+                publishedDuringRebuild = new ArrayList<>();
+            }
+            try {
+                Changes rebuilt = new Changes(Snapshot.EMPTY, removedUsers, removedTasks);
+                long afterId = 0;
+                List<UserEntity> users;
+                do {
+                    long after = afterId;
+                    users = readTransaction.execute(status -> userRepository.findAllByIdGreaterThanOrderById(after, Limit.of(batchSize)));
+                    users.forEach(user -> rebuilt.putUser(UserView.of(user)));
+                    if (!users.isEmpty())
+                        afterId = users.get(users.size() - 1).getId();
+                } while (users.size() == batchSize);
+                afterId = 0;
+                List<Task> tasks;
+                do {
+                    long after = afterId;
+                    tasks = readTransaction.execute(status -> taskRepository.findAllByIdGreaterThanOrderById(after, Limit.of(batchSize)));
+                    tasks.forEach(task -> rebuilt.putTask(TaskView.of(task)));
+                    if (!tasks.isEmpty())
+                        afterId = tasks.get(tasks.size() - 1).getId();
+                } while (tasks.size() == batchSize);
+                synchronized (publishLock) {
+                    publishedDuringRebuild.forEach(change -> change.applyTo(rebuilt));
+                    publishedDuringRebuild = null;
+                    snapshot = drainInto(rebuilt).publish();
+                    loaded = true;
+                    removedUsers.rotate();
+                    removedTasks.rotate();
+                }
+            } finally {
+                synchronized (publishLock) {
+                    publishedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    public int userCount() {
+        return snapshot.users().size();
+    }
+
+    public int taskCount() {
+        return snapshot.tasks().size();
+    }
+
+    // whoever gets the lock publishes every change queued so far, so ours is published when this returns
+    private void publish(Change change) {
+        pending.add(change);
+        synchronized (publishLock) {
+            if (pending.isEmpty())
+                return;
+            snapshot = drainInto(new Changes(snapshot, removedUsers, removedTasks)).publish();
+        }
+    }
+
+    // callers hold publishLock
+    private Changes drainInto(Changes changes) {
+        for (Change change; (change = pending.poll()) != null; ) {
+            change.applyTo(changes);
+            if (publishedDuringRebuild != null)
+                publishedDuringRebuild.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Ids removed from the read model, with the version they had then. A put of that version or an older one
+     * committed before the remove but is published after it, and is ignored. A rebuild moves the ids to a
+     * previous generation and drops the ones already there, so each is kept for at least a full rebuild.
+     */
+    private static final class Tombstones {
+
+        // written under publishLock, read without it by the rebuild's loads
+        private volatile Map<Long, Long> current = new ConcurrentHashMap<>();
+        private volatile Map<Long, Long> previous = Map.of();
+
+        void add(long id, long version) {
+            current.merge(id, version, Math::max);
+        }
+
+        boolean covers(long id, long version) {
+            Long removed = current.get(id);
+            if (removed == null)
+                removed = previous.get(id);
+            return removed != null && removed >= version;
+        }
+
+        void rotate() {
+            previous = current;
+            current = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Builders over the maps of one snapshot with changes applied to them, which copy only the parts of the
+     * maps that change. The sorted task ids and the task
+     * order of the users whose tasks changed are worked out once, when the next snapshot is built.
+     */
+    private static final class Changes {
+
+        private final Snapshot base;
+        private final Tombstones removedUsers;
+        private final Tombstones removedTasks;
+        private final LongMap.Builder<UserView> users;
+        private final LongMap.Builder<TaskView> tasks;
+        private final Set<Long> addedTaskIds = new HashSet<>();
+        private final Set<Long> removedTaskIds = new HashSet<>();
+        private final Map<Long, Set<Long>> taskIdsOfChangedUsers = new HashMap<>();
+
+        Changes(Snapshot base, Tombstones removedUsers, Tombstones removedTasks) {
+            this.base = base;
+            this.removedUsers = removedUsers;
+            this.removedTasks = removedTasks;
+            this.users = base.users().toBuilder();
+            this.tasks = base.tasks().toBuilder();
+        }
+
+        void putUser(UserView user) {
+            if (removedUsers.covers(user.id(), user.version()))
+                return;
+            UserView previous = users.get(user.id());
+            if (previous != null && previous.version() > user.version())
+                return;
+            users.put(user.id(), user.withTaskIds(previous != null ? previous.taskIds() : UserView.NO_TASKS));
+        }
+
+        void removeUser(long userId) {
+            removedUsers.add(userId, Long.MAX_VALUE);
+            UserView previous = users.remove(userId);
+            if (previous != null)
+                for (long taskId : previous.taskIds())
+                    removeTask(taskId);
+            taskIdsOfChangedUsers.computeIfAbsent(userId, id -> new HashSet<>());
+        }
+
+        void putTask(TaskView task) {
+            if (removedTasks.covers(task.id(), task.version()))
+                return;
+            TaskView previous = tasks.get(task.id());
+            if (previous != null && previous.version() > task.version())
+                return;
+            tasks.put(task.id(), task);
+            if (previous == null && !removedTaskIds.remove(task.id()))
+                addedTaskIds.add(task.id());
+            taskIdsOfChangedUsers.computeIfAbsent(task.userId(), id -> new HashSet<>()).add(task.id());
+            if (previous != null && previous.userId() != task.userId())
+                taskIdsOfChangedUsers.computeIfAbsent(previous.userId(), id -> new HashSet<>());
+        }
+
+        void removeTask(long taskId, long version) {
+            removedTasks.add(taskId, version);
+            removeTask(taskId);
+        }
+
+        void removeTask(long taskId) {
+            TaskView previous = tasks.remove(taskId);
+            if (previous == null)
+                return;
+            if (!addedTaskIds.remove(taskId))
+                removedTaskIds.add(taskId);
+            taskIdsOfChangedUsers.computeIfAbsent(previous.userId(), id -> new HashSet<>());
+        }
+
+        void markOverdue(long taskId) {
+            TaskView task = tasks.get(taskId);
+            if (task != null && !task.overdue())
+                tasks.put(taskId, task.markedOverdue());
+        }
+
+        Snapshot publish() {
+            // removeTask only adds keys of users that are not here yet, and every task here is owned by its key
+            taskIdsOfChangedUsers.forEach((userId, candidates) -> {
+                UserView user = users.get(userId);
+                if (user == null) {
+                    // tasks written for a user that is gone, e.g. removed in the same batch
+                    candidates.forEach(this::removeTask);
+                    return;
+                }
+                for (long taskId : user.taskIds())
+                    candidates.add(taskId);
+                users.put(userId, user.withTaskIds(candidates.stream()
+                        .map(tasks::get)
+                        .filter(task -> task != null && task.userId() == userId)
+                        .sorted(USER_TASK_ORDER)
+                        .mapToLong(TaskView::id)
+                        .toArray()));
+            });
+            return new Snapshot(users.build(), tasks.build(), taskIds());
+        }
+
+        // the previous sorted ids without the removed ones, merged with the added ones
+        private long[] taskIds() {
+            long[] previous = base.taskIds();
+            if (addedTaskIds.isEmpty() && removedTaskIds.isEmpty())
+                return previous;
+            long[] added = addedTaskIds.stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] merged = new long[previous.length - removedTaskIds.size() + added.length];
+            int i = 0, j = 0, k = 0;
+            while (i < previous.length || j < added.length) {
+                if (j == added.length || (i < previous.length && previous[i] < added[j])) {
+                    if (!removedTaskIds.contains(previous[i]))
+                        merged[k++] = previous[i];
+                    i++;
+                } else {
+                    merged[k++] = added[j++];
+                }
+            }
+            return k == merged.length ? merged : Arrays.copyOf(merged, k);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mindhub.todolist.readmodel;
+
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * A committed task as the read model holds it. Tags are the entity's unmodifiable set.
+ */
+public record TaskView(long id, long version, long userId, String title, String description, TaskStatus taskStatus,
+                       Instant createdAt, Instant statusChangedAt, Instant dueAt, boolean overdue, Set<String> tags, String rank) {
+
+    static TaskView of(Task task) {
+        return new TaskView(task.getId(), task.getVersion(), task.getUser().getId(), task.getTitle(), task.getDescription(),
+                task.getTaskStatus(), asStored(task.getCreatedAt()), asStored(task.getStatusChangedAt()), asStored(task.getDueAt()),
+                task.isOverdue(), task.getTags(), task.getRank());
+    }
+
+    // a just-saved entity still has the nanoseconds that H2 rounds away in the timestamp(6) columns
+    private static Instant asStored(Instant instant) {
+        return instant != null ? instant.plusNanos(500).truncatedTo(ChronoUnit.MICROS) : null;
+    }
+
+    // the database bumps the version together with the flag
+    TaskView markedOverdue() {
+        return new TaskView(id, version + 1, userId, title, description, taskStatus, createdAt, statusChangedAt, dueAt, true,
+                tags, rank);
+    }
+}
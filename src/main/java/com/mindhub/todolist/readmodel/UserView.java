@@ -0,0 +1,20 @@
+package com.mindhub.todolist.readmodel;
+
+import com.mindhub.todolist.models.UserEntity;
+
+/**
+ * A committed user as the read model holds it, with the ids of its tasks in the order of
+ * {@code UserEntity.tasks} (rank, then id). The array is never modified once published.
+ */
+public record UserView(long id, long version, String username, String email, long[] taskIds) {
+
+    static final long[] NO_TASKS = new long[0];
+
+    static UserView of(UserEntity user) {
+        return new UserView(user.getId(), user.getVersion(), user.getUsername(), user.getEmail(), NO_TASKS);
+    }
+
+    UserView withTaskIds(long[] taskIds) {
+        return new UserView(id, version, username, email, taskIds);
+    }
+}
@@ -0,0 +1,45 @@
+package com.mindhub.todolist.repositories;
+
+import com.mindhub.todolist.models.ArchivedTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    Optional<ArchivedTask> findByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Query(value = "insert into tasks_archive (id, version, title, description, task_status, user_id, created_at, status_changed_at, completed_at, due_at, rank, tags, archived_at) " +
+            "select id, version, title, description, task_status, user_id, created_at, status_changed_at, completed_at, due_at, rank, tags, :archivedAt from tasks where id in (:ids)",
+            nativeQuery = true)
+    int copyFromTasks(@Param("ids") Collection<Long> ids, @Param("archivedAt") Instant archivedAt);
+
+    // rows archived before TASKS_ARCHIVE had a version column have none, the JSON cache did not survive that restart
+    @Modifying
+    @Query(value = "insert into tasks (id, version, title, description, task_status, user_id, created_at, status_changed_at, completed_at, due_at, overdue, rank, tags) " +
+            "select id, coalesce(version, 0) + 1, title, description, task_status, user_id, created_at, status_changed_at, completed_at, due_at, false, rank, tags from tasks_archive where id = :id",
+            nativeQuery = true)
+    int copyToTasks(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from ArchivedTask t where t.id = :id")
+    int deleteArchivedById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from ArchivedTask t where t.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from tasks_archive where id in (select id from tasks_archive where user_id = :userId limit :chunkSize)", nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("chunkSize") int chunkSize);
+}
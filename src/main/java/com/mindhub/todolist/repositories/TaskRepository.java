@@ -1,9 +1,117 @@
 package com.mindhub.todolist.repositories;
 
 import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    @Query("select t from Task t join fetch t.user")
+    List<Task> findAllWithUser();
+
+    @Query("select t from Task t join fetch t.user where t.id = :id")
+    Optional<Task> findByIdWithUser(@Param("id") Long id);
+
+    @Query("select t from Task t join fetch t.user where t.id in :ids")
+    List<Task> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface TaskVersion {
+        Long getId();
+
+        Long getVersion();
+    }
+
+    // FOR UPDATE: a task reopened concurrently waits for the archiving transaction or is left out of the batch
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id as id, t.version as version from Task t " +
+            "where t.taskStatus = :taskStatus and t.completedAt < :completedBefore order by t.id")
+    List<TaskVersion> lockByTaskStatusAndCompletedAtBefore(@Param("taskStatus") TaskStatus taskStatus,
+                                                           @Param("completedBefore") Instant completedBefore,
+                                                           Limit limit);
+
+    @Query("select max(t.rank) from Task t where t.user.id = :userId")
+    String findLastRankByUserId(@Param("userId") Long userId);
+
+    @Query("select min(t.rank) from Task t where t.user.id = :userId and t.rank > :rank and t.id <> :excludedId")
+    String findRankAfter(@Param("userId") Long userId, @Param("rank") String rank, @Param("excludedId") Long excludedId);
+
+    @Query("select max(t.rank) from Task t where t.user.id = :userId and t.rank < :rank and t.id <> :excludedId")
+    String findRankBefore(@Param("userId") Long userId, @Param("rank") String rank, @Param("excludedId") Long excludedId);
+
+    // owners with unranked tasks, keys longer than maxLength or two tasks on the same key
+    @Query(value = "select user_id from tasks where rank is null or length(rank) > :maxLength " +
+            "union select user_id from tasks group by user_id, rank having count(*) > 1 " +
+            "limit :limit", nativeQuery = true)
+    List<Long> findUserIdsNeedingRankCompaction(@Param("maxLength") int maxLength, @Param("limit") int limit);
+
+    @Query("select t from Task t where t.user.id = :userId order by t.rank asc nulls first, t.id asc")
+    List<Task> findAllByUserIdOrderByRank(@Param("userId") Long userId);
+
+    interface IndexedTask {
+        Long getId();
+
+        Long getVersion();
+
+        Long getUserId();
+
+        TaskStatus getTaskStatus();
+
+        Set<String> getTags();
+    }
+
+    @Query("select t.id as id, t.version as version, t.user.id as userId, t.taskStatus as taskStatus, t.tags as tags " +
+            "from Task t where t.id > :afterId order by t.id")
+    List<IndexedTask> findIndexedTasks(@Param("afterId") Long afterId, Limit limit);
+
+    List<Task> findAllByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    interface PendingDueDate {
+        Long getId();
+
+        Instant getDueAt();
+    }
+
+    @Query("select t.id as id, t.dueAt as dueAt from Task t " +
+            "where t.id > :afterId and t.dueAt is not null and t.overdue = false and t.taskStatus <> :completed order by t.id")
+    List<PendingDueDate> findPendingDueDates(@Param("afterId") Long afterId, @Param("completed") TaskStatus completed, Limit limit);
+
+    // FOR UPDATE: a task completed or moved to a later due date concurrently waits for the marking transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.id in :ids and t.dueAt <= :now and t.overdue = false and t.taskStatus <> :completed")
+    List<Long> lockIdsBecomingOverdue(@Param("ids") Collection<Long> ids, @Param("now") Instant now, @Param("completed") TaskStatus completed);
+
+    // versioned, so the cached JSON of these tasks is re-encoded
+    @Modifying
+    @Query("update versioned Task t set t.overdue = true " +
+            "where t.id in :ids and t.dueAt <= :now and t.overdue = false and t.taskStatus <> :completed")
+    int markOverdue(@Param("ids") Collection<Long> ids, @Param("now") Instant now, @Param("completed") TaskStatus completed);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Task t where t.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    // native so it also reaches tasks of soft-deleted users, one short transaction per chunk
+    @Transactional
+    @Modifying
+    @Query(value = "delete from tasks where id in (select id from tasks where user_id = :userId limit :chunkSize)", nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("chunkSize") int chunkSize);
 }
@@ -0,0 +1,20 @@
+package com.mindhub.todolist.repositories;
+
+import com.mindhub.todolist.models.TaskStatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskStatsRollupRepository extends JpaRepository<TaskStatsRollup, TaskStatsRollup.Key> {
+
+    List<TaskStatsRollup> findAllByBucketStartIn(Collection<Instant> bucketStarts);
+
+    @Query("select r from TaskStatsRollup r where r.bucketStart >= :from and r.bucketStart < :to")
+    List<TaskStatsRollup> findAllInRange(@Param("from") Instant from, @Param("to") Instant to);
+}
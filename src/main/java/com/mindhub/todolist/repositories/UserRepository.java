@@ -1,14 +1,67 @@
 package com.mindhub.todolist.repositories;
 
 import com.mindhub.todolist.models.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
-    boolean existsByEmail(String email);
-    Optional<UserEntity> findByEmail(String email);
+    // native so soft-deleted users keep their email reserved until they are purged, as the unique constraint does
+    @Query(value = "select normalized_email from users where normalized_email in (:normalizedEmails)", nativeQuery = true)
+    List<String> findExistingNormalizedEmails(@Param("normalizedEmails") Collection<String> normalizedEmails);
+
+    Optional<UserEntity> findByNormalizedEmail(String normalizedEmail);
+
+    // exact match on the raw column, only for rows the backfill has not reached yet
+    @Query("select u from UserEntity u where u.email = :email and u.normalizedEmail is null")
+    Optional<UserEntity> findUnnormalizedByEmail(@Param("email") String email);
+
+    List<UserEntity> findAllByNormalizedEmailIn(Collection<String> normalizedEmails);
+
+    // soft-deleted rows are included, their emails stay reserved until they are purged
+    @Query(value = "select id from users where normalized_email is null and id > :after order by id limit :limit", nativeQuery = true)
+    List<Long> findIdsWithoutNormalizedEmail(@Param("after") long after, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update users set normalized_email = lower(trim(email)) where id in (:ids) and normalized_email is null", nativeQuery = true)
+    int normalizeEmails(@Param("ids") Collection<Long> ids);
+
+    List<UserEntity> findAllByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    @Query("select distinct u from UserEntity u left join fetch u.tasks")
+    List<UserEntity> findAllWithTasks();
+
+    @Query("select u from UserEntity u left join fetch u.tasks where u.id = :id")
+    Optional<UserEntity> findByIdWithTasks(@Param("id") Long id);
+
+    @Query("select distinct u from UserEntity u left join fetch u.tasks where u.id in :ids")
+    List<UserEntity> findAllWithTasksByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from UserEntity u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update UserEntity u set u.deletedAt = :deletedAt where u.id = :id")
+    int softDeleteById(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+    @Query(value = "select id from users where deleted_at is not null order by deleted_at limit :limit", nativeQuery = true)
+    List<Long> findSoftDeletedIds(@Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from users where id = :id and deleted_at is not null", nativeQuery = true)
+    int purgeSoftDeletedById(@Param("id") Long id);
 }
@@ -0,0 +1,27 @@
+package com.mindhub.todolist.services;
+
+import com.mindhub.todolist.dtos.ImportEventDTO;
+import com.mindhub.todolist.exceptions.BadRequestException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface ImportService {
+
+    enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String contentType) {
+            if (contentType != null && contentType.startsWith("text/csv"))
+                return CSV;
+            if (contentType != null && contentType.startsWith("application/x-ndjson"))
+                return NDJSON;
+            throw new BadRequestException("content type must be text/csv or application/x-ndjson");
+        }
+    }
+
+    ImportEventDTO importUsers(InputStream body, Format format, Consumer<ImportEventDTO> events) throws IOException;
+
+    ImportEventDTO importTasks(InputStream body, Format format, Consumer<ImportEventDTO> events) throws IOException;
+}
@@ -0,0 +1,16 @@
+package com.mindhub.todolist.services;
+
+import com.mindhub.todolist.models.ArchivedTask;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskArchiveService {
+    int archiveCompletedTasks();
+
+    boolean restoreTask(Long id, Long userId);
+
+    List<ArchivedTask> getAllArchivedTasks();
+
+    Optional<ArchivedTask> findArchivedTaskById(Long id);
+}
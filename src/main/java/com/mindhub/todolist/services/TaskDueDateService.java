@@ -0,0 +1,15 @@
+package com.mindhub.todolist.services;
+
+import com.mindhub.todolist.models.Task;
+
+public interface TaskDueDateService {
+
+    // both take effect when the surrounding transaction commits
+    void scheduleAfterCommit(Task task);
+
+    void cancelAfterCommit(Long taskId);
+
+    int fireDueTasks();
+
+    int loadPendingDueDates();
+}
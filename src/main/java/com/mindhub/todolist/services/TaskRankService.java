@@ -0,0 +1,5 @@
+package com.mindhub.todolist.services;
+
+public interface TaskRankService {
+    int compactRanks();
+}
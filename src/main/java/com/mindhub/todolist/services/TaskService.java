@@ -1,5 +1,7 @@
 package com.mindhub.todolist.services;
 
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.task.MoveTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
@@ -9,14 +11,20 @@ import com.mindhub.todolist.exceptions.InvalidTaskException;
 import com.mindhub.todolist.exceptions.TaskNotFoundException;
 import com.mindhub.todolist.exceptions.UnauthorizedException;
 import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.TaskStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.Set;
 
 public interface TaskService {
-    ResponseEntity<List<TaskDTO>> getAllTasksDTO();
+    ResponseEntity<List<TaskDTO>> getAllTasksDTO(boolean archived, Set<String> fields);
 
-    ResponseEntity<TaskDTO> getTaskDTOById(Long id) throws TaskNotFoundException;
+    ResponseEntity<TaskDTO> getTaskDTOById(Long id, boolean archived, Set<String> fields) throws TaskNotFoundException;
+
+    ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksDTOByIds(List<Long> ids, Set<String> fields);
+
+    ResponseEntity<List<TaskDTO>> searchTasks(String tags, Long userId, TaskStatus taskStatus, Long afterId, int limit, Set<String> fields);
 
     ResponseEntity<TaskDTO> createTask(NewTaskRequestDTO newTaskRequestDTO) throws UserNotFoundException, UnauthorizedException, InvalidTaskException;
 
@@ -24,5 +32,7 @@ public interface TaskService {
 
     ResponseEntity<TaskDTO> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO) throws UnauthorizedException, InvalidTaskException;
 
+    ResponseEntity<TaskDTO> moveTask(Long id, MoveTaskRequestDTO moveTaskRequestDTO) throws UnauthorizedException, InvalidTaskException;
+
     ResponseEntity<TaskDTO> updatePatchTask(Long id, PatchTaskRequestDTO PatchTaskRequestDTO) throws UnauthorizedException, InvalidTaskException;
 }
@@ -0,0 +1,36 @@
+package com.mindhub.todolist.services;
+
+import com.mindhub.todolist.dtos.task.TaskStatsDTO;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public interface TaskStatsService {
+
+    enum Granularity {
+        HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public ChronoUnit unit() {
+            return unit;
+        }
+    }
+
+    // both take effect when the surrounding transaction commits
+    void recordCreatedAfterCommit(Task task);
+
+    void recordStatusChangeAfterCommit(Task task, TaskStatus previousStatus, Instant previousStatusChangedAt);
+
+    int compactClosedBuckets();
+
+    ResponseEntity<List<TaskStatsDTO>> getStats(Instant from, Instant to, Granularity granularity);
+}
@@ -0,0 +1,25 @@
+package com.mindhub.todolist.services;
+
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskTagService {
+
+    // the index changes when the surrounding transaction commits
+    void indexAfterCommit(Task task);
+
+    void removeAfterCommit(Collection<Long> taskIds);
+
+    void removeOwnerAfterCommit(Long userId);
+
+    /**
+     * Ids of the tasks matching the tag query (null matches every task), owner and status, in
+     * ascending order after {@code afterId}.
+     */
+    List<Long> search(String query, Long userId, TaskStatus taskStatus, long afterId, int limit);
+
+    int loadIndex();
+}
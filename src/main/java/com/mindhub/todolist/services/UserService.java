@@ -1,5 +1,6 @@
 package com.mindhub.todolist.services;
 
+import com.mindhub.todolist.dtos.BatchItemDTO;
 import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
@@ -12,19 +13,26 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserService {
-    ResponseEntity<List<UserDTO>> getAllUsersDTO();
+    ResponseEntity<List<UserDTO>> getAllUsersDTO(Set<String> fields);
 
     List<UserEntity> getAllUsers();
 
-    ResponseEntity<UserDTO> getUserDTOById(Long id) throws UserNotFoundException;
+    ResponseEntity<UserDTO> getUserDTOById(Long id, Set<String> fields) throws UserNotFoundException;
+
+    ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersDTOByIds(List<Long> ids, Set<String> fields);
 
     UserEntity getUserById(Long id) throws UserNotFoundException;
 
-    ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO);
+    ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO) throws EmailAlreadyExistsException;
+
+    ResponseEntity<?> deleteUser(Long id, boolean soft) throws UserNotFoundException;
+
+    int purgeSoftDeletedUsers();
 
-    ResponseEntity<?> deleteUser(Long id) throws UserNotFoundException;
+    int backfillNormalizedEmails();
 
     ResponseEntity<UserDTO> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO) throws UserNotFoundException, EmailAlreadyExistsException;
 
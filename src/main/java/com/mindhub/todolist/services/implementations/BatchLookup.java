@@ -0,0 +1,38 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.exceptions.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves a list of ids with one {@code IN} query per chunk, so the statement size stays
+ * bounded no matter how many ids a client sends.
+ */
+@Component
+public class BatchLookup {
+
+    @Value("${todolist.batch.max-ids:100}")
+    private int maxIds;
+    @Value("${todolist.batch.chunk-size:50}")
+    private int chunkSize;
+
+    public <T> Map<Long, T> findAll(List<Long> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        if (ids == null || ids.isEmpty())
+            throw new BadRequestException("at least one id must be provided");
+        if (ids.size() > maxIds)
+            throw new BadRequestException("at most " + maxIds + " ids can be requested at once");
+
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            loader.apply(chunk).forEach(entity -> found.put(idOf.apply(entity), entity));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,323 @@
+package com.mindhub.todolist.services.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set of non-negative ids in the layout of a Roaring bitmap: ids are split into chunks of 2^16
+ * by their high bits, and each chunk stores its low 16 bits either as a sorted {@code char[]}
+ * (up to {@value #ARRAY_MAX} values) or as a 1024-word bitset. Sparse and dense chunks both stay
+ * small, and AND / OR / AND NOT only touch chunks that are present on the relevant side.
+ * <p>
+ * Not thread-safe, TaskTagServiceImp guards every bitmap with its lock.
+ */
+class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1 << 10;
+
+    // chunk keys are kept sorted, containers[i] holds the values of keys[i]
+    private long[] keys = new long[0];
+    private Object[] containers = new Object[0];
+    private int size;
+
+    static CompressedBitmap of(long... ids) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long id : ids)
+            bitmap.add(id);
+        return bitmap;
+    }
+
+    void add(long id) {
+        long key = id >>> 16;
+        char low = (char) id;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, key, new char[]{low});
+            return;
+        }
+        if (containers[index] instanceof long[] bitset) {
+            bitset[low >>> 6] |= 1L << low;
+            return;
+        }
+        char[] values = (char[]) containers[index];
+        int position = Arrays.binarySearch(values, low);
+        if (position >= 0)
+            return;
+        position = -position - 1;
+        if (values.length == ARRAY_MAX) {
+            long[] bitset = toBitset(values);
+            bitset[low >>> 6] |= 1L << low;
+            containers[index] = bitset;
+            return;
+        }
+        char[] grown = new char[values.length + 1];
+        System.arraycopy(values, 0, grown, 0, position);
+        grown[position] = low;
+        System.arraycopy(values, position, grown, position + 1, values.length - position);
+        containers[index] = grown;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        if (index < 0)
+            return;
+        char low = (char) id;
+        Object container = containers[index];
+        if (container instanceof long[] bitset) {
+            bitset[low >>> 6] &= ~(1L << low);
+            container = compact(bitset);
+        } else {
+            char[] values = (char[]) container;
+            int position = Arrays.binarySearch(values, low);
+            if (position < 0)
+                return;
+            char[] shrunk = new char[values.length - 1];
+            System.arraycopy(values, 0, shrunk, 0, position);
+            System.arraycopy(values, position + 1, shrunk, position, values.length - position - 1);
+            container = shrunk;
+        }
+        if (cardinality(container) == 0)
+            removeChunk(index);
+        else
+            containers[index] = container;
+    }
+
+    boolean contains(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, id >>> 16);
+        if (index < 0)
+            return false;
+        char low = (char) id;
+        if (containers[index] instanceof long[] bitset)
+            return (bitset[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) containers[index], low) >= 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++)
+            cardinality += cardinality(containers[i]);
+        return cardinality;
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object container = and(containers[i], other.containers[j]);
+                if (cardinality(container) > 0)
+                    result.appendChunk(keys[i], container);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendChunk(keys[i], copy(containers[i]));
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendChunk(other.keys[j], copy(other.containers[j]));
+                j++;
+            } else {
+                result.appendChunk(keys[i], or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i])
+                j++;
+            Object container = j < other.size && other.keys[j] == keys[i]
+                    ? andNot(containers[i], other.containers[j])
+                    : copy(containers[i]);
+            if (cardinality(container) > 0)
+                result.appendChunk(keys[i], container);
+        }
+        return result;
+    }
+
+    // up to limit ids above afterId in ascending order, chunks below afterId are skipped
+    List<Long> toList(long afterId, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        int first = afterId < 0 ? 0 : Arrays.binarySearch(keys, 0, size, afterId >>> 16);
+        for (int i = first >= 0 ? first : -first - 1; i < size && ids.size() < limit; i++) {
+            long high = keys[i] << 16;
+            if (containers[i] instanceof long[] bitset) {
+                for (int word = 0; word < BITSET_WORDS && ids.size() < limit; word++) {
+                    long bits = bitset[word];
+                    while (bits != 0 && ids.size() < limit) {
+                        long id = high | ((long) word << 6) | Long.numberOfTrailingZeros(bits);
+                        if (id > afterId)
+                            ids.add(id);
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                for (char low : (char[]) containers[i]) {
+                    if (ids.size() == limit)
+                        break;
+                    long id = high | low;
+                    if (id > afterId)
+                        ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertChunk(int index, long key, Object container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void appendChunk(long key, Object container) {
+        insertChunk(size, key, container);
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private static int cardinality(Object container) {
+        if (container instanceof char[] values)
+            return values.length;
+        int cardinality = 0;
+        for (long word : (long[]) container)
+            cardinality += Long.bitCount(word);
+        return cardinality;
+    }
+
+    private static Object and(Object left, Object right) {
+        if (left instanceof long[] a && right instanceof long[] b) {
+            long[] bitset = new long[BITSET_WORDS];
+            for (int word = 0; word < BITSET_WORDS; word++)
+                bitset[word] = a[word] & b[word];
+            return compact(bitset);
+        }
+        // at least one side is an array, the result can not be larger than it
+        char[] values = left instanceof char[] array ? array : (char[]) right;
+        Object other = values == left ? right : left;
+        char[] result = new char[values.length];
+        int count = 0;
+        for (char value : values)
+            if (containsLow(other, value))
+                result[count++] = value;
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Object or(Object left, Object right) {
+        if (left instanceof char[] a && right instanceof char[] b && a.length + b.length <= ARRAY_MAX) {
+            char[] result = new char[a.length + b.length];
+            int i = 0, j = 0, count = 0;
+            while (i < a.length || j < b.length) {
+                if (j == b.length || (i < a.length && a[i] < b[j]))
+                    result[count++] = a[i++];
+                else if (i == a.length || a[i] > b[j])
+                    result[count++] = b[j++];
+                else {
+                    result[count++] = a[i++];
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+        long[] bitset = left instanceof long[] words ? words.clone() : toBitset((char[]) left);
+        if (right instanceof long[] words) {
+            for (int word = 0; word < BITSET_WORDS; word++)
+                bitset[word] |= words[word];
+        } else {
+            for (char value : (char[]) right)
+                bitset[value >>> 6] |= 1L << value;
+        }
+        // two overlapping arrays can still fit in one
+        return left instanceof char[] && right instanceof char[] ? compact(bitset) : bitset;
+    }
+
+    private static Object andNot(Object left, Object right) {
+        if (left instanceof long[] a) {
+            long[] bitset = a.clone();
+            if (right instanceof long[] b) {
+                for (int word = 0; word < BITSET_WORDS; word++)
+                    bitset[word] &= ~b[word];
+            } else {
+                for (char value : (char[]) right)
+                    bitset[value >>> 6] &= ~(1L << value);
+            }
+            return compact(bitset);
+        }
+        char[] values = (char[]) left;
+        char[] result = new char[values.length];
+        int count = 0;
+        for (char value : values)
+            if (!containsLow(right, value))
+                result[count++] = value;
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean containsLow(Object container, char value) {
+        if (container instanceof long[] bitset)
+            return (bitset[value >>> 6] & (1L << value)) != 0;
+        return Arrays.binarySearch((char[]) container, value) >= 0;
+    }
+
+    private static Object copy(Object container) {
+        return container instanceof long[] bitset ? bitset.clone() : ((char[]) container).clone();
+    }
+
+    private static long[] toBitset(char[] values) {
+        long[] bitset = new long[BITSET_WORDS];
+        for (char value : values)
+            bitset[value >>> 6] |= 1L << value;
+        return bitset;
+    }
+
+    // a bitset that fell to the array limit is turned back into an array
+    private static Object compact(long[] bitset) {
+        int cardinality = cardinality(bitset);
+        if (cardinality > ARRAY_MAX)
+            return bitset;
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (int word = 0; word < BITSET_WORDS; word++) {
+            long bits = bitset[word];
+            while (bits != 0) {
+                values[count++] = (char) ((word << 6) | Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mindhub.todolist.services.implementations;
+
+/**
+ * Lexicographic sort keys read as base-62 fractions: {@code "V"} is 0.5 and {@code "V4"} is a
+ * bit above it. A key can always be generated between two others, so moving a task only
+ * rewrites the moved row. Keys never end in the lowest digit, which keeps room before them.
+ * <p>
+ * Digits are in ASCII order, so the database must compare ranks byte-wise (H2 does by default).
+ */
+public final class FractionalRank {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private FractionalRank() {
+    }
+
+    /**
+     * Returns a key strictly between {@code lower} and {@code upper}. A null {@code lower} means
+     * the start of the list and a null {@code upper} its end.
+     */
+    public static String between(String lower, String upper) {
+        String a = lower != null ? lower : "";
+        if (upper != null && a.compareTo(upper) >= 0)
+            throw new IllegalArgumentException("rank '" + lower + "' is not below '" + upper + "'");
+        return midpoint(a, upper);
+    }
+
+    /**
+     * Returns {@code count} evenly spaced keys of the same length, used to compact a list
+     * whose keys grew long.
+     */
+    static String[] evenlySpaced(int count) {
+        int length = 1;
+        long slots = BASE;
+        while (slots <= count) {
+            length++;
+            slots *= BASE;
+        }
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++)
+            keys[i] = stripTrailingZeros(encode((i + 1) * slots / (count + 1), length));
+        return keys;
+    }
+
+    /**
+     * Returns {@code count} ascending keys above {@code lower} (null for an empty list), each only
+     * a few digits longer than it, used to append many tasks at once.
+     */
+    static String[] after(String lower, int count) {
+        String[] keys = evenlySpaced(count);
+        if (lower != null)
+            for (int i = 0; i < count; i++)
+                keys[i] = lower + keys[i];
+        return keys;
+    }
+
+    // a is "" or a key, b is null or a key above a
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            int common = 0;
+            while (common < b.length() && (common < a.length() ? a.charAt(common) : DIGITS.charAt(0)) == b.charAt(common))
+                common++;
+            if (common > 0)
+                return b.substring(0, common) + midpoint(a.length() > common ? a.substring(common) : "", b.substring(common));
+        }
+
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1)
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        // adjacent digits: the first digit of b alone still sorts above a when b is longer
+        if (b != null && b.length() > 1)
+            return b.substring(0, 1);
+        return DIGITS.charAt(digitA) + midpoint(a.length() > 1 ? a.substring(1) : "", null);
+    }
+
+    private static String encode(long value, int length) {
+        char[] digits = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        return new String(digits);
+    }
+
+    private static String stripTrailingZeros(String key) {
+        int end = key.length();
+        while (end > 1 && key.charAt(end - 1) == DIGITS.charAt(0))
+            end--;
+        return key.substring(0, end);
+    }
+}
@@ -0,0 +1,135 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mindhub.todolist.services.ImportService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an import body one row at a time, so memory does not grow with the size of the upload.
+ * CSV needs a header row; a column named like {@code user.email} becomes a nested property and
+ * empty cells are left out. NDJSON has one JSON object per line.
+ */
+class ImportRowReader {
+
+    record Row(long line, ObjectNode value, String error) {}
+
+    private final BufferedReader reader;
+    private final ImportService.Format format;
+    private final ObjectMapper objectMapper;
+    private String[] header;
+    private long line;
+
+    ImportRowReader(InputStream body, ImportService.Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // null once the body is exhausted
+    Row next() throws IOException {
+        return format == ImportService.Format.CSV ? nextCsvRow() : nextJsonRow();
+    }
+
+    private Row nextJsonRow() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null)
+            return null;
+        try {
+            JsonNode value = objectMapper.readTree(text);
+            return value instanceof ObjectNode object ? new Row(line, object, null) : new Row(line, null, "row must be a JSON object");
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row nextCsvRow() throws IOException {
+        if (header == null) {
+            List<String> columns = readCsvRecord();
+            if (columns == null)
+                return null;
+            // a UTF-8 byte order mark would end up in the first column name
+            columns.set(0, columns.get(0).replace("\uFEFF", ""));
+            header = columns.stream().map(String::trim).toArray(String[]::new);
+        }
+        long start = line + 1;
+        List<String> cells = readCsvRecord();
+        if (cells == null)
+            return null;
+        if (cells.size() != header.length)
+            return new Row(start, null, "expected " + header.length + " columns but found " + cells.size());
+
+        ObjectNode row = objectMapper.createObjectNode();
+        for (int i = 0; i < header.length; i++) {
+            if (cells.get(i).isEmpty())
+                continue;
+            ObjectNode parent = row;
+            String[] path = header[i].split("\\.");
+            for (int depth = 0; depth < path.length - 1; depth++)
+                parent = parent.has(path[depth]) ? (ObjectNode) parent.get(path[depth]) : parent.putObject(path[depth]);
+            parent.put(path[path.length - 1], cells.get(i));
+        }
+        return new Row(start, row, null);
+    }
+
+    // RFC 4180: quoted cells may contain commas, doubled quotes and line breaks, blank lines are skipped
+    private List<String> readCsvRecord() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isEmpty());
+        if (text == null)
+            return null;
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted)
+                    break;
+                // the line break belongs to the quoted cell
+                text = reader.readLine();
+                line++;
+                if (text == null)
+                    break;
+                cell.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"')
+                    cell.append(c);
+                else if (i < text.length() && text.charAt(i) == '"')
+                    cell.append(text.charAt(i++));
+                else
+                    quoted = false;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
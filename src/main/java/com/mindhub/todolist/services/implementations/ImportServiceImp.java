@@ -0,0 +1,234 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.dtos.ImportEventDTO;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.exceptions.BadRequestException;
+import com.mindhub.todolist.journal.MutationJournal;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.repositories.UserRepository;
+import com.mindhub.todolist.services.ImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams rows from the request body, validates them with the constraints of the regular create
+ * endpoints and writes every {@code todolist.import.batch-size} valid rows in one transaction.
+ * Checks that need the database (email uniqueness, task owners) run once per batch, and only
+ * the current batch is held in memory. USERS and TASKS use identity ids, so Hibernate still
+ * sends one INSERT per row to read its id back: a batch saves transactions and lookups, not
+ * round trips.
+ */
+@Service
+public class ImportServiceImp implements ImportService {
+
+    private record Pending<T>(long line, T row) {}
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final TaskChangeRecorder taskChangeRecorder;
+    private final MutationJournal mutationJournal;
+    private final ReadModel readModel;
+    private final ObjectProvider<ShardManager> shardManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int batchSize;
+
+    public ImportServiceImp(UserRepository userRepository, TaskRepository taskRepository, TaskChangeRecorder taskChangeRecorder,
+                            MutationJournal mutationJournal, ReadModel readModel, ObjectProvider<ShardManager> shardManager,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager, ValidatorFactory validatorFactory,
+                            @Value("${todolist.import.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.taskChangeRecorder = taskChangeRecorder;
+        this.mutationJournal = mutationJournal;
+        this.readModel = readModel;
+        this.shardManager = shardManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validatorFactory.getValidator();
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportEventDTO importUsers(InputStream body, Format format, Consumer<ImportEventDTO> events) throws IOException {
+        return importRows(body, format, NewUserRequestDTO.class, this::importBatchOfUsers, events);
+    }
+
+    @Override
+    public ImportEventDTO importTasks(InputStream body, Format format, Consumer<ImportEventDTO> events) throws IOException {
+        return importRows(body, format, NewTaskRequestDTO.class, this::importBatchOfTasks, events);
+    }
+
+    // the batch writer returns the errors of the rows it rejected, keyed by line
+    private <T> ImportEventDTO importRows(InputStream body, Format format, Class<T> type,
+                                          Function<List<Pending<T>>, Map<Long, List<String>>> batchWriter,
+                                          Consumer<ImportEventDTO> events) throws IOException {
+        if (shardManager.getIfAvailable() != null)
+            throw new BadRequestException("bulk import is not available while sharding is enabled");
+
+        ImportRowReader reader = new ImportRowReader(body, format, objectMapper);
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        long rows = 0, imported = 0, failed = 0;
+        ImportRowReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows++;
+            List<String> errors = new ArrayList<>();
+            T value = parse(row, type, errors);
+            if (value != null)
+                validator.validate(value).stream().map(ConstraintViolation::getMessage).sorted().forEach(errors::add);
+            if (!errors.isEmpty()) {
+                failed++;
+                events.accept(ImportEventDTO.error(row.line(), errors));
+            } else {
+                batch.add(new Pending<>(row.line(), value));
+            }
+
+            if (batch.size() == batchSize) {
+                long rejected = writeBatch(batch, batchWriter, events);
+                imported += batch.size() - rejected;
+                failed += rejected;
+                batch.clear();
+                events.accept(ImportEventDTO.progress(rows, imported, failed));
+            }
+        }
+        if (!batch.isEmpty()) {
+            long rejected = writeBatch(batch, batchWriter, events);
+            imported += batch.size() - rejected;
+            failed += rejected;
+        }
+        ImportEventDTO done = ImportEventDTO.done(rows, imported, failed);
+        events.accept(done);
+        return done;
+    }
+
+    private <T> T parse(ImportRowReader.Row row, Class<T> type, List<String> errors) {
+        if (row.error() != null) {
+            errors.add(row.error());
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(row.value(), type);
+        } catch (InvalidFormatException e) {
+            String field = e.getPath().stream().map(JsonMappingException.Reference::getFieldName).collect(Collectors.joining("."));
+            errors.add(e.getTargetType().isEnum()
+                    ? "invalid " + field + ". Accepted values: " + Arrays.toString(e.getTargetType().getEnumConstants())
+                    : "invalid " + field);
+            return null;
+        } catch (JsonProcessingException e) {
+            errors.add("invalid value: " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private <T> long writeBatch(List<Pending<T>> batch, Function<List<Pending<T>>, Map<Long, List<String>>> batchWriter,
+                                Consumer<ImportEventDTO> events) {
+        Map<Long, List<String>> rejected;
+        try {
+            rejected = transactionTemplate.execute(status -> batchWriter.apply(batch));
+        } catch (DataAccessException e) {
+            // e.g. an email taken by a concurrent request after the batch was checked
+            String error = "batch could not be written: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            batch.forEach(pending -> events.accept(ImportEventDTO.error(pending.line(), List.of(error))));
+            return batch.size();
+        }
+        rejected.forEach((line, errors) -> events.accept(ImportEventDTO.error(line, errors)));
+        return rejected.size();
+    }
+
+    private Map<Long, List<String>> importBatchOfUsers(List<Pending<NewUserRequestDTO>> batch) {
+        Set<String> taken = new HashSet<>(userRepository.findExistingNormalizedEmails(
+                batch.stream().map(pending -> UserEntity.normalizeEmail(pending.row().email())).toList()));
+        Map<Long, List<String>> rejected = new HashMap<>();
+        List<UserEntity> users = new ArrayList<>(batch.size());
+        for (Pending<NewUserRequestDTO> pending : batch) {
+            // add() also catches an email repeated within the batch
+            if (!taken.add(UserEntity.normalizeEmail(pending.row().email())))
+                rejected.put(pending.line(), List.of("email '" + pending.row().email() + "' is already taken"));
+            else
+                users.add(new UserEntity(pending.row()));
+        }
+        userRepository.saveAll(users).forEach(user -> {
+            mutationJournal.recordUserAfterCommit(user);
+            readModel.recordUserAfterCommit(user);
+        });
+        return rejected;
+    }
+
+    private Map<Long, List<String>> importBatchOfTasks(List<Pending<NewTaskRequestDTO>> batch) {
+        Map<String, UserEntity> owners = new HashMap<>();
+        userRepository.findAllByNormalizedEmailIn(batch.stream()
+                        .map(pending -> UserEntity.normalizeEmail(pending.row().user().email()))
+                        .distinct()
+                        .toList())
+                .forEach(user -> owners.put(user.getNormalizedEmail(), user));
+        Map<Long, List<String>> rejected = new HashMap<>();
+        Map<Long, List<Task>> tasksByOwner = new LinkedHashMap<>();
+        for (Pending<NewTaskRequestDTO> pending : batch) {
+            NewTaskRequestDTO row = pending.row();
+            UserEntity owner = owners.get(UserEntity.normalizeEmail(row.user().email()));
+            if (owner == null || !owner.getPassword().equals(row.user().password())) {
+                rejected.put(pending.line(), List.of("email or password are incorrect"));
+                continue;
+            }
+            if (isBlank(row.title()) && isBlank(row.description())) {
+                rejected.put(pending.line(), List.of("either title or description must have text"));
+                continue;
+            }
+            Task task = new Task(row.title() != null ? row.title() : "", row.description() != null ? row.description() : "",
+                    row.taskStatus() != null ? row.taskStatus() : TaskStatus.PENDING);
+            task.setDueAt(row.dueAt());
+            task.setTags(row.tags());
+            task.setUser(owner);
+            tasksByOwner.computeIfAbsent(owner.getId(), id -> new ArrayList<>()).add(task);
+        }
+
+        // appended after each owner's last task in file order, without loading the owner's task list
+        List<Task> tasks = new ArrayList<>(batch.size());
+        tasksByOwner.forEach((ownerId, ownerTasks) -> {
+            String[] ranks = FractionalRank.after(taskRepository.findLastRankByUserId(ownerId), ownerTasks.size());
+            for (int i = 0; i < ranks.length; i++)
+                ownerTasks.get(i).setRank(ranks[i]);
+            tasks.addAll(ownerTasks);
+        });
+        taskRepository.saveAll(tasks).forEach(taskChangeRecorder::recordCreatedAfterCommit);
+        return rejected;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
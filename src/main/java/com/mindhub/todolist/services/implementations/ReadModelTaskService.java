@@ -0,0 +1,89 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.task.MoveTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.InvalidTaskException;
+import com.mindhub.todolist.exceptions.TaskNotFoundException;
+import com.mindhub.todolist.exceptions.UnauthorizedException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.services.TaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves the task list and single tasks from the ReadModel, without a transaction or a connection.
+ * Archived tasks, the other reads and every write go to TaskServiceImp.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "todolist.read-model.enabled", havingValue = "true")
+public class ReadModelTaskService implements TaskService {
+
+    @Autowired
+    private TaskServiceImp taskServiceImp;
+    @Autowired
+    private ReadModel readModel;
+
+    @Override
+    public ResponseEntity<List<TaskDTO>> getAllTasksDTO(boolean archived, Set<String> fields) {
+        if (archived || !readModel.isLoaded())
+            return taskServiceImp.getAllTasksDTO(archived, fields);
+        return ResponseEntity.ok(readModel.findAllTasks(FieldSelection.of(fields, TaskDTO.FIELDS)));
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> getTaskDTOById(Long id, boolean archived, Set<String> fields) throws TaskNotFoundException {
+        if (archived || !readModel.isLoaded())
+            return taskServiceImp.getTaskDTOById(id, archived, fields);
+        return ResponseEntity.ok(readModel.findTask(id, FieldSelection.of(fields, TaskDTO.FIELDS)).orElseThrow(TaskNotFoundException::new));
+    }
+
+    @Override
+    public ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksDTOByIds(List<Long> ids, Set<String> fields) {
+        return taskServiceImp.getTasksDTOByIds(ids, fields);
+    }
+
+    @Override
+    public ResponseEntity<List<TaskDTO>> searchTasks(String tags, Long userId, TaskStatus taskStatus, Long afterId, int limit, Set<String> fields) {
+        return taskServiceImp.searchTasks(tags, userId, taskStatus, afterId, limit, fields);
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> createTask(NewTaskRequestDTO newTaskRequestDTO) throws UserNotFoundException, UnauthorizedException, InvalidTaskException {
+        return taskServiceImp.createTask(newTaskRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<?> deleteTask(Long id, UserTaskRequestDTO userTaskRequestDTO) throws UnauthorizedException {
+        return taskServiceImp.deleteTask(id, userTaskRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        return taskServiceImp.updatePutTask(id, putTaskRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> moveTask(Long id, MoveTaskRequestDTO moveTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        return taskServiceImp.moveTask(id, moveTaskRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> updatePatchTask(Long id, PatchTaskRequestDTO patchTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        return taskServiceImp.updatePatchTask(id, patchTaskRequestDTO);
+    }
+}
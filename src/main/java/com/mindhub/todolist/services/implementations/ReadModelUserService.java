@@ -0,0 +1,100 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.exceptions.EmailAlreadyExistsException;
+import com.mindhub.todolist.exceptions.InvalidUserException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves single users, with or without their tasks, from the ReadModel. Every other call goes to UserServiceImp.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "todolist.read-model.enabled", havingValue = "true")
+public class ReadModelUserService implements UserService {
+
+    @Autowired
+    private UserServiceImp userServiceImp;
+    @Autowired
+    private ReadModel readModel;
+
+    @Override
+    public ResponseEntity<List<UserDTO>> getAllUsersDTO(Set<String> fields) {
+        return userServiceImp.getAllUsersDTO(fields);
+    }
+
+    @Override
+    public List<UserEntity> getAllUsers() {
+        return userServiceImp.getAllUsers();
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> getUserDTOById(Long id, Set<String> fields) throws UserNotFoundException {
+        if (!readModel.isLoaded())
+            return userServiceImp.getUserDTOById(id, fields);
+        return ResponseEntity.ok(readModel.findUser(id, FieldSelection.of(fields, UserDTO.FIELDS))
+                .orElseThrow(() -> new UserNotFoundException("user was not found")));
+    }
+
+    @Override
+    public ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersDTOByIds(List<Long> ids, Set<String> fields) {
+        return userServiceImp.getUsersDTOByIds(ids, fields);
+    }
+
+    @Override
+    public UserEntity getUserById(Long id) throws UserNotFoundException {
+        return userServiceImp.getUserById(id);
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO) throws EmailAlreadyExistsException {
+        return userServiceImp.createUser(newUserRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<?> deleteUser(Long id, boolean soft) throws UserNotFoundException {
+        return userServiceImp.deleteUser(id, soft);
+    }
+
+    @Override
+    public int purgeSoftDeletedUsers() {
+        return userServiceImp.purgeSoftDeletedUsers();
+    }
+
+    @Override
+    public int backfillNormalizedEmails() {
+        return userServiceImp.backfillNormalizedEmails();
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO) throws UserNotFoundException, EmailAlreadyExistsException {
+        return userServiceImp.updatePutUser(id, putUserRequestDTO);
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> updatePatchUser(Long id, PatchUserRequestDTO patchUserRequestDTO) throws UserNotFoundException, InvalidUserException {
+        return userServiceImp.updatePatchUser(id, patchUserRequestDTO);
+    }
+
+    @Override
+    public Optional<UserEntity> findUserByEmail(String email) {
+        return userServiceImp.findUserByEmail(email);
+    }
+}
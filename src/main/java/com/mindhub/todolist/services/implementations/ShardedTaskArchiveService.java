@@ -0,0 +1,62 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardContext;
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.models.ArchivedTask;
+import com.mindhub.todolist.services.TaskArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Primary
+@ConditionalOnProperty(name = "todolist.sharding.enabled", havingValue = "true")
+public class ShardedTaskArchiveService implements TaskArchiveService {
+
+    @Autowired
+    private TaskArchiveServiceImp taskArchiveServiceImp;
+    @Autowired
+    private ShardManager shardManager;
+
+    @Override
+    public int archiveCompletedTasks() {
+        return shardManager.fanOut(shard -> taskArchiveServiceImp.archiveCompletedTasks())
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    // always called from inside the owner's shard scope by TaskServiceImp
+    @Override
+    public boolean restoreTask(Long id, Long userId) {
+        return taskArchiveServiceImp.restoreTask(id, userId);
+    }
+
+    // inside a shard scope (e.g. a fan-out from ShardedTaskService) only the current shard is read
+    @Override
+    public List<ArchivedTask> getAllArchivedTasks() {
+        if (ShardContext.current() != null)
+            return taskArchiveServiceImp.getAllArchivedTasks();
+        return shardManager.fanOut(shard -> taskArchiveServiceImp.getAllArchivedTasks())
+                .stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(ArchivedTask::getId))
+                .toList();
+    }
+
+    @Override
+    public Optional<ArchivedTask> findArchivedTaskById(Long id) {
+        if (ShardContext.current() != null)
+            return taskArchiveServiceImp.findArchivedTaskById(id);
+        return shardManager.fanOut(shard -> taskArchiveServiceImp.findArchivedTaskById(id))
+                .stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+}
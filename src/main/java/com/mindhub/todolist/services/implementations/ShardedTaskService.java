@@ -0,0 +1,139 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.task.MoveTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.InvalidTaskException;
+import com.mindhub.todolist.exceptions.TaskNotFoundException;
+import com.mindhub.todolist.exceptions.UnauthorizedException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Routes every TaskServiceImp call to the shard of the task owner. Task lists are read from
+ * all shards in parallel and merged by id.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "todolist.sharding.enabled", havingValue = "true")
+public class ShardedTaskService implements TaskService {
+
+    @Autowired
+    private TaskServiceImp taskServiceImp;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ShardManager shardManager;
+
+    @Override
+    public ResponseEntity<List<TaskDTO>> getAllTasksDTO(boolean archived, Set<String> fields) {
+        return ResponseEntity.ok(shardManager.fanOut(shard -> taskServiceImp.getAllTasksDTO(archived, fields).getBody())
+                .stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(TaskDTO::getId))
+                .toList());
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> getTaskDTOById(Long id, boolean archived, Set<String> fields) throws TaskNotFoundException {
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return taskServiceImp.getTaskDTOById(id, archived, fields);
+        } catch (TaskNotFoundException e) {
+            // a task keeps its id when its owner is moved by a rebalance, so it may live elsewhere
+            return shardManager.fanOut(shard -> findTaskDTO(id, archived, fields))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .map(ResponseEntity::ok)
+                    .orElseThrow(TaskNotFoundException::new);
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksDTOByIds(List<Long> ids, Set<String> fields) {
+        // every shard is asked for every id, a rebalance may have moved a task off its id's shard
+        return ResponseEntity.ok(BatchItemDTO.mergeShards(
+                shardManager.fanOut(shard -> taskServiceImp.getTasksDTOByIds(ids, fields).getBody())));
+    }
+
+    @Override
+    public ResponseEntity<List<TaskDTO>> searchTasks(String tags, Long userId, TaskStatus taskStatus, Long afterId, int limit, Set<String> fields) {
+        // the tag index covers every shard, each shard returns the rows of the page it holds
+        return ResponseEntity.ok(shardManager.fanOut(shard -> taskServiceImp.searchTasks(tags, userId, taskStatus, afterId, limit, fields).getBody())
+                .stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(TaskDTO::getId))
+                .toList());
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> createTask(NewTaskRequestDTO newTaskRequestDTO) throws UserNotFoundException, UnauthorizedException, InvalidTaskException {
+        UserEntity owner = userService.findUserByEmail(newTaskRequestDTO.user().email())
+                .orElseThrow(() -> new UserNotFoundException("email or password are incorrect"));
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(owner.getId()))) {
+            return taskServiceImp.createTask(newTaskRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteTask(Long id, UserTaskRequestDTO userTaskRequestDTO) throws UnauthorizedException {
+        try (ShardManager.Scope ignored = shardManager.enter(ownerShard(userTaskRequestDTO))) {
+            return taskServiceImp.deleteTask(id, userTaskRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        try (ShardManager.Scope ignored = shardManager.enter(ownerShard(putTaskRequestDTO.user()))) {
+            return taskServiceImp.updatePutTask(id, putTaskRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> moveTask(Long id, MoveTaskRequestDTO moveTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        try (ShardManager.Scope ignored = shardManager.enter(ownerShard(moveTaskRequestDTO.user()))) {
+            return taskServiceImp.moveTask(id, moveTaskRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<TaskDTO> updatePatchTask(Long id, PatchTaskRequestDTO patchTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        try (ShardManager.Scope ignored = shardManager.enter(ownerShard(patchTaskRequestDTO.user()))) {
+            return taskServiceImp.updatePatchTask(id, patchTaskRequestDTO);
+        }
+    }
+
+    private int ownerShard(UserTaskRequestDTO userTaskRequestDTO) throws UnauthorizedException {
+        return userService.findUserByEmail(userTaskRequestDTO.email())
+                .map(user -> shardManager.shardOf(user.getId()))
+                .orElseThrow(() -> new UnauthorizedException("email or password are incorrect"));
+    }
+
+    private TaskDTO findTaskDTO(Long id, boolean archived, Set<String> fields) {
+        try {
+            return taskServiceImp.getTaskDTOById(id, archived, fields).getBody();
+        } catch (TaskNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardContext;
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.exceptions.EmailAlreadyExistsException;
+import com.mindhub.todolist.exceptions.InvalidUserException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.services.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Routes every UserServiceImp call to the shard that owns the user, or fans it out to all
+ * shards when the user is only known by email.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "todolist.sharding.enabled", havingValue = "true")
+public class ShardedUserService implements UserService {
+
+    @Autowired
+    private UserServiceImp userServiceImp;
+    @Autowired
+    private ShardManager shardManager;
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Override
+    public ResponseEntity<List<UserDTO>> getAllUsersDTO(Set<String> fields) {
+        return ResponseEntity.ok(shardManager.fanOut(shard -> userServiceImp.getAllUsersDTO(fields).getBody())
+                .stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(UserDTO::getId))
+                .toList());
+    }
+
+    @Override
+    public List<UserEntity> getAllUsers() {
+        return shardManager.fanOut(shard -> userServiceImp.getAllUsers())
+                .stream()
+                .flatMap(Collection::stream)
+                .sorted(Comparator.comparing(UserEntity::getId))
+                .toList();
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> getUserDTOById(Long id, Set<String> fields) throws UserNotFoundException {
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return userServiceImp.getUserDTOById(id, fields);
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersDTOByIds(List<Long> ids, Set<String> fields) {
+        return ResponseEntity.ok(BatchItemDTO.mergeShards(
+                shardManager.fanOut(shard -> userServiceImp.getUsersDTOByIds(ids, fields).getBody())));
+    }
+
+    @Override
+    public UserEntity getUserById(Long id) throws UserNotFoundException {
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return userServiceImp.getUserById(id);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO) throws EmailAlreadyExistsException {
+        // the unique email constraint only covers the users of one shard
+        if (findUserByEmail(newUserRequestDTO.email()).isPresent())
+            throw new EmailAlreadyExistsException("email '" + newUserRequestDTO.email() + "' is already taken");
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.nextShardForNewUser())) {
+            return userServiceImp.createUser(newUserRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteUser(Long id, boolean soft) throws UserNotFoundException {
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return userServiceImp.deleteUser(id, soft);
+        }
+    }
+
+    @Override
+    public int purgeSoftDeletedUsers() {
+        return shardManager.fanOut(shard -> userServiceImp.purgeSoftDeletedUsers())
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public int backfillNormalizedEmails() {
+        return shardManager.fanOut(shard -> userServiceImp.backfillNormalizedEmails())
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO) throws UserNotFoundException, EmailAlreadyExistsException {
+        if (isTakenByAnotherUser(putUserRequestDTO.email(), id))
+            throw new EmailAlreadyExistsException("email '" + putUserRequestDTO.email() + "' is already taken");
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return userServiceImp.updatePutUser(id, putUserRequestDTO);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> updatePatchUser(Long id, PatchUserRequestDTO patchUserRequestDTO) throws UserNotFoundException, InvalidUserException {
+        if (isTakenByAnotherUser(patchUserRequestDTO.email(), id))
+            throw new InvalidUserException("email '" + patchUserRequestDTO.email() + "' is already taken");
+        try (ShardManager.Scope ignored = shardManager.enter(shardManager.shardOf(id))) {
+            return userServiceImp.updatePatchUser(id, patchUserRequestDTO);
+        }
+    }
+
+    // inside a shard scope the lookup stays on that shard, so callers get a managed entity
+    @Override
+    public Optional<UserEntity> findUserByEmail(String email) {
+        if (ShardContext.current() != null)
+            return userServiceImp.findUserByEmail(email);
+        return singleFlight.execute("users-by-email", UserEntity.normalizeEmail(email), () -> shardManager.fanOut(shard -> userServiceImp.findLocalUserByEmail(email))
+                .stream()
+                .flatMap(Optional::stream)
+                .findFirst());
+    }
+
+    private boolean isTakenByAnotherUser(String email, Long id) {
+        return email != null && findUserByEmail(email)
+                .map(user -> !Objects.equals(user.getId(), id))
+                .orElse(false);
+    }
+}
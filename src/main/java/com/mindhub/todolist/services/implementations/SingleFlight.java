@@ -0,0 +1,135 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ReadWriteRoutingDataSource;
+import com.mindhub.todolist.datasources.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent identical reads share one load: the first caller of a key runs it, and every
+ * caller of the same key that arrives while it runs gets its result, or its exception.
+ * <p>
+ * A flight is only joined if no write transaction committed since it started, and keys include
+ * the shard and the read-your-writes version of the request, so a caller never gets data older
+ * than what its own load would have read. Each flight has its own deadline: waiters give up on
+ * it after {@code timeout}, detach it and start (or join) a new one.
+ */
+@Component
+public class SingleFlight implements TransactionExecutionListener {
+
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
+    }
+
+    private record Key(String group, Integer shard, long writeVersion, Object key) {}
+
+    private record Flight(CompletableFuture<Object> result, long generation, long deadline) {}
+
+    private record Counters(Counter loads, Counter shared, Counter timeouts) {}
+
+    private final boolean enabled;
+    private final long timeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    // bumped by every committed write transaction
+    private final AtomicLong generation = new AtomicLong();
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${todolist.single-flight.enabled:true}") boolean enabled,
+                        @Value("${todolist.single-flight.timeout:PT2S}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public <T, E extends Exception> T execute(String group, Object key, Loader<T, E> loader) throws E {
+        if (!enabled)
+            return loader.load();
+        Key flightKey = new Key(group, ShardContext.current(), ReadWriteRoutingDataSource.requiredVersion(), key);
+        long arrivedAt = generation.get();
+        Counters groupCounters = counters(group);
+        while (true) {
+            Flight flight = new Flight(new CompletableFuture<>(), arrivedAt, System.nanoTime() + timeoutNanos);
+            Flight running = flights.putIfAbsent(flightKey, flight);
+            if (running == null)
+                return lead(flightKey, flight, loader, groupCounters);
+            // started before a write this caller may have seen committed
+            if (running.generation() < arrivedAt) {
+                if (flights.replace(flightKey, running, flight))
+                    return lead(flightKey, flight, loader, groupCounters);
+                continue;
+            }
+            try {
+                T value = await(running);
+                groupCounters.shared().increment();
+                return value;
+            } catch (TimeoutException e) {
+                groupCounters.timeouts().increment();
+                flights.remove(flightKey, running);
+            }
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly())
+            generation.incrementAndGet();
+    }
+
+    private <T, E extends Exception> T lead(Key key, Flight flight, Loader<T, E> loader, Counters groupCounters) throws E {
+        groupCounters.loads().increment();
+        try {
+            T value = loader.load();
+            flight.result().complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    // rethrows the exception of the load as is, it is either unchecked or the loader's E
+    @SuppressWarnings("unchecked")
+    private static <T, E extends Exception> T await(Flight flight) throws E, TimeoutException {
+        try {
+            return (T) flight.result().get(flight.deadline() - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw (E) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a shared load", e);
+        }
+    }
+
+    private Counters counters(String group) {
+        return counters.computeIfAbsent(group, name -> new Counters(
+                counter(name, "load"), counter(name, "shared"), counter(name, "timeout")));
+    }
+
+    private Counter counter(String group, String outcome) {
+        return Counter.builder("todolist.single-flight.calls")
+                .description("coalesced reads by whether they ran the load, shared another caller's or gave up waiting")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,164 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.exceptions.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Boolean expression over tags, e.g. {@code urgent AND backend AND NOT blocked}. {@code NOT}
+ * binds tighter than {@code AND}, which binds tighter than {@code OR}; parentheses group and
+ * keywords are case-insensitive.
+ * <p>
+ * Evaluation works inside a scope bitmap (owner and status already applied): a tag is its
+ * bitmap intersected with the scope, {@code AND} narrows the scope for the next operand and
+ * {@code NOT x} is the scope minus {@code x}, so no complement of the whole id space is built.
+ */
+abstract class TagQuery {
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*(\\(|\\)|[A-Za-z0-9_-]+)");
+    private static final int MAX_TOKENS = 200;
+
+    abstract CompressedBitmap evaluate(CompressedBitmap scope, Function<String, CompressedBitmap> tags);
+
+    static TagQuery parse(String query) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(query);
+        int position = 0;
+        while (position < query.length() && !query.substring(position).isBlank()) {
+            if (!matcher.find(position) || matcher.start() != position)
+                throw new BadRequestException("invalid tag query at position " + position + ": '" + query + "'");
+            tokens.add(matcher.group(1));
+            position = matcher.end();
+        }
+        if (tokens.isEmpty())
+            throw new BadRequestException("tag query must not be empty");
+        if (tokens.size() > MAX_TOKENS)
+            throw new BadRequestException("tag query can have at most " + MAX_TOKENS + " terms");
+
+        Parser parser = new Parser(tokens);
+        TagQuery parsed = parser.or();
+        if (parser.position != tokens.size())
+            throw new BadRequestException("unexpected '" + tokens.get(parser.position) + "' in tag query");
+        return parsed;
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        TagQuery or() {
+            List<TagQuery> operands = new ArrayList<>(List.of(and()));
+            while (accept("OR"))
+                operands.add(and());
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        TagQuery and() {
+            List<TagQuery> operands = new ArrayList<>(List.of(not()));
+            while (accept("AND"))
+                operands.add(not());
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        TagQuery not() {
+            if (accept("NOT"))
+                return new Not(not());
+            if (accept("(")) {
+                TagQuery inner = or();
+                if (!accept(")"))
+                    throw new BadRequestException("missing ')' in tag query");
+                return inner;
+            }
+            if (position == tokens.size())
+                throw new BadRequestException("tag query ends where a tag was expected");
+            String token = tokens.get(position);
+            if (token.equals(")") || isKeyword(token))
+                throw new BadRequestException("expected a tag but found '" + token + "'");
+            position++;
+            return new Tag(token.toLowerCase(Locale.ROOT));
+        }
+
+        private boolean accept(String expected) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(expected)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isKeyword(String token) {
+            return token.equalsIgnoreCase("AND") || token.equalsIgnoreCase("OR") || token.equalsIgnoreCase("NOT");
+        }
+    }
+
+    private static final class Tag extends TagQuery {
+        private final String name;
+
+        Tag(String name) {
+            this.name = name;
+        }
+
+        @Override
+        CompressedBitmap evaluate(CompressedBitmap scope, Function<String, CompressedBitmap> tags) {
+            return scope.and(tags.apply(name));
+        }
+    }
+
+    private static final class Not extends TagQuery {
+        private final TagQuery operand;
+
+        Not(TagQuery operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        CompressedBitmap evaluate(CompressedBitmap scope, Function<String, CompressedBitmap> tags) {
+            return scope.andNot(operand.evaluate(scope, tags));
+        }
+    }
+
+    private static final class And extends TagQuery {
+        private final List<TagQuery> operands;
+
+        And(List<TagQuery> operands) {
+            // plain tags first, they are the cheapest way to shrink the scope for the rest
+            this.operands = operands.stream().sorted((a, b) -> Boolean.compare(!(a instanceof Tag), !(b instanceof Tag))).toList();
+        }
+
+        @Override
+        CompressedBitmap evaluate(CompressedBitmap scope, Function<String, CompressedBitmap> tags) {
+            CompressedBitmap result = scope;
+            for (TagQuery operand : operands) {
+                if (result.isEmpty())
+                    break;
+                result = operand.evaluate(result, tags);
+            }
+            return result;
+        }
+    }
+
+    private static final class Or extends TagQuery {
+        private final List<TagQuery> operands;
+
+        Or(List<TagQuery> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        CompressedBitmap evaluate(CompressedBitmap scope, Function<String, CompressedBitmap> tags) {
+            CompressedBitmap result = new CompressedBitmap();
+            for (TagQuery operand : operands)
+                result = result.or(operand.evaluate(scope, tags));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.models.ArchivedTask;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.repositories.ArchivedTaskRepository;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.repositories.TaskRepository.TaskVersion;
+import com.mindhub.todolist.services.TaskArchiveService;
+import com.mindhub.todolist.services.TaskTagService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+public class TaskArchiveServiceImp implements TaskArchiveService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+    @Autowired
+    private TaskTagService taskTagService;
+    @Autowired
+    private ReadModel readModel;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${todolist.task-archive.completed-for:P30D}")
+    private Duration completedFor;
+    @Value("${todolist.task-archive.batch-size:500}")
+    private int batchSize;
+    @Value("${todolist.task-archive.max-batches:20}")
+    private int maxBatches;
+
+    @Override
+    public int archiveCompletedTasks() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Instant completedBefore = Instant.now().minus(completedFor);
+        int archived = 0;
+        // each batch is selected, copied and deleted in its own transaction to keep locks on TASKS short
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> archivedIds = transaction.execute(status -> {
+                // locked, so none of them can be reopened between the copy and the delete
+                List<TaskVersion> tasks = taskRepository.lockByTaskStatusAndCompletedAtBefore(
+                        TaskStatus.COMPLETED, completedBefore, Limit.of(batchSize));
+                List<Long> ids = tasks.stream().map(TaskVersion::getId).toList();
+                if (ids.isEmpty())
+                    return ids;
+                archivedTaskRepository.copyFromTasks(ids, Instant.now());
+                taskTagService.removeAfterCommit(ids);
+                readModel.recordTasksRemovedAfterCommit(tasks.stream()
+                        .collect(Collectors.toMap(TaskVersion::getId, TaskVersion::getVersion)));
+                taskRepository.deleteAllByIdIn(ids);
+                return ids;
+            });
+            archived += archivedIds.size();
+            if (archivedIds.size() < batchSize)
+                break;
+        }
+        return archived;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean restoreTask(Long id, Long userId) {
+        if (archivedTaskRepository.findByIdAndUserId(id, userId).isEmpty())
+            return false;
+        archivedTaskRepository.copyToTasks(id);
+        archivedTaskRepository.deleteArchivedById(id);
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ArchivedTask> getAllArchivedTasks() {
+        return archivedTaskRepository.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ArchivedTask> findArchivedTaskById(Long id) {
+        return archivedTaskRepository.findById(id);
+    }
+}
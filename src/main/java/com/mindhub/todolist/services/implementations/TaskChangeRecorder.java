@@ -0,0 +1,67 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.journal.MutationJournal;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.services.TaskDueDateService;
+import com.mindhub.todolist.services.TaskStatsService;
+import com.mindhub.todolist.services.TaskTagService;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything kept next to TASKS that has to follow a task write once it committed: the due date
+ * wheel, the tag index, the stats counters, the mutation journal and the read model. A new
+ * consumer is added here instead of on every write path.
+ */
+@Component
+public class TaskChangeRecorder {
+
+    private final TaskDueDateService taskDueDateService;
+    private final TaskTagService taskTagService;
+    private final TaskStatsService taskStatsService;
+    private final MutationJournal mutationJournal;
+    private final ReadModel readModel;
+
+    public TaskChangeRecorder(TaskDueDateService taskDueDateService, TaskTagService taskTagService,
+                              TaskStatsService taskStatsService, MutationJournal mutationJournal, ReadModel readModel) {
+        this.taskDueDateService = taskDueDateService;
+        this.taskTagService = taskTagService;
+        this.taskStatsService = taskStatsService;
+        this.mutationJournal = mutationJournal;
+        this.readModel = readModel;
+    }
+
+    public void recordCreatedAfterCommit(Task task) {
+        taskDueDateService.scheduleAfterCommit(task);
+        taskTagService.indexAfterCommit(task);
+        taskStatsService.recordCreatedAfterCommit(task);
+        mutationJournal.recordTaskAfterCommit(task);
+        readModel.recordTaskAfterCommit(task);
+    }
+
+    public void recordUpdatedAfterCommit(Task task, TaskStatus previousStatus, Instant previousStatusChangedAt) {
+        taskDueDateService.scheduleAfterCommit(task);
+        taskTagService.indexAfterCommit(task);
+        taskStatsService.recordStatusChangeAfterCommit(task, previousStatus, previousStatusChangedAt);
+        mutationJournal.recordTaskAfterCommit(task);
+        readModel.recordTaskAfterCommit(task);
+    }
+
+    // only the rank changed, which neither the due dates, the tags nor the stats look at
+    public void recordMovedAfterCommit(Task task) {
+        mutationJournal.recordTaskAfterCommit(task);
+        readModel.recordTaskAfterCommit(task);
+    }
+
+    public void recordDeletedAfterCommit(Task task) {
+        taskDueDateService.cancelAfterCommit(task.getId());
+        taskTagService.removeAfterCommit(List.of(task.getId()));
+        mutationJournal.recordTaskDeletedAfterCommit(task.getId());
+        readModel.recordTasksRemovedAfterCommit(Map.of(task.getId(), task.getVersion()));
+    }
+}
@@ -0,0 +1,176 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.datasources.TransactionCallbacks;
+import com.mindhub.todolist.events.TaskOverdueEvent;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskDueDateService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps every pending due date in a {@link TimingWheel} instead of scanning TASKS. The wheel is
+ * filled from the database at startup and kept in sync by the task write paths; firing
+ * re-checks each task against the database, so a reminder left behind by a rolled back or
+ * bulk change is simply dropped.
+ */
+@Service
+public class TaskDueDateServiceImp implements TaskDueDateService {
+
+    private static final int WHEEL_BITS = 6, WHEEL_LEVELS = 6;
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ShardManager> shardManager;
+    private final TimingWheel wheel;
+    private final int batchSize;
+    private final Timer fireLag;
+    private final Counter overdue;
+
+    public TaskDueDateServiceImp(TaskRepository taskRepository, PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher, ObjectProvider<ShardManager> shardManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${todolist.due-dates.tick:PT1S}") Duration tick,
+                                 @Value("${todolist.due-dates.batch-size:500}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.shardManager = shardManager;
+        this.wheel = new TimingWheel(tick.toMillis(), WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis());
+        this.batchSize = batchSize;
+
+        this.fireLag = Timer.builder("todolist.due-dates.fire-lag")
+                .description("time between a due date and the moment it was fired").register(meterRegistry);
+        this.overdue = Counter.builder("todolist.due-dates.overdue").register(meterRegistry);
+        Gauge.builder("todolist.due-dates.pending", this, service -> service.pending())
+                .register(meterRegistry);
+        Gauge.builder("todolist.due-dates.wheel-lag", this, service -> service.wheelLagMillis())
+                .baseUnit("milliseconds").description("how far the wheel is behind the clock").register(meterRegistry);
+    }
+
+    @Override
+    public void scheduleAfterCommit(Task task) {
+        Long id = task.getId();
+        Instant dueAt = task.getDueAt();
+        boolean pending = dueAt != null && !task.isOverdue() && task.getTaskStatus() != TaskStatus.COMPLETED;
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                if (pending)
+                    wheel.schedule(id, dueAt.toEpochMilli());
+                else
+                    wheel.cancel(id);
+            }
+        });
+    }
+
+    @Override
+    public void cancelAfterCommit(Long taskId) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                wheel.cancel(taskId);
+            }
+        });
+    }
+
+    @Override
+    public int fireDueTasks() {
+        long now = System.currentTimeMillis();
+        List<TimingWheel.Timeout> expired;
+        synchronized (this) {
+            expired = wheel.advance(now);
+        }
+        if (expired.isEmpty())
+            return 0;
+
+        Map<Long, Instant> dueDates = new HashMap<>();
+        for (TimingWheel.Timeout timeout : expired) {
+            fireLag.record(Math.max(0, now - timeout.deadlineMillis()), TimeUnit.MILLISECONDS);
+            dueDates.put(timeout.id(), Instant.ofEpochMilli(timeout.deadlineMillis()));
+        }
+        List<Long> ids = new ArrayList<>(dueDates.keySet());
+
+        Instant firedAt = Instant.ofEpochMilli(now);
+        int fired = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            for (Long id : onEveryShard(() -> markOverdue(chunk, firedAt))) {
+                eventPublisher.publishEvent(new TaskOverdueEvent(id, dueDates.get(id), firedAt));
+                fired++;
+            }
+        }
+        overdue.increment(fired);
+        return fired;
+    }
+
+    @Override
+    public int loadPendingDueDates() {
+        return onEveryShard(() -> {
+            List<Long> loaded = new ArrayList<>();
+            long afterId = 0;
+            List<TaskRepository.PendingDueDate> page;
+            do {
+                page = taskRepository.findPendingDueDates(afterId, TaskStatus.COMPLETED, Limit.of(batchSize));
+                synchronized (this) {
+                    // a task written since startup was scheduled by its write path with a newer due date
+                    for (TaskRepository.PendingDueDate dueDate : page)
+                        if (!wheel.contains(dueDate.getId())) {
+                            wheel.schedule(dueDate.getId(), dueDate.getDueAt().toEpochMilli());
+                            loaded.add(dueDate.getId());
+                        }
+                }
+                if (!page.isEmpty())
+                    afterId = page.get(page.size() - 1).getId();
+            } while (page.size() == batchSize);
+            return loaded;
+        }).size();
+    }
+
+    // the selected rows stay locked until the commit, so the update changes exactly those and only
+    // they get an event; the update repeats the predicate so it is safe on its own too
+    private List<Long> markOverdue(Collection<Long> ids, Instant now) {
+        return transactionTemplate.execute(status -> {
+            List<Long> becomingOverdue = taskRepository.lockIdsBecomingOverdue(ids, now, TaskStatus.COMPLETED);
+            if (!becomingOverdue.isEmpty())
+                taskRepository.markOverdue(becomingOverdue, now, TaskStatus.COMPLETED);
+            return becomingOverdue;
+        });
+    }
+
+    // with sharding a task may live on any shard after a rebalance, so every shard is asked
+    private List<Long> onEveryShard(Supplier<List<Long>> operation) {
+        ShardManager shards = shardManager.getIfAvailable();
+        if (shards == null)
+            return operation.get();
+        return shards.fanOut(shard -> operation.get()).stream().flatMap(List::stream).toList();
+    }
+
+    private synchronized int pending() {
+        return wheel.size();
+    }
+
+    private synchronized long wheelLagMillis() {
+        return Math.max(0, System.currentTimeMillis() - wheel.currentMillis());
+    }
+}
@@ -0,0 +1,61 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskRankService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class TaskRankServiceImp implements TaskRankService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectProvider<ShardManager> shardManager;
+    @Autowired
+    private ReadModel readModel;
+
+    @Value("${todolist.task-rank.max-length:12}")
+    private int maxRankLength;
+    @Value("${todolist.task-rank.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Rewrites the ranks of users whose keys grew past {@code maxRankLength}, collided or were
+     * never set, one user per transaction. Concurrent moves of the same user fail on the
+     * version check instead of being overwritten.
+     */
+    @Override
+    public int compactRanks() {
+        ShardManager shards = shardManager.getIfAvailable();
+        if (shards == null)
+            return compactLocalRanks();
+        return shards.fanOut(shard -> compactLocalRanks()).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int compactLocalRanks() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> userIds = taskRepository.findUserIdsNeedingRankCompaction(maxRankLength, batchSize);
+        for (Long userId : userIds)
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Task> tasks = taskRepository.findAllByUserIdOrderByRank(userId);
+                String[] ranks = FractionalRank.evenlySpaced(tasks.size());
+                for (int i = 0; i < tasks.size(); i++) {
+                    tasks.get(i).setRank(ranks[i]);
+                    readModel.recordTaskAfterCommit(tasks.get(i));
+                }
+            });
+        return userIds.size();
+    }
+}
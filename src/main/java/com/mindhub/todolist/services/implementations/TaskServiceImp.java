@@ -1,26 +1,43 @@
 package com.mindhub.todolist.services.implementations;
 
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.FieldSelection;
+import com.mindhub.todolist.dtos.task.MoveTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.PutTaskRequestDTO;
 import com.mindhub.todolist.dtos.task.TaskDTO;
 import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.BadRequestException;
 import com.mindhub.todolist.exceptions.InvalidTaskException;
 import com.mindhub.todolist.exceptions.TaskNotFoundException;
 import com.mindhub.todolist.exceptions.UnauthorizedException;
 import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.filters.AdaptiveConcurrencyLimiter;
+import com.mindhub.todolist.flightrecorder.ServiceOperation;
+import com.mindhub.todolist.flightrecorder.ServiceOperation.Phase;
 import com.mindhub.todolist.models.Task;
 import com.mindhub.todolist.models.TaskStatus;
 import com.mindhub.todolist.models.UserEntity;
 import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskArchiveService;
 import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.TaskTagService;
 import com.mindhub.todolist.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class TaskServiceImp implements TaskService {
@@ -29,75 +46,215 @@ public class TaskServiceImp implements TaskService {
     private TaskRepository taskRepository;
     @Autowired
     private UserService userService;
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+    @Autowired
+    private BatchLookup batchLookup;
+    @Autowired
+    private TaskTagService taskTagService;
+    @Autowired
+    private TaskChangeRecorder taskChangeRecorder;
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${todolist.task-tags.max-results:1000}")
+    private int maxSearchResults;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<TaskDTO>> getAllTasksDTO(boolean archived, Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        if (archived)
+            return ResponseEntity.ok(taskArchiveService.getAllArchivedTasks().stream()
+                    .map(archivedTask -> new TaskDTO(archivedTask, fieldSelection))
+                    .toList());
+        List<Task> tasks = fieldSelection.includes("user") ? taskRepository.findAllWithUser() : taskRepository.findAll();
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(tasks.stream().map(task -> new TaskDTO(task, fieldSelection)).toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<TaskDTO> getTaskDTOById(Long id, boolean archived, Set<String> fields) throws TaskNotFoundException {
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        if (archived)
+            return ResponseEntity.ok(
+                    new TaskDTO(taskArchiveService
+                            .findArchivedTaskById(id)
+                            .orElseThrow(TaskNotFoundException::new), fieldSelection)
+            );
+        Task task = (fieldSelection.includes("user") ? taskRepository.findByIdWithUser(id) : taskRepository.findById(id))
+                .orElseThrow(TaskNotFoundException::new);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new TaskDTO(task, fieldSelection));
+    }
 
     @Override
-    public ResponseEntity<List<TaskDTO>> getAllTasksDTO() {
-        return ResponseEntity.ok(taskRepository.findAll().stream().map(TaskDTO::new).toList());
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<BatchItemDTO<TaskDTO>>> getTasksDTOByIds(List<Long> ids, Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        Map<Long, Task> tasks = batchLookup.findAll(ids,
+                chunk -> fieldSelection.includes("user") ? taskRepository.findAllWithUserByIdIn(chunk) : taskRepository.findAllById(chunk),
+                Task::getId);
+        ServiceOperation.phase(Phase.MAPPING);
+        Map<Long, TaskDTO> taskDTOs = new HashMap<>();
+        tasks.forEach((id, task) -> taskDTOs.put(id, new TaskDTO(task, fieldSelection)));
+        return ResponseEntity.ok(BatchItemDTO.inRequestOrder(ids, taskDTOs, "task was not found"));
     }
 
     @Override
-    public ResponseEntity<TaskDTO> getTaskDTOById(Long id) throws TaskNotFoundException {
-        return ResponseEntity.ok(
-                new TaskDTO(taskRepository
-                        .findById(id)
-                        .orElseThrow(TaskNotFoundException::new))
-        );
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<TaskDTO>> searchTasks(String tags, Long userId, TaskStatus taskStatus, Long afterId, int limit, Set<String> fields) {
+        if (limit < 1 || limit > maxSearchResults)
+            throw new BadRequestException("limit must be between 1 and " + maxSearchResults);
+        FieldSelection fieldSelection = FieldSelection.of(fields, TaskDTO.FIELDS);
+        // the index answers the query, only the rows of this page are read
+        ServiceOperation.phase(Phase.LOOKUP);
+        List<Long> ids = taskTagService.search(tags, userId, taskStatus, afterId != null ? afterId : 0, limit);
+        if (ids.isEmpty())
+            return ResponseEntity.ok(List.of());
+        List<Task> tasks = fieldSelection.includes("user") ? taskRepository.findAllWithUserByIdIn(ids) : taskRepository.findAllById(ids);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(tasks.stream()
+                .sorted(Comparator.comparing(Task::getId))
+                .map(task -> new TaskDTO(task, fieldSelection))
+                .toList());
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<TaskDTO> createTask(NewTaskRequestDTO newTaskRequestDTO) throws UserNotFoundException, UnauthorizedException, InvalidTaskException {
+        ServiceOperation.phase(Phase.AUTH);
         UserEntity user = userService.findUserByEmail(newTaskRequestDTO.user().email())
                 .orElseThrow(() -> new UserNotFoundException("email or password are incorrect"));
+        ServiceOperation.userId(user.getId());
 
         validateRequest(user, newTaskRequestDTO);
 
+        ServiceOperation.phase(Phase.SAVE);
         Task task = new Task(newTaskRequestDTO.title(),
                 newTaskRequestDTO.description(),
                 newTaskRequestDTO.taskStatus() != null ? newTaskRequestDTO.taskStatus() : TaskStatus.PENDING);
+        task.setDueAt(newTaskRequestDTO.dueAt());
+        task.setTags(newTaskRequestDTO.tags());
+        task.setRank(FractionalRank.between(taskRepository.findLastRankByUserId(user.getId()), null));
         user.addTask(task);
-        return new ResponseEntity<>(new TaskDTO(taskRepository.save(task)), HttpStatus.CREATED);
+        Task savedTask = taskRepository.save(task);
+        ServiceOperation.taskId(savedTask.getId());
+        taskChangeRecorder.recordCreatedAfterCommit(savedTask);
+        ServiceOperation.phase(Phase.MAPPING);
+        return new ResponseEntity<>(new TaskDTO(savedTask), HttpStatus.CREATED);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<?> deleteTask(Long id, UserTaskRequestDTO userTaskRequestDTO) throws UnauthorizedException {
+        ServiceOperation.phase(Phase.AUTH);
         UserEntity user = userService.findUserByEmail(userTaskRequestDTO.email())
                 .orElseThrow(() -> new UnauthorizedException("email or password are incorrect"));
+        ServiceOperation.userId(user.getId());
 
         validateRequest(user, userTaskRequestDTO);
+        ServiceOperation.phase(Phase.LOOKUP);
         Task task = getTaskInUser(user, id);
 
+        ServiceOperation.phase(Phase.SAVE);
         taskRepository.delete(task);
+        taskChangeRecorder.recordDeletedAfterCommit(task);
         return ResponseEntity.noContent().build();
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<TaskDTO> updatePutTask(Long id, PutTaskRequestDTO putTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
         UserTaskRequestDTO userRequest = putTaskRequestDTO.user();
+        ServiceOperation.phase(Phase.AUTH);
         UserEntity user = userService.findUserByEmail(userRequest.email())
                 .orElseThrow(() -> new UnauthorizedException("email or password are incorrect"));
+        ServiceOperation.userId(user.getId());
 
         validateRequest(user, userRequest);
+        ServiceOperation.phase(Phase.LOOKUP);
         Task task = getTaskInUser(user, id);
+        TaskStatus previousStatus = task.getTaskStatus();
+        Instant previousStatusChangedAt = task.getStatusChangedAt();
+        ServiceOperation.phase(Phase.VALIDATION);
         makeUpdatesPutTask(task, putTaskRequestDTO);
 
-        return ResponseEntity.ok(new TaskDTO(taskRepository.save(task)));
+        // flushed so the response carries the new version, an older one would be served from the JSON cache
+        ServiceOperation.phase(Phase.SAVE);
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskChangeRecorder.recordUpdatedAfterCommit(savedTask, previousStatus, previousStatusChangedAt);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new TaskDTO(savedTask));
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<TaskDTO> updatePatchTask(Long id, PatchTaskRequestDTO patchUserRequestDTO) throws UnauthorizedException, InvalidTaskException {
         UserTaskRequestDTO userRequest = patchUserRequestDTO.user();
+        ServiceOperation.phase(Phase.AUTH);
         UserEntity user = userService.findUserByEmail(userRequest.email())
                 .orElseThrow(() -> new UnauthorizedException("email or password are incorrect"));
+        ServiceOperation.userId(user.getId());
 
         validateRequest(user, userRequest);
+        ServiceOperation.phase(Phase.LOOKUP);
         Task task = getTaskInUser(user, id);
+        TaskStatus previousStatus = task.getTaskStatus();
+        Instant previousStatusChangedAt = task.getStatusChangedAt();
+        ServiceOperation.phase(Phase.VALIDATION);
         makeUpdatesPatchTask(task, patchUserRequestDTO);
 
-        return ResponseEntity.ok(new TaskDTO(taskRepository.save(task)));
+        // flushed so the response carries the new version, an older one would be served from the JSON cache
+        ServiceOperation.phase(Phase.SAVE);
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskChangeRecorder.recordUpdatedAfterCommit(savedTask, previousStatus, previousStatusChangedAt);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new TaskDTO(savedTask));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ResponseEntity<TaskDTO> moveTask(Long id, MoveTaskRequestDTO moveTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
+        UserTaskRequestDTO userRequest = moveTaskRequestDTO.user();
+        ServiceOperation.phase(Phase.AUTH);
+        UserEntity user = userService.findUserByEmail(userRequest.email())
+                .orElseThrow(() -> new UnauthorizedException("email or password are incorrect"));
+        ServiceOperation.userId(user.getId());
+
+        validateRequest(user, userRequest);
+        ServiceOperation.phase(Phase.VALIDATION);
+        Long anchorId = moveTaskRequestDTO.afterTaskId() != null ? moveTaskRequestDTO.afterTaskId() : moveTaskRequestDTO.beforeTaskId();
+        if ((moveTaskRequestDTO.afterTaskId() == null) == (moveTaskRequestDTO.beforeTaskId() == null))
+            throw new InvalidTaskException("exactly one of afterTaskId or beforeTaskId must be provided");
+        if (anchorId.equals(id))
+            throw new InvalidTaskException("a task can not be moved next to itself");
+
+        ServiceOperation.phase(Phase.LOOKUP);
+        Task task = getTaskInUser(user, id);
+        Task anchor = getTaskInUser(user, anchorId);
+        if (anchor.getRank() == null)
+            throw new InvalidTaskException("the order of these tasks is still being built, retry shortly");
+
+        // only the moved row is written, its new key goes between the anchor and the anchor's neighbour
+        ServiceOperation.phase(Phase.SAVE);
+        if (moveTaskRequestDTO.afterTaskId() != null)
+            task.setRank(FractionalRank.between(anchor.getRank(), taskRepository.findRankAfter(user.getId(), anchor.getRank(), id)));
+        else
+            task.setRank(FractionalRank.between(taskRepository.findRankBefore(user.getId(), anchor.getRank(), id), anchor.getRank()));
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskChangeRecorder.recordMovedAfterCommit(savedTask);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new TaskDTO(savedTask));
     }
 
     private void makeUpdatesPatchTask(Task task, PatchTaskRequestDTO taskUpdate) throws InvalidTaskException {
-        if (taskUpdate.title() == null && taskUpdate.description() == null && taskUpdate.taskStatus() == null)
+        if (taskUpdate.title() == null && taskUpdate.description() == null && taskUpdate.taskStatus() == null && taskUpdate.dueAt() == null
+                && taskUpdate.tags() == null)
             throw new InvalidTaskException("at least one field of the task must be provided");
         if (taskUpdate.title() != null)
             task.setTitle(taskUpdate.title());
@@ -107,6 +264,10 @@ public class TaskServiceImp implements TaskService {
             validateTitleAndDescription(taskUpdate.title(), taskUpdate.description());
         if (taskUpdate.taskStatus() != null)
             task.setTaskStatus(taskUpdate.taskStatus());
+        if (taskUpdate.dueAt() != null)
+            task.setDueAt(taskUpdate.dueAt());
+        if (taskUpdate.tags() != null)
+            task.setTags(taskUpdate.tags());
     }
 
     private void makeUpdatesPutTask(Task task, PutTaskRequestDTO taskUpdate) throws InvalidTaskException {
@@ -114,6 +275,8 @@ public class TaskServiceImp implements TaskService {
         task.setTitle(task.getTitle());
         task.setDescription(taskUpdate.description());
         task.setTaskStatus(taskUpdate.taskStatus());
+        task.setDueAt(taskUpdate.dueAt());
+        task.setTags(taskUpdate.tags());
     }
 
     private void validateRequest(UserEntity user, NewTaskRequestDTO newTaskRequestDTO) throws UnauthorizedException, InvalidTaskException {
@@ -123,6 +286,8 @@ public class TaskServiceImp implements TaskService {
                 user.getPassword(),
                 userRequest.email(),
                 userRequest.password());
+        concurrencyLimiter.authenticated(user.getId());
+        ServiceOperation.phase(Phase.VALIDATION);
         validateTitleAndDescription(newTaskRequestDTO.title(), newTaskRequestDTO.description());
     }
 
@@ -132,10 +297,11 @@ public class TaskServiceImp implements TaskService {
                 user.getPassword(),
                 userTaskRequestDTO.email(),
                 userTaskRequestDTO.password());
+        concurrencyLimiter.authenticated(user.getId());
     }
 
     private void validateCredentials(String validEmail, String validPassword, String email, String password) throws UnauthorizedException {
-        if (!validEmail.equals(email) || !validPassword.equals(password))
+        if (!UserEntity.normalizeEmail(validEmail).equals(UserEntity.normalizeEmail(email)) || !validPassword.equals(password))
             throw new UnauthorizedException("email or password are incorrect");
     }
 
@@ -144,11 +310,14 @@ public class TaskServiceImp implements TaskService {
             throw new InvalidTaskException("either title or description must have text");
     }
 
+    // archived tasks are moved back to TASKS when they are modified, e.g. reopened as PENDING
     private Task getTaskInUser(UserEntity user, Long id) throws UnauthorizedException {
-        return user.getTasks()
+        Optional<Task> task = user.getTasks()
                 .stream()
                 .filter(currTask -> currTask.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new UnauthorizedException("unauthorized user"));
+                .findFirst();
+        if (task.isEmpty() && taskArchiveService.restoreTask(id, user.getId()))
+            task = taskRepository.findById(id);
+        return task.orElseThrow(() -> new UnauthorizedException("unauthorized user"));
     }
 }
@@ -0,0 +1,279 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.TransactionCallbacks;
+import com.mindhub.todolist.dtos.task.TaskStatsDTO;
+import com.mindhub.todolist.exceptions.BadRequestException;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatsRollup;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.repositories.TaskStatsRollupRepository;
+import com.mindhub.todolist.services.TaskStatsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Task throughput counters kept in memory per hour and status. The write paths only add to
+ * {@link LongAdder}s, which spread concurrent increments over striped cells, so recording never
+ * blocks or contends on a single counter. Closed hours are periodically moved into
+ * TASK_STATS_ROLLUP and a stats request adds those rows to the hours still in memory, so
+ * dashboards never group over TASKS.
+ * <p>
+ * The lock only orders compaction against stats requests, so a request sees each hour either in
+ * memory or in the table, never in both or in neither. Writers do not take it: a writer that found a
+ * bucket just before compaction removed it is waited for, one that comes later starts a new bucket.
+ */
+@Service
+public class TaskStatsServiceImp implements TaskStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsServiceImp.class);
+
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    // one hour of counters, each array is indexed by status ordinal
+    private static final class Bucket {
+        final LongAdder[] created = adders(), entered = adders(), exited = adders(), timeInStatusMillis = adders();
+        // writers between finding the bucket and their last increment, striped like the counters
+        final LongAdder writers = new LongAdder();
+        volatile boolean removed;
+
+        private static LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[STATUSES.length];
+            for (int i = 0; i < adders.length; i++)
+                adders[i] = new LongAdder();
+            return adders;
+        }
+    }
+
+    private final TaskStatsRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactAfter, maxRange;
+
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock compaction = new ReentrantReadWriteLock();
+
+    public TaskStatsServiceImp(TaskStatsRollupRepository rollupRepository, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${todolist.task-stats.compact-after:PT1M}") Duration compactAfter,
+                               @Value("${todolist.task-stats.max-range:P93D}") Duration maxRange) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactAfter = compactAfter;
+        this.maxRange = maxRange;
+        Gauge.builder("todolist.task-stats.buckets", buckets, Map::size)
+                .description("hours of task stats not yet compacted into TASK_STATS_ROLLUP").register(meterRegistry);
+    }
+
+    @Override
+    public void recordCreatedAfterCommit(Task task) {
+        Instant createdAt = task.getCreatedAt();
+        TaskStatus status = task.getTaskStatus();
+        if (createdAt == null || status == null)
+            return;
+        TransactionCallbacks.afterCommit(() -> record(createdAt, bucket -> {
+            bucket.created[status.ordinal()].increment();
+            bucket.entered[status.ordinal()].increment();
+        }));
+    }
+
+    @Override
+    public void recordStatusChangeAfterCommit(Task task, TaskStatus previousStatus, Instant previousStatusChangedAt) {
+        TaskStatus status = task.getTaskStatus();
+        Instant changedAt = task.getStatusChangedAt();
+        if (status == previousStatus || changedAt == null)
+            return;
+        TransactionCallbacks.afterCommit(() -> record(changedAt, bucket -> {
+            if (status != null)
+                bucket.entered[status.ordinal()].increment();
+            // rows written before the timestamps existed do not say how long they were in their status
+            if (previousStatus != null && previousStatusChangedAt != null) {
+                bucket.exited[previousStatus.ordinal()].increment();
+                bucket.timeInStatusMillis[previousStatus.ordinal()].add(
+                        Math.max(0, Duration.between(previousStatusChangedAt, changedAt).toMillis()));
+            }
+        }));
+    }
+
+    // a write that commits more than compact-after past its hour starts a new bucket, added to the row on the next run
+    @Override
+    public int compactClosedBuckets() {
+        return compact(hourOf(Instant.now().minus(compactAfter)));
+    }
+
+    @PreDestroy
+    void compactAll() {
+        try {
+            compact(Long.MAX_VALUE);
+        } catch (RuntimeException e) {
+            log.warn("Could not compact task stats on shutdown", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<TaskStatsDTO>> getStats(Instant from, Instant to, Granularity granularity) {
+        ChronoUnit unit = granularity.unit();
+        Instant end = to != null ? roundUp(to, unit) : Instant.now().truncatedTo(unit).plus(1, unit);
+        Instant start = from != null ? from.truncatedTo(unit) : end.minus(24, unit);
+        if (!start.isBefore(end))
+            throw new BadRequestException("from must be before to");
+        if (Duration.between(start, end).compareTo(maxRange) > 0)
+            throw new BadRequestException("the requested range can span at most " + maxRange.toDays() + " days");
+
+        // per bucket: created, entered, exited and time in status of every status
+        Map<Instant, long[][]> totals = new TreeMap<>();
+        for (Instant bucketStart = start; bucketStart.isBefore(end); bucketStart = bucketStart.plus(1, unit))
+            totals.put(bucketStart, new long[STATUSES.length][4]);
+
+        compaction.readLock().lock();
+        try {
+            for (TaskStatsRollup row : rollupRepository.findAllInRange(start, end))
+                add(totals.get(row.getBucketStart().truncatedTo(unit)), row.getTaskStatus().ordinal(),
+                        row.getCreated(), row.getEntered(), row.getExited(), row.getTimeInStatusMillis());
+            buckets.forEach((hour, bucket) -> {
+                long[][] counts = totals.get(startOf(hour).truncatedTo(unit));
+                if (counts != null)
+                    for (int i = 0; i < STATUSES.length; i++)
+                        add(counts, i, bucket.created[i].sum(), bucket.entered[i].sum(), bucket.exited[i].sum(),
+                                bucket.timeInStatusMillis[i].sum());
+            });
+        } finally {
+            compaction.readLock().unlock();
+        }
+
+        List<TaskStatsDTO> stats = new ArrayList<>(totals.size());
+        totals.forEach((bucketStart, counts) -> stats.add(toDTO(bucketStart, counts)));
+        return ResponseEntity.ok(stats);
+    }
+
+    private int compact(long beforeHour) {
+        compaction.writeLock().lock();
+        try {
+            // removed first, a write racing with the compaction starts a new bucket instead of being lost
+            Map<Long, Bucket> closed = new TreeMap<>();
+            for (Long hour : buckets.keySet())
+                if (hour < beforeHour) {
+                    Bucket bucket = buckets.remove(hour);
+                    bucket.removed = true;
+                    closed.put(hour, bucket);
+                }
+            if (closed.isEmpty())
+                return 0;
+            // a writer that found the bucket before it was marked removed still counts into it
+            for (Bucket bucket : closed.values())
+                while (bucket.writers.sum() != 0)
+                    Thread.onSpinWait();
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeRollups(closed));
+            } catch (RuntimeException e) {
+                closed.forEach(this::restore);
+                throw e;
+            }
+            return closed.size();
+        } finally {
+            compaction.writeLock().unlock();
+        }
+    }
+
+    // adds the counts to the existing rows, an hour can be compacted more than once
+    private void writeRollups(Map<Long, Bucket> closed) {
+        Map<TaskStatsRollup.Key, TaskStatsRollup> rows = new HashMap<>();
+        rollupRepository.findAllByBucketStartIn(closed.keySet().stream().map(TaskStatsServiceImp::startOf).toList())
+                .forEach(row -> rows.put(new TaskStatsRollup.Key(row.getBucketStart(), row.getTaskStatus()), row));
+        List<TaskStatsRollup> changed = new ArrayList<>();
+        closed.forEach((hour, bucket) -> {
+            Instant bucketStart = startOf(hour);
+            for (TaskStatus status : STATUSES) {
+                int i = status.ordinal();
+                long created = bucket.created[i].sum(), entered = bucket.entered[i].sum(), exited = bucket.exited[i].sum();
+                if (created == 0 && entered == 0 && exited == 0)
+                    continue;
+                TaskStatsRollup row = rows.computeIfAbsent(new TaskStatsRollup.Key(bucketStart, status),
+                        key -> new TaskStatsRollup(bucketStart, status));
+                row.add(created, entered, exited, bucket.timeInStatusMillis[i].sum());
+                changed.add(row);
+            }
+        });
+        rollupRepository.saveAll(changed);
+    }
+
+    private void restore(Long hour, Bucket counts) {
+        Bucket bucket = buckets.computeIfAbsent(hour, key -> new Bucket());
+        for (int i = 0; i < STATUSES.length; i++) {
+            bucket.created[i].add(counts.created[i].sum());
+            bucket.entered[i].add(counts.entered[i].sum());
+            bucket.exited[i].add(counts.exited[i].sum());
+            bucket.timeInStatusMillis[i].add(counts.timeInStatusMillis[i].sum());
+        }
+    }
+
+    private void record(Instant at, Consumer<Bucket> increments) {
+        long hour = hourOf(at);
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(hour, key -> new Bucket());
+            // registered before the flag is read, so compaction either waits for this writer or this writer sees the flag
+            bucket.writers.increment();
+            try {
+                if (!bucket.removed) {
+                    increments.accept(bucket);
+                    return;
+                }
+            } finally {
+                bucket.writers.decrement();
+            }
+        }
+    }
+
+    private static void add(long[][] counts, int status, long created, long entered, long exited, long timeInStatusMillis) {
+        counts[status][0] += created;
+        counts[status][1] += entered;
+        counts[status][2] += exited;
+        counts[status][3] += timeInStatusMillis;
+    }
+
+    private static TaskStatsDTO toDTO(Instant bucketStart, long[][] counts) {
+        Map<TaskStatus, TaskStatsDTO.StatusStats> statuses = new EnumMap<>(TaskStatus.class);
+        long created = 0;
+        for (TaskStatus status : STATUSES) {
+            long[] count = counts[status.ordinal()];
+            created += count[0];
+            statuses.put(status, new TaskStatsDTO.StatusStats(count[1], count[2], Duration.ofMillis(count[3]),
+                    count[2] > 0 ? Duration.ofMillis(count[3] / count[2]) : null));
+        }
+        return new TaskStatsDTO(bucketStart, created, counts[TaskStatus.COMPLETED.ordinal()][1], statuses);
+    }
+
+    private static long hourOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), HOUR_MILLIS);
+    }
+
+    private static Instant startOf(long hour) {
+        return Instant.ofEpochMilli(hour * HOUR_MILLIS);
+    }
+
+    private static Instant roundUp(Instant instant, ChronoUnit unit) {
+        Instant truncated = instant.truncatedTo(unit);
+        return truncated.equals(instant) ? truncated : truncated.plus(1, unit);
+    }
+}
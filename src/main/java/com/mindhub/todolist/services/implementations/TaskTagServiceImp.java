@@ -0,0 +1,181 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.datasources.TransactionCallbacks;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskTagService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory bitmap index of task ids by tag, owner and status. A search intersects the owner
+ * and status bitmaps first and evaluates the tag query inside that scope, so the database is
+ * only asked for the rows of the page that is returned.
+ * <p>
+ * The index is loaded at startup and kept current by the task write paths after they commit.
+ * Each task remembers the version it was indexed at, so a late callback of an older write can
+ * not overwrite a newer one.
+ */
+@Service
+public class TaskTagServiceImp implements TaskTagService {
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    private record Entry(long version, long userId, TaskStatus taskStatus, Set<String> tags) {}
+
+    private final TaskRepository taskRepository;
+    private final ObjectProvider<ShardManager> shardManager;
+    private final int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final Map<String, CompressedBitmap> byTag = new HashMap<>();
+    private final Map<Long, CompressedBitmap> byOwner = new HashMap<>();
+    private final Map<TaskStatus, CompressedBitmap> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public TaskTagServiceImp(TaskRepository taskRepository, ObjectProvider<ShardManager> shardManager, MeterRegistry meterRegistry,
+                             @Value("${todolist.task-tags.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.shardManager = shardManager;
+        this.batchSize = batchSize;
+        Gauge.builder("todolist.task-tags.indexed", this, service -> service.read(service.entries::size))
+                .description("tasks in the tag index").register(meterRegistry);
+        Gauge.builder("todolist.task-tags.tags", this, service -> service.read(service.byTag::size))
+                .description("distinct tags in the tag index").register(meterRegistry);
+    }
+
+    @Override
+    public void indexAfterCommit(Task task) {
+        Entry entry = new Entry(task.getVersion(), task.getUser().getId(), task.getTaskStatus(), task.getTags());
+        Long id = task.getId();
+        TransactionCallbacks.afterCommit(() -> write(() -> index(id, entry)));
+    }
+
+    @Override
+    public void removeAfterCommit(Collection<Long> taskIds) {
+        List<Long> ids = List.copyOf(taskIds);
+        TransactionCallbacks.afterCommit(() -> write(() -> ids.forEach(this::remove)));
+    }
+
+    @Override
+    public void removeOwnerAfterCommit(Long userId) {
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            CompressedBitmap owned = byOwner.get(userId);
+            if (owned != null)
+                owned.toList(-1, Integer.MAX_VALUE).forEach(this::remove);
+        }));
+    }
+
+    @Override
+    public List<Long> search(String query, Long userId, TaskStatus taskStatus, long afterId, int limit) {
+        TagQuery tagQuery = query == null || query.isBlank() ? null : TagQuery.parse(query);
+        return read(() -> {
+            CompressedBitmap scope = userId != null ? byOwner.getOrDefault(userId, EMPTY) : all;
+            if (taskStatus != null)
+                scope = scope.and(byStatus.getOrDefault(taskStatus, EMPTY));
+            CompressedBitmap matches = tagQuery != null ? tagQuery.evaluate(scope, tag -> byTag.getOrDefault(tag, EMPTY)) : scope;
+            return matches.toList(afterId, limit);
+        });
+    }
+
+    @Override
+    public int loadIndex() {
+        return onEveryShard(() -> {
+            int loaded = 0;
+            long afterId = 0;
+            List<TaskRepository.IndexedTask> page;
+            do {
+                page = taskRepository.findIndexedTasks(afterId, Limit.of(batchSize));
+                List<TaskRepository.IndexedTask> tasks = page;
+                // a task written since startup was indexed by its write path at the same or a newer version
+                write(() -> tasks.forEach(task -> index(task.getId(),
+                        new Entry(task.getVersion(), task.getUserId(), task.getTaskStatus(), task.getTags()))));
+                loaded += page.size();
+                if (!page.isEmpty())
+                    afterId = page.get(page.size() - 1).getId();
+            } while (page.size() == batchSize);
+            return loaded;
+        });
+    }
+
+    // callers hold the write lock
+    private void index(Long id, Entry entry) {
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            if (previous.version() > entry.version())
+                return;
+            remove(id);
+        }
+        entries.put(id, entry);
+        all.add(id);
+        byOwner.computeIfAbsent(entry.userId(), userId -> new CompressedBitmap()).add(id);
+        if (entry.taskStatus() != null)
+            byStatus.computeIfAbsent(entry.taskStatus(), status -> new CompressedBitmap()).add(id);
+        for (String tag : entry.tags())
+            byTag.computeIfAbsent(tag, name -> new CompressedBitmap()).add(id);
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null)
+            return;
+        all.remove(id);
+        removeFrom(byOwner, entry.userId(), id);
+        if (entry.taskStatus() != null)
+            removeFrom(byStatus, entry.taskStatus(), id);
+        for (String tag : entry.tags())
+            removeFrom(byTag, tag, id);
+    }
+
+    // empty bitmaps are dropped so tags that are no longer used do not pile up
+    private static <K> void removeFrom(Map<K, CompressedBitmap> bitmaps, K key, Long id) {
+        CompressedBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null)
+            return;
+        bitmap.remove(id);
+        if (bitmap.isEmpty())
+            bitmaps.remove(key);
+    }
+
+    private <T> T read(Supplier<T> operation) {
+        lock.readLock().lock();
+        try {
+            return operation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable operation) {
+        lock.writeLock().lock();
+        try {
+            operation.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // with sharding a task may live on any shard after a rebalance, so every shard is asked
+    private int onEveryShard(Supplier<Integer> operation) {
+        ShardManager shards = shardManager.getIfAvailable();
+        if (shards == null)
+            return operation.get();
+        return shards.fanOut(shard -> operation.get()).stream().mapToInt(Integer::intValue).sum();
+    }
+}
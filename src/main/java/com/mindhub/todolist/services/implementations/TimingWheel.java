@@ -0,0 +1,145 @@
+package com.mindhub.todolist.services.implementations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of deadlines keyed by id. Level {@code n} has {@code 2^bits} slots
+ * of {@code 2^(bits * n)} ticks each; a deadline is kept on the lowest level whose span covers
+ * it and moves down a level each time its slot comes around. Scheduling, cancelling and firing
+ * are O(1) per id, and the wheel only walks the slots of the ticks that passed.
+ * <p>
+ * Not thread-safe on its own, TaskDueDateServiceImp guards it with its monitor.
+ */
+class TimingWheel {
+
+    record Timeout(Long id, long deadlineMillis) {}
+
+    private static final class Node {
+        final Long id;
+        final long deadlineMillis, deadlineTick;
+        Node previous, next;
+        Node[] bucket;
+        int slot;
+
+        Node(Long id, long deadlineMillis, long deadlineTick) {
+            this.id = id;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bits, mask;
+    // one array of list heads per level, slots are doubly linked lists so a node unlinks in O(1)
+    private final Node[][] levels;
+    private final HashMap<Long, Node> nodes = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int bits, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.levels = new Node[levels][1 << bits];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    long currentMillis() {
+        return currentTick * tickMillis;
+    }
+
+    boolean contains(Long id) {
+        return nodes.containsKey(id);
+    }
+
+    void schedule(Long id, long deadlineMillis) {
+        cancel(id);
+        // deadlines that already passed fire on the next tick
+        Node node = new Node(id, deadlineMillis, Math.max(deadlineMillis / tickMillis, currentTick + 1));
+        nodes.put(id, node);
+        place(node);
+    }
+
+    void cancel(Long id) {
+        Node node = nodes.remove(id);
+        if (node != null)
+            unlink(node);
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the deadlines that were reached, in tick
+     * order.
+     */
+    List<Timeout> advance(long nowMillis) {
+        List<Timeout> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // a higher level slot is due whenever every lower level wrapped around, the highest one
+            // goes first so its nodes can still land in the lower slots due on this same tick
+            int wrapped = 0;
+            while (wrapped < levels.length - 1 && (currentTick & ((1L << (bits * (wrapped + 1))) - 1)) == 0)
+                wrapped++;
+            for (int level = wrapped; level >= 1; level--)
+                cascade(level, slotOf(currentTick, level));
+
+            int slot = slotOf(currentTick, 0);
+            Node node = levels[0][slot];
+            while (node != null) {
+                Node next = node.next;
+                unlink(node);
+                nodes.remove(node.id);
+                expired.add(new Timeout(node.id, node.deadlineMillis));
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(int level, int slot) {
+        Node node = levels[level][slot];
+        levels[level][slot] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.previous = node.next = null;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node node) {
+        long ticks = node.deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && ticks >= 1L << (bits * (level + 1)))
+            level++;
+        int slot = slotOf(node.deadlineTick, level);
+
+        Node[] bucket = levels[level];
+        node.bucket = bucket;
+        node.slot = slot;
+        node.previous = null;
+        node.next = bucket[slot];
+        if (bucket[slot] != null)
+            bucket[slot].previous = node;
+        bucket[slot] = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.previous != null)
+            node.previous.next = node.next;
+        else if (node.bucket[node.slot] == node)
+            node.bucket[node.slot] = node.next;
+        if (node.next != null)
+            node.next.previous = node.previous;
+        node.previous = node.next = null;
+    }
+
+    private int slotOf(long tick, int level) {
+        return (int) ((tick >>> (bits * level)) & mask);
+    }
+}
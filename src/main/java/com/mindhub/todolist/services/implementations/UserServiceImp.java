@@ -1,5 +1,8 @@
 package com.mindhub.todolist.services.implementations;
 
+import com.mindhub.todolist.datasources.ShardContext;
+import com.mindhub.todolist.dtos.BatchItemDTO;
+import com.mindhub.todolist.dtos.FieldSelection;
 import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
 import com.mindhub.todolist.dtos.user.PutUserRequestDTO;
@@ -7,40 +10,117 @@ import com.mindhub.todolist.dtos.user.UserDTO;
 import com.mindhub.todolist.exceptions.EmailAlreadyExistsException;
 import com.mindhub.todolist.exceptions.InvalidUserException;
 import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.flightrecorder.ServiceOperation;
+import com.mindhub.todolist.flightrecorder.ServiceOperation.Phase;
+import com.mindhub.todolist.journal.MutationJournal;
 import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.repositories.ArchivedTaskRepository;
+import com.mindhub.todolist.repositories.TaskRepository;
 import com.mindhub.todolist.repositories.UserRepository;
+import com.mindhub.todolist.services.TaskTagService;
 import com.mindhub.todolist.services.UserService;
+import com.mindhub.todolist.validations.UserPatchValidation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UserServiceImp implements UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserServiceImp.class);
+
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+    @Autowired
+    private BatchLookup batchLookup;
+    @Autowired
+    private MutationJournal mutationJournal;
+    @Autowired
+    private ReadModel readModel;
+    @Autowired
+    private TaskTagService taskTagService;
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${todolist.user-purge.chunk-size:500}")
+    private int purgeChunkSize;
+    @Value("${todolist.user-purge.batch-size:50}")
+    private int purgeBatchSize;
+    @Value("${todolist.email-backfill.batch-size:500}")
+    private int backfillBatchSize;
+
+    // per shard, the last id the email backfill went past, the rows it skipped for a case-only conflict
+    // and whether no other row is left without a normalized email
+    private final Map<Integer, Long> backfillCursors = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> backfillConflicts = new ConcurrentHashMap<>();
+    private final Set<Integer> backfilledShards = ConcurrentHashMap.newKeySet();
 
     @Override
-    public ResponseEntity<List<UserDTO>> getAllUsersDTO() {
-        return ResponseEntity.ok(getAllUsers().stream().map(UserDTO::new).toList());
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<UserDTO>> getAllUsersDTO(Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, UserDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        List<UserEntity> users = fieldSelection.includes("tasks") ? userRepository.findAllWithTasks() : getAllUsers();
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(users.stream().map(user -> new UserDTO(user, fieldSelection)).toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserEntity> getAllUsers() {
         return userRepository.findAll();
     }
 
     @Override
-    public ResponseEntity<UserDTO> getUserDTOById(Long id) throws UserNotFoundException {
-        return ResponseEntity.ok(new UserDTO(getUserById(id)));
+    @Transactional(readOnly = true)
+    public ResponseEntity<UserDTO> getUserDTOById(Long id, Set<String> fields) throws UserNotFoundException {
+        FieldSelection fieldSelection = FieldSelection.of(fields, UserDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        UserEntity user = fieldSelection.includes("tasks")
+                ? userRepository.findByIdWithTasks(id).orElseThrow(() -> new UserNotFoundException("user was not found"))
+                : getUserById(id);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new UserDTO(user, fieldSelection));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<BatchItemDTO<UserDTO>>> getUsersDTOByIds(List<Long> ids, Set<String> fields) {
+        FieldSelection fieldSelection = FieldSelection.of(fields, UserDTO.FIELDS);
+        ServiceOperation.phase(Phase.LOOKUP);
+        Map<Long, UserEntity> users = batchLookup.findAll(ids,
+                chunk -> fieldSelection.includes("tasks") ? userRepository.findAllWithTasksByIdIn(chunk) : userRepository.findAllById(chunk),
+                UserEntity::getId);
+        ServiceOperation.phase(Phase.MAPPING);
+        Map<Long, UserDTO> userDTOs = new HashMap<>();
+        users.forEach((id, user) -> userDTOs.put(id, new UserDTO(user, fieldSelection)));
+        return ResponseEntity.ok(BatchItemDTO.inRequestOrder(ids, userDTOs, "user was not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserEntity getUserById(Long id) throws UserNotFoundException {
         return userRepository
                 .findById(id)
@@ -48,111 +128,208 @@ public class UserServiceImp implements UserService {
     }
 
     @Override
-    public ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO) {
-        return new ResponseEntity<>(new UserDTO(userRepository
-                .save(new UserEntity(newUserRequestDTO))), HttpStatus.CREATED);
+    @Transactional(rollbackFor = Exception.class)
+    public ResponseEntity<UserDTO> createUser(NewUserRequestDTO newUserRequestDTO) throws EmailAlreadyExistsException {
+        ServiceOperation.phase(Phase.SAVE);
+        UserEntity savedUser;
+        try {
+            // a single INSERT, the unique constraint is what decides whether the email is taken
+            savedUser = userRepository.save(new UserEntity(newUserRequestDTO));
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesUniqueEmail(e))
+                throw e;
+            throw new EmailAlreadyExistsException("email already taken");
+        }
+        ServiceOperation.userId(savedUser.getId());
+        mutationJournal.recordUserAfterCommit(savedUser);
+        readModel.recordUserAfterCommit(savedUser);
+        ServiceOperation.phase(Phase.MAPPING);
+        return new ResponseEntity<>(new UserDTO(savedUser), HttpStatus.CREATED);
     }
 
     @Override
-    public ResponseEntity<?> deleteUser(Long id) throws UserNotFoundException {
-        if (!userRepository.existsById(id))
+    @Transactional(rollbackFor = Exception.class)
+    public ResponseEntity<?> deleteUser(Long id, boolean soft) throws UserNotFoundException {
+        int deleted;
+        if (soft) {
+            Instant deletedAt = Instant.now();
+            deleted = userRepository.softDeleteById(id, deletedAt);
+            mutationJournal.recordUserSoftDeletedAfterCommit(id, deletedAt);
+            taskTagService.removeOwnerAfterCommit(id);
+            readModel.recordUserRemovedAfterCommit(id);
+        } else {
+            taskRepository.deleteAllByUserId(id);
+            archivedTaskRepository.deleteAllByUserId(id);
+            deleted = userRepository.deleteUserById(id);
+            mutationJournal.recordUserDeletedAfterCommit(id);
+            taskTagService.removeOwnerAfterCommit(id);
+            readModel.recordUserRemovedAfterCommit(id);
+        }
+        if (deleted == 0)
             throw new UserNotFoundException("user with id '" + id + "' was not found");
-        userRepository.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
     @Override
+    public int purgeSoftDeletedUsers() {
+        int purged = 0;
+        for (Long userId : userRepository.findSoftDeletedIds(purgeBatchSize)) {
+            // every chunk commits on its own so TASKS is never locked for a whole user
+            int deletedTasks;
+            do {
+                deletedTasks = taskRepository.deleteChunkByUserId(userId, purgeChunkSize);
+            } while (deletedTasks == purgeChunkSize);
+            do {
+                deletedTasks = archivedTaskRepository.deleteChunkByUserId(userId, purgeChunkSize);
+            } while (deletedTasks == purgeChunkSize);
+            if (userRepository.purgeSoftDeletedById(userId) > 0) {
+                mutationJournal.recordUserDeletedAfterCommit(userId);
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Fills the normalized email of rows written before the column existed, one committed batch at a time.
+     * A row whose email only differs in case from another user's is left unnormalized and logged, one of
+     * the two has to change its email before that user can be found again. Those rows are retried on every
+     * run and do not keep the shard from counting as backfilled.
+     */
+    @Override
+    public int backfillNormalizedEmails() {
+        int shard = Objects.requireNonNullElse(ShardContext.current(), 0);
+        Set<Long> conflicts = backfillConflicts.computeIfAbsent(shard, key -> ConcurrentHashMap.newKeySet());
+        int normalized = retryBackfillConflicts(conflicts);
+        if (backfilledShards.contains(shard))
+            return normalized;
+        List<Long> ids;
+        do {
+            ids = userRepository.findIdsWithoutNormalizedEmail(backfillCursors.getOrDefault(shard, 0L), backfillBatchSize);
+            if (ids.isEmpty())
+                break;
+            try {
+                normalized += userRepository.normalizeEmails(ids);
+            } catch (DataIntegrityViolationException e) {
+                for (Long id : ids)
+                    try {
+                        normalized += userRepository.normalizeEmails(List.of(id));
+                    } catch (DataIntegrityViolationException conflict) {
+                        log.warn("Email of user {} only differs in case from another user's, it is left unnormalized", id);
+                        conflicts.add(id);
+                    }
+            }
+            backfillCursors.put(shard, ids.get(ids.size() - 1));
+        } while (ids.size() == backfillBatchSize);
+        // one more id than the known conflicts, so a row that is not one of them shows up
+        if (conflicts.containsAll(userRepository.findIdsWithoutNormalizedEmail(0, conflicts.size() + 1)))
+            backfilledShards.add(shard);
+        return normalized;
+    }
+
+    // a conflict is gone once the other user changed its email, or this one did, which normalizes it too
+    private int retryBackfillConflicts(Set<Long> conflicts) {
+        int normalized = 0;
+        for (Long id : conflicts)
+            try {
+                normalized += userRepository.normalizeEmails(List.of(id));
+                conflicts.remove(id);
+            } catch (DataIntegrityViolationException conflict) {
+                // still taken, retried on the next run
+            }
+        return normalized;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<UserDTO> updatePutUser(Long id, PutUserRequestDTO putUserRequestDTO) throws UserNotFoundException, EmailAlreadyExistsException {
+        ServiceOperation.phase(Phase.LOOKUP);
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("user with id '" + id + "' was not found"));
 
         makeUpdatesPutUser(user, putUserRequestDTO);
-        return ResponseEntity.ok(new UserDTO(userRepository.save(user)));
+        ServiceOperation.phase(Phase.SAVE);
+        UserEntity savedUser;
+        try {
+            // flushed so a taken email fails here on the unique constraint, not at commit
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesUniqueEmail(e))
+                throw e;
+            throw new EmailAlreadyExistsException("email '" + putUserRequestDTO.email() + "' is already taken");
+        }
+        mutationJournal.recordUserAfterCommit(savedUser);
+        readModel.recordUserAfterCommit(savedUser);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new UserDTO(savedUser));
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<UserDTO> updatePatchUser(Long id, PatchUserRequestDTO patchUserRequestDTO) throws UserNotFoundException, InvalidUserException {
+        ServiceOperation.phase(Phase.LOOKUP);
         UserEntity user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("user with id '" + id + "' was not found"));
 
+        ServiceOperation.phase(Phase.VALIDATION);
+        String currentEmail = user.getEmail();
         makeUpdatesPatchUser(user, patchUserRequestDTO);
-        return ResponseEntity.ok(new UserDTO(userRepository.save(user)));
+        ServiceOperation.phase(Phase.SAVE);
+        UserEntity savedUser;
+        try {
+            // flushed so a taken email fails here on the unique constraint, not at commit
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!violatesUniqueEmail(e))
+                throw e;
+            throw new InvalidUserException(List.of(UserPatchValidation.emailTakenError(currentEmail)).toString());
+        }
+        mutationJournal.recordUserAfterCommit(savedUser);
+        readModel.recordUserAfterCommit(savedUser);
+        ServiceOperation.phase(Phase.MAPPING);
+        return ResponseEntity.ok(new UserDTO(savedUser));
     }
 
 
     private void makeUpdatesPatchUser(UserEntity user, PatchUserRequestDTO userUpdates) throws InvalidUserException {
-        List<String> errors = new ArrayList<>();
-
-        updateUsernameIfValid(user, userUpdates, errors);
-        updateEmailIfValid(user, userUpdates, errors);
-        updatePasswordIfValid(user, userUpdates, errors);
-
+        List<String> errors = UserPatchValidation.validate(user.getUsername(), user.getEmail(), user.getPassword(), userUpdates);
         if (!errors.isEmpty())
             throw new InvalidUserException(errors.toString());
-    }
 
-    private void updatePasswordIfValid(UserEntity user, PatchUserRequestDTO userUpdates, List<String> errors) {
-        List<String> currentErrors = new ArrayList<>();
-        if (userUpdates.password() != null) {
-            if (!userUpdates.password().equals(user.getPassword())) {
-                if (userUpdates.password().length() < 6 || userUpdates.password().length() > 40)
-                    currentErrors.add("password must be between 6 and 40 characters");
-                if (userUpdates.password().isBlank())
-                    currentErrors.add("password must not be empty");
-                if (currentErrors.isEmpty())
-                    user.setPassword(userUpdates.password());
-            } else
-                currentErrors.add("password can not be the same");
-        }
-        errors.addAll(currentErrors);
-    }
-
-    private void updateEmailIfValid(UserEntity user, PatchUserRequestDTO userUpdates, List<String> errors) {
-        List<String> currentErrors = new ArrayList<>();
-        if (userUpdates.email() != null && !userUpdates.email().equals(user.getEmail())) {
-            if (userUpdates.email().isBlank())
-                currentErrors.add("email must not be empty");
-            /*
-                The following regex validates email addresses following these rules:
-                -The username can contain letters, numbers, hyphens, underscores, and dots. E.g., valid-ex.amp_le@__.__
-                -It must include an @ symbol.
-                -The domain must contain at least one valid subdomain followed by a dot. E.g., __@valid.__
-                -The domain must end with an extension of 2 to 4 characters. E.g., __@__.com | __@__.ar
-            */
-            if (!userUpdates.email().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$"))
-                currentErrors.add("invalid email");
-            if (!user.getEmail().equals(userUpdates.email()) && userRepository.existsByEmail(userUpdates.email()))
-                currentErrors.add("email '" + user.getEmail() + "' is already taken");
-            if (currentErrors.isEmpty())
-                user.setEmail(userUpdates.email());
-        }
-        errors.addAll(currentErrors);
-    }
-
-    private void updateUsernameIfValid(UserEntity user, PatchUserRequestDTO userUpdates, List<String> errors) {
-        String username = userUpdates.username();
-        List<String> currentErrors = new ArrayList<>();
-        if (username != null && !username.equals(user.getUsername())) {
-            if (userUpdates.username().contains(" "))
-                currentErrors.add("username can not contain whitespaces");
-            if (username.isBlank())
-                currentErrors.add("username must not be empty");
-            if (currentErrors.isEmpty())
-                user.setUsername(username);
-        }
-        errors.addAll(currentErrors);
+        if (userUpdates.username() != null)
+            user.setUsername(userUpdates.username());
+        if (userUpdates.email() != null)
+            user.setEmail(userUpdates.email());
+        if (userUpdates.password() != null)
+            user.setPassword(userUpdates.password());
     }
 
-    private void makeUpdatesPutUser(UserEntity user, PutUserRequestDTO userUpdates) throws EmailAlreadyExistsException {
+    private void makeUpdatesPutUser(UserEntity user, PutUserRequestDTO userUpdates) {
         user.setUsername(userUpdates.username());
-        if (!userUpdates.email().equals(user.getEmail()) && userRepository.existsByEmail(userUpdates.email()))
-            throw new EmailAlreadyExistsException("email '" + userUpdates.email() + "' is already taken");
         user.setEmail(userUpdates.email());
         user.setPassword(user.getPassword());
     }
 
+    private static boolean violatesUniqueEmail(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                && violation.getConstraintName().toUpperCase().contains(UserEntity.EMAIL_CONSTRAINT);
+    }
+
+    // inside a transaction the caller needs an entity of its own persistence context; outside one
+    // the entity is detached anyway and concurrent credential checks of one email share the query
+    @Override
     public Optional<UserEntity> findUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return findLocalUserByEmail(email);
+        return singleFlight.execute("users-by-email", UserEntity.normalizeEmail(email), () -> findLocalUserByEmail(email));
+    }
+
+    // case-insensitive through the normalized column; until the backfill is done a miss also tries the raw email
+    public Optional<UserEntity> findLocalUserByEmail(String email) {
+        Optional<UserEntity> user = userRepository.findByNormalizedEmail(UserEntity.normalizeEmail(email));
+        if (user.isPresent() || backfilledShards.contains(Objects.requireNonNullElse(ShardContext.current(), 0)))
+            return user;
+        return userRepository.findUnnormalizedByEmail(email);
     }
 
 }
@@ -0,0 +1,73 @@
+package com.mindhub.todolist.validations;
+
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules of {@code PATCH /api/v1/users/{id}}, shared by the servlet and the reactive services.
+ * Only fields that are present and differ from the current values are checked. Whether a new email is
+ * taken is only known once the unique constraint rejects the write, the caller then reports
+ * {@link #emailTakenError(String)}; the rules themselves never touch the database.
+ */
+public final class UserPatchValidation {
+
+    private UserPatchValidation() {
+    }
+
+    public static List<String> validate(String currentUsername, String currentEmail, String currentPassword,
+                                        PatchUserRequestDTO userUpdates) {
+        List<String> errors = new ArrayList<>();
+        validateUsername(currentUsername, userUpdates, errors);
+        validateEmail(currentEmail, userUpdates, errors);
+        validatePassword(currentPassword, userUpdates, errors);
+        return errors;
+    }
+
+    public static String emailTakenError(String currentEmail) {
+        return "email '" + currentEmail + "' is already taken";
+    }
+
+    private static void validatePassword(String currentPassword, PatchUserRequestDTO userUpdates, List<String> errors) {
+        if (userUpdates.password() != null) {
+            if (!userUpdates.password().equals(currentPassword)) {
+                if (userUpdates.password().length() < 6 || userUpdates.password().length() > 40)
+                    errors.add("password must be between 6 and 40 characters");
+                if (userUpdates.password().isBlank())
+                    errors.add("password must not be empty");
+            } else
+                errors.add("password can not be the same");
+        }
+    }
+
+    private static boolean changesEmail(String currentEmail, PatchUserRequestDTO userUpdates) {
+        return userUpdates.email() != null && !userUpdates.email().equals(currentEmail);
+    }
+
+    private static void validateEmail(String currentEmail, PatchUserRequestDTO userUpdates, List<String> errors) {
+        if (changesEmail(currentEmail, userUpdates)) {
+            if (userUpdates.email().isBlank())
+                errors.add("email must not be empty");
+            /*
+                The following regex validates email addresses following these rules:
+                -The username can contain letters, numbers, hyphens, underscores, and dots. E.g., valid-ex.amp_le@__.__
+                -It must include an @ symbol.
+                -The domain must contain at least one valid subdomain followed by a dot. E.g., __@valid.__
+                -The domain must end with an extension of 2 to 4 characters. E.g., __@__.com | __@__.ar
+            */
+            if (!userUpdates.email().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$"))
+                errors.add("invalid email");
+        }
+    }
+
+    private static void validateUsername(String currentUsername, PatchUserRequestDTO userUpdates, List<String> errors) {
+        String username = userUpdates.username();
+        if (username != null && !username.equals(currentUsername)) {
+            if (username.contains(" "))
+                errors.add("username can not contain whitespaces");
+            if (username.isBlank())
+                errors.add("username must not be empty");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- the sample data TodolistApplication seeds
+insert into users (version, email, normalized_email, password, username) values
+    (0, 'armando@email.com', 'armando@email.com', 'password123', 'ArmandoParedes'),
+    (0, 'amelia@email.com', 'amelia@email.com', 'longerPassword544', 'amelia_1990'),
+    (0, 'josecardamomo@email.com', 'josecardamomo@email.com', 'jose-Kpo777', 'JoseCapo777');
+
+insert into tasks (version, title, description, task_status, user_id, created_at, status_changed_at, completed_at, rank) values
+    (0, 'Title of this task', 'Description for this task', 'PENDING', 1, current_timestamp, current_timestamp, null, 'V'),
+    (0, 'Do the dishes', '', 'IN_PROGRESS', 2, current_timestamp, current_timestamp, null, 'F'),
+    (0, 'Do the laundry', '', 'PENDING', 2, current_timestamp, current_timestamp, null, 'V'),
+    (0, 'Do my bed', '', 'COMPLETED', 2, current_timestamp, current_timestamp, current_timestamp, 'k'),
+    (0, 'Go to the gim', 'At 17:30', 'PENDING', 3, current_timestamp, current_timestamp, null, 'F'),
+    (0, 'Send Armando the new documents', 'Due to 8/1 until 10:00', 'COMPLETED', 3, current_timestamp, current_timestamp, current_timestamp, 'V'),
+    (0, 'Daily meet of MindHub', 'On weekdays usually at 9:10', 'IN_PROGRESS', 3, current_timestamp, current_timestamp, null, 'k');
@@ -0,0 +1,31 @@
+-- the tables Hibernate generates for UserEntity and Task, task_status is stored by name
+create table users (
+    id bigint generated by default as identity primary key,
+    version bigint,
+    username varchar(255),
+    password varchar(255) not null,
+    email varchar(255) not null,
+    normalized_email varchar(255),
+    deleted_at timestamp(6) with time zone,
+    constraint uk_users_normalized_email unique (normalized_email)
+);
+
+create index idx_users_email on users (email);
+
+create table tasks (
+    id bigint generated by default as identity primary key,
+    version bigint,
+    title varchar(255),
+    description varchar(255),
+    task_status varchar(20),
+    user_id bigint references users (id),
+    created_at timestamp(6) with time zone,
+    status_changed_at timestamp(6) with time zone,
+    completed_at timestamp(6) with time zone,
+    due_at timestamp(6) with time zone,
+    rank varchar(255),
+    overdue boolean not null default false,
+    tags varchar(600)
+);
+
+create index idx_tasks_user_id_rank on tasks (user_id, rank);
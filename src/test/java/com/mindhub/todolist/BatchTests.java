@@ -0,0 +1,72 @@
+package com.mindhub.todolist;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:batch",
+		"todolist.batch.max-ids=5",
+		"todolist.batch.chunk-size=2"})
+@AutoConfigureMockMvc
+class BatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void tasksComeBackInRequestOrderAcrossChunksWithDuplicatesAndMissingIds() throws Exception {
+		String expected = """
+				[{"id":5,"data":{"id":5,"title":"Go to the gim"}},
+				 {"id":99,"error":"task was not found"},
+				 {"id":1,"data":{"id":1,"title":"Title of this task"}},
+				 {"id":5,"data":{"id":5,"title":"Go to the gim"}},
+				 {"id":3,"data":{"id":3,"title":"Do the laundry"}}]""";
+		mockMvc.perform(get("/api/v1/tasks/batch").param("ids", "5,99,1,5,3").param("fields", "id,title"))
+				.andExpect(status().isOk())
+				.andExpect(content().json(expected, true));
+		mockMvc.perform(post("/api/v1/tasks/batch").param("fields", "id,title")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[5,99,1,5,3]}"))
+				.andExpect(status().isOk())
+				.andExpect(content().json(expected, true));
+	}
+
+	@Test
+	void usersComeBackInRequestOrderWithAnErrorForAMissingId() throws Exception {
+		mockMvc.perform(post("/api/v1/users/batch").param("fields", "email")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[3,42,1]}"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("""
+						[{"id":3,"data":{"email":"josecardamomo@email.com"}},
+						 {"id":42,"error":"user was not found"},
+						 {"id":1,"data":{"email":"armando@email.com"}}]""", true));
+	}
+
+	@Test
+	void moreIdsThanTheLimitAreRejected() throws Exception {
+		mockMvc.perform(get("/api/v1/tasks/batch").param("ids", "1,2,3,4,5,6"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"errors\":[\"at most 5 ids can be requested at once\"]}", true));
+		mockMvc.perform(post("/api/v1/users/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[1,2,3,4,5,6]}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value("at most 5 ids can be requested at once"));
+		mockMvc.perform(post("/api/v1/tasks/batch")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[]}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value("ids must not be empty"));
+	}
+}
@@ -0,0 +1,131 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.filters.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:concurrency-limit",
+		"todolist.concurrency-limit.initial-limit=4",
+		"todolist.concurrency-limit.min-per-user=1",
+		"todolist.concurrency-limit.max-user-share=0.25"})
+@AutoConfigureMockMvc
+class ConcurrencyLimitTests {
+
+	private static final String AMELIA = "\"user\":{\"email\":\"amelia@email.com\",\"password\":\"longerPassword544\"}";
+	private static final String JOSE = "\"user\":{\"email\":\"josecardamomo@email.com\",\"password\":\"jose-Kpo777\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private AdaptiveConcurrencyLimiter limiter;
+
+	@Test
+	void anonymousRequestsAreKeyedByTheClientAddressNotByThePath() throws Exception {
+		// the only slot of 127.0.0.1 is taken
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire("addr:127.0.0.1");
+		try {
+			for (String user : new String[]{"1", "2", "3"})
+				mockMvc.perform(get("/api/v1/users/" + user))
+						.andExpect(status().isTooManyRequests())
+						.andExpect(header().exists("Retry-After"));
+			mockMvc.perform(get("/api/v1/users/2").with(request -> {
+						request.setRemoteAddr("10.0.0.2");
+						return request;
+					}))
+					.andExpect(status().isOk());
+		} finally {
+			limiter.release(permit, false);
+		}
+		mockMvc.perform(get("/api/v1/users/2")).andExpect(status().isOk());
+	}
+
+	@Test
+	void authenticatedRequestsCountAgainstTheirUserWhateverTheAddress() throws Exception {
+		// the only slot of amelia is taken by a request from another address
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire("user:2");
+		try {
+			mockMvc.perform(patch("/api/v1/tasks/2").contentType(MediaType.APPLICATION_JSON).content(descriptionPatch("amelia", AMELIA)))
+					.andExpect(status().isTooManyRequests())
+					.andExpect(header().exists("Retry-After"))
+					.andExpect(jsonPath("$.errors[0]").value("too many concurrent requests, retry later"));
+			// another user from the same address is not affected
+			mockMvc.perform(patch("/api/v1/tasks/5").contentType(MediaType.APPLICATION_JSON).content(descriptionPatch("jose", JOSE)))
+					.andExpect(status().isOk());
+		} finally {
+			limiter.release(permit, false);
+		}
+		mockMvc.perform(patch("/api/v1/tasks/2").contentType(MediaType.APPLICATION_JSON).content(descriptionPatch("amelia", AMELIA)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void aPermitMovesFromTheAddressToTheUserOnlyWhenTheUserHasRoom() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), 4, 1, 100, 1, 0.25, 2.0, 0.9, 1000);
+		assertEquals(1, limiter.getUserLimit());
+		AdaptiveConcurrencyLimiter.Permit first = limiter.transfer(limiter.tryAcquire("addr:a"), "user:1");
+		assertEquals("user:1", first.userKey());
+
+		AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire("addr:a");
+		assertNotNull(second);
+		assertNull(limiter.transfer(second, "user:1"));
+		assertNull(limiter.tryAcquire("addr:a"));
+		limiter.release(second, false);
+		assertNotNull(limiter.tryAcquire("addr:a"));
+	}
+
+	@Test
+	void aUserCanHoldOnlyItsShareOfTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = limiter(1000);
+		assertEquals(5, limiter.getUserLimit());
+		for (int i = 0; i < 5; i++)
+			assertNotNull(limiter.tryAcquire("a"));
+		assertNull(limiter.tryAcquire("a"));
+		assertNotNull(limiter.tryAcquire("b"));
+	}
+
+	@Test
+	void sustainedOverloadKeepsBackingOffAcrossAWindowBoundary() {
+		AdaptiveConcurrencyLimiter limiter = limiter(10);
+		for (int i = 0; i < 10; i++)
+			respond(limiter, 1_000_000);
+		int limitBefore = limiter.getLimit();
+		for (int i = 0; i < 10; i++)
+			respond(limiter, 100_000_000);
+		int limitAtBoundary = limiter.getLimit();
+		assertTrue(limitAtBoundary < limitBefore);
+
+		// the window that started under overload is not taken as the no-load latency yet
+		for (int i = 0; i < 5; i++)
+			respond(limiter, 100_000_000);
+		assertTrue(limiter.getLimit() < limitAtBoundary);
+	}
+
+	private static String descriptionPatch(String description, String user) {
+		return "{\"description\":\"" + description + "\"," + user + "}";
+	}
+
+	private static AdaptiveConcurrencyLimiter limiter(long minLatencyWindow) {
+		return new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), 10, 1, 100, 1, 0.5, 2.0, 0.9, minLatencyWindow);
+	}
+
+	private static void respond(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+		AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire("client");
+		limiter.release(new AdaptiveConcurrencyLimiter.Permit(permit.userKey(), System.nanoTime() - latencyNanos), false);
+	}
+}
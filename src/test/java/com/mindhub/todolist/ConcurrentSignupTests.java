@@ -0,0 +1,117 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:concurrent-signup",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"todolist.concurrency-limit.enabled=false"})
+@AutoConfigureMockMvc
+class ConcurrentSignupTests {
+
+	private static final int SIGNUPS_PER_EMAIL = 16;
+	private static final int EMAILS = 10;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void concurrentSignupsWithOneEmailCreateExactlyOneUser() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(SIGNUPS_PER_EMAIL);
+		try {
+			for (int email = 0; email < EMAILS; email++) {
+				String body = signup("racer" + email + "@email.com");
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<MvcResult>> signups = new ArrayList<>();
+				for (int i = 0; i < SIGNUPS_PER_EMAIL; i++)
+					signups.add(executor.submit(() -> {
+						start.await();
+						return mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+					}));
+				start.countDown();
+
+				int created = 0;
+				for (Future<MvcResult> signup : signups) {
+					MvcResult result = signup.get();
+					if (result.getResponse().getStatus() == 201) {
+						created++;
+						continue;
+					}
+					assertEquals(400, result.getResponse().getStatus());
+					assertEquals("{\"errors\":[\"email already taken\"]}", result.getResponse().getContentAsString());
+				}
+				assertEquals(1, created);
+				assertEquals(1, userRepository.findAllByNormalizedEmailIn(List.of("racer" + email + "@email.com")).size());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void theUniqueConstraintIsTheOnlyEmailCheck() throws Exception {
+		// one INSERT per signup, taken or not, where @UniqueEmail used to query first
+		statistics.clear();
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content(signup("single@email.com")))
+				.andExpect(status().isCreated());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content(signup("single@email.com")))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"errors\":[\"email already taken\"]}"));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		// an email change is the lookup and the UPDATE, without an existsByEmail in between
+		statistics.clear();
+		mockMvc.perform(put("/api/v1/users/1").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"ArmandoParedes\",\"email\":\"single@email.com\",\"password\":\"password123\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"errors\":[\"email 'single@email.com' is already taken\"]}"));
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		mockMvc.perform(patch("/api/v1/users/1").contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"single@email.com\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"errors\":[\"email 'armando@email.com' is already taken\"]}"));
+	}
+
+	private static String signup(String email) {
+		return "{\"username\":\"racer\",\"email\":\"" + email + "\",\"password\":\"password123\"}";
+	}
+}
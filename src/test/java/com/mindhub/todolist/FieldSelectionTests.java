@@ -0,0 +1,77 @@
+package com.mindhub.todolist;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.models.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:field-selection",
+		"spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+class FieldSelectionTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void anUnknownFieldIsRejectedWithTheAcceptedOnes() throws Exception {
+		mockMvc.perform(get("/api/v1/tasks").param("fields", "id,color"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value(startsWith("invalid fields [color]. Accepted values: [createdAt, ")));
+		mockMvc.perform(get("/api/v1/users/1").param("fields", "password"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value("invalid fields [password]. Accepted values: [email, id, tasks, username]"));
+	}
+
+	@Test
+	void onlyTheRequestedKeysAreWritten() throws Exception {
+		assertEquals(Set.of("id", "title"), object("/api/v1/tasks/1?fields=id,title").keySet());
+		assertEquals(Set.of("id", "email"), object("/api/v1/users/1?fields=id,email").keySet());
+		List<Map<String, Object>> tasks = objectMapper.readValue(body("/api/v1/tasks?fields=taskStatus,user"), new TypeReference<>() {});
+		assertTrue(tasks.size() >= 7, tasks.size() + " tasks");
+		tasks.forEach(task -> assertEquals(Set.of("taskStatus", "user"), task.keySet()));
+	}
+
+	@Test
+	void theOwnerIsOnlyLoadedWhenTheUserFieldIsSelected() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		body("/api/v1/tasks?fields=id,title");
+		body("/api/v1/tasks/2?fields=id,title");
+		assertEquals(0, statistics.getEntityStatistics(UserEntity.class.getName()).getLoadCount());
+
+		body("/api/v1/tasks?fields=id,user");
+		assertTrue(statistics.getEntityStatistics(UserEntity.class.getName()).getLoadCount() > 0);
+	}
+
+	private Map<String, Object> object(String uri) throws Exception {
+		return objectMapper.readValue(body(uri), new TypeReference<>() {});
+	}
+
+	private String body(String uri) throws Exception {
+		return mockMvc.perform(get(uri)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+	}
+}
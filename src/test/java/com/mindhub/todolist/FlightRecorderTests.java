@@ -0,0 +1,130 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.controllers.FlightRecordingController;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.flightrecorder.FlightRecording;
+import com.mindhub.todolist.flightrecorder.RepositoryCallEvent;
+import com.mindhub.todolist.flightrecorder.ServiceOperationEvent;
+import com.mindhub.todolist.flightrecorder.ServicePhaseEvent;
+import com.mindhub.todolist.services.TaskService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:flight-recorder",
+		"todolist.admin.enabled=true"})
+@AutoConfigureMockMvc
+class FlightRecorderTests {
+
+	@Autowired
+	private TaskService taskService;
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void createTaskRecordsItsOperationPhasesAndRepositoryCallsWithIds(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("create-task.jfr");
+		TaskDTO task;
+		try (Recording recording = new Recording()) {
+			recording.enable(ServiceOperationEvent.class);
+			recording.enable(ServicePhaseEvent.class);
+			recording.enable(RepositoryCallEvent.class);
+			recording.start();
+			task = taskService.createTask(new NewTaskRequestDTO("recorded", "", null, null, null,
+					new UserTaskRequestDTO("amelia@email.com", "longerPassword544"))).getBody();
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+		RecordedEvent operation = events.stream()
+				.filter(event -> event.getEventType().getName().equals("com.mindhub.todolist.ServiceOperation"))
+				.filter(event -> event.getString("operation").equals("createTask"))
+				.findFirst().orElseThrow();
+		assertEquals("ok", operation.getString("outcome"));
+		assertEquals(2, operation.getLong("userId"));
+		assertEquals(task.getId(), operation.getLong("taskId"));
+
+		List<String> phases = events.stream()
+				.filter(event -> event.getEventType().getName().equals("com.mindhub.todolist.ServicePhase"))
+				.filter(event -> event.getString("operation").equals("createTask"))
+				.map(event -> event.getString("phase"))
+				.toList();
+		assertEquals(List.of("auth", "validation", "save", "mapping"), phases);
+
+		assertTrue(events.stream()
+				.filter(event -> event.getEventType().getName().equals("com.mindhub.todolist.RepositoryCall"))
+				.anyMatch(event -> event.getString("method").equals("save") && event.getString("operation").equals("createTask")
+						&& event.getLong("userId") == 2));
+	}
+
+	@Test
+	void theEndpointsAnswerConflictsWith409AndDumpsLeaveOutTheEnvironment(@TempDir Path directory) throws Exception {
+		mockMvc.perform(post("/api/v1/admin/recording/stop"))
+				.andExpect(status().isConflict())
+				.andExpect(content().json("{\"errors\":[\"no recording is running\"]}", true));
+		mockMvc.perform(get("/api/v1/admin/recording/dump"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.errors[0]").value("no recording was started"));
+
+		mockMvc.perform(post("/api/v1/admin/recording/start"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.state").value("RUNNING"));
+		try {
+			taskService.createTask(new NewTaskRequestDTO("dumped", "", null, null, null,
+					new UserTaskRequestDTO("amelia@email.com", "longerPassword544")));
+			Path file = directory.resolve("dump.jfr");
+			Files.write(file, mockMvc.perform(get("/api/v1/admin/recording/dump"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsByteArray());
+
+			List<String> eventTypes = RecordingFile.readAllEvents(file).stream()
+					.map(event -> event.getEventType().getName())
+					.toList();
+			assertTrue(eventTypes.contains("com.mindhub.todolist.ServiceOperation"));
+			assertFalse(eventTypes.contains("jdk.InitialEnvironmentVariable"));
+			assertFalse(eventTypes.contains("jdk.InitialSystemProperty"));
+		} finally {
+			mockMvc.perform(post("/api/v1/admin/recording/stop"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.state").value("STOPPED"));
+		}
+		mockMvc.perform(post("/api/v1/admin/recording/stop")).andExpect(status().isConflict());
+	}
+
+	@Test
+	void theEndpointsAreOnlyMappedWhenAdminEndpointsAreEnabled() {
+		ApplicationContextRunner runner = new ApplicationContextRunner()
+				.withBean(FlightRecording.class, () -> new FlightRecording("default", Duration.ofMinutes(1), DataSize.ofMegabytes(1), Duration.ZERO))
+				.withUserConfiguration(FlightRecordingController.class);
+		runner.run(context -> assertThat(context).doesNotHaveBean(FlightRecordingController.class));
+		runner.withPropertyValues("todolist.admin.enabled=true")
+				.run(context -> assertThat(context).hasSingleBean(FlightRecordingController.class));
+	}
+}
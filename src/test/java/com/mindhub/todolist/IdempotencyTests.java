@@ -0,0 +1,94 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.filters.IdempotencyStore;
+import com.mindhub.todolist.repositories.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:idempotency",
+		"todolist.idempotency.wait-timeout=PT0.2S"})
+@AutoConfigureMockMvc
+class IdempotencyTests {
+
+	private static final String TASK = "{\"title\":\"once\",\"description\":\"\",\"user\":{\"email\":\"amelia@email.com\",\"password\":\"longerPassword544\"}}";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Test
+	void aRetryIsAnsweredWithTheFirstResponse() throws Exception {
+		long tasks = taskRepository.count();
+		MvcResult first = mockMvc.perform(post("/api/v1/tasks").header("Idempotency-Key", "retry")
+						.contentType(MediaType.APPLICATION_JSON).content(TASK))
+				.andExpect(status().isCreated())
+				.andReturn();
+		mockMvc.perform(post("/api/v1/tasks").header("Idempotency-Key", "retry")
+						.contentType(MediaType.APPLICATION_JSON).content(TASK))
+				.andExpect(status().isCreated())
+				.andExpect(header().string("Idempotent-Replayed", "true"))
+				.andExpect(content().string(first.getResponse().getContentAsString()));
+		assertEquals(tasks + 1, taskRepository.count());
+	}
+
+	@Test
+	void aKeyReusedWithAnotherBodyIsRejected() throws Exception {
+		mockMvc.perform(post("/api/v1/tasks").header("Idempotency-Key", "reused")
+						.contentType(MediaType.APPLICATION_JSON).content(TASK))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/v1/tasks").header("Idempotency-Key", "reused")
+						.contentType(MediaType.APPLICATION_JSON).content(TASK.replace("once", "twice")))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(content().json("{\"errors\":[\"Idempotency-Key was already used with a different request\"]}"));
+	}
+
+	@Test
+	void aRetryWhileTheFirstRequestRunsTimesOut() throws Exception {
+		// the first request never finishes
+		idempotencyStore.claim("/api/v1/tasks:in-flight", MessageDigest.getInstance("SHA-256").digest(TASK.getBytes(StandardCharsets.UTF_8)));
+		mockMvc.perform(post("/api/v1/tasks").header("Idempotency-Key", "in-flight")
+						.contentType(MediaType.APPLICATION_JSON).content(TASK))
+				.andExpect(status().isConflict())
+				.andExpect(content().json("{\"errors\":[\"a request with the same Idempotency-Key is still in progress\"]}"));
+	}
+
+	@Test
+	void theOldestCompletedEntriesAreEvictedFirst() {
+		IdempotencyStore store = new IdempotencyStore(Duration.ofHours(1), 2);
+		byte[] fingerprint = new byte[0];
+		IdempotencyStore.Claim inFlight = store.claim("in-flight", fingerprint);
+		for (String key : new String[]{"a", "b", "c"}) {
+			IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+			store.complete(claim.entry(), new IdempotencyStore.StoredResponse(201, null, null, new byte[0]));
+		}
+		// the in-flight head is kept, so nothing behind it was evicted yet
+		assertFalse(store.claim("a", fingerprint).owner());
+		store.complete(inFlight.entry(), new IdempotencyStore.StoredResponse(201, null, null, new byte[0]));
+
+		// the next claim evicts down to the newest two
+		assertTrue(store.claim("d", fingerprint).owner());
+		assertFalse(store.claim("c", fingerprint).owner());
+		assertTrue(store.claim("b", fingerprint).owner());
+	}
+}
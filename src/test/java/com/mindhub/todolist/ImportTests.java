@@ -0,0 +1,95 @@
+package com.mindhub.todolist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:import",
+		"todolist.import.batch-size=2"})
+@AutoConfigureMockMvc
+class ImportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void csvUsersAreImportedPastRejectedRowsAndDuplicateEmails() throws Exception {
+		String csv = """
+				username,email,password
+				first_import,first.import@email.com,password123
+				invalid,not-an-email,password123
+				again,First.Import@Email.com,password123
+				taken,ARMANDO@email.com,password123
+				second_import,second.import@email.com,password123
+				""";
+
+		List<String> events = importBody("/api/v1/users/import", "text/csv", csv);
+
+		assertEquals(List.of(
+				"{\"type\":\"error\",\"line\":3,\"errors\":[\"invalid email\"]}",
+				"{\"type\":\"error\",\"line\":4,\"errors\":[\"email 'First.Import@Email.com' is already taken\"]}",
+				"{\"type\":\"progress\",\"rows\":3,\"imported\":1,\"failed\":2}",
+				"{\"type\":\"error\",\"line\":5,\"errors\":[\"email 'ARMANDO@email.com' is already taken\"]}",
+				"{\"type\":\"progress\",\"rows\":5,\"imported\":2,\"failed\":3}",
+				"{\"type\":\"done\",\"rows\":5,\"imported\":2,\"failed\":3}"), events);
+		assertEquals(List.of("first_import", "second_import"), jdbcTemplate.queryForList(
+				"select username from users where email like '%.import@email.com' order by id", String.class));
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"select count(*) from users where normalized_email = 'armando@email.com'", Integer.class));
+	}
+
+	@Test
+	void ndjsonTasksAreImportedForTheirOwnersOnlyWithTheRightPassword() throws Exception {
+		String ndjson = """
+				{"title":"imported first","user":{"email":"amelia@email.com","password":"longerPassword544"}}
+				{"title":"wrong password","user":{"email":"amelia@email.com","password":"password123"}}
+				{"title":"","user":{"email":"amelia@email.com","password":"longerPassword544"}}
+				{"title":"imported second","taskStatus":"IN_PROGRESS","user":{"email":"Amelia@Email.com","password":"longerPassword544"}}
+				{"title":
+				""";
+
+		List<String> events = importBody("/api/v1/tasks/import", "application/x-ndjson", ndjson);
+
+		assertEquals(List.of(
+				"{\"type\":\"error\",\"line\":2,\"errors\":[\"email or password are incorrect\"]}",
+				"{\"type\":\"progress\",\"rows\":2,\"imported\":1,\"failed\":1}",
+				"{\"type\":\"error\",\"line\":3,\"errors\":[\"either title or description must have text\"]}",
+				"{\"type\":\"progress\",\"rows\":4,\"imported\":2,\"failed\":2}"), events.subList(0, 4));
+		JsonNode malformed = objectMapper.readTree(events.get(4));
+		assertEquals("error", malformed.get("type").asText());
+		assertEquals(5, malformed.get("line").asLong());
+		assertTrue(malformed.get("errors").get(0).asText().startsWith("invalid JSON"), malformed.toString());
+		assertEquals("{\"type\":\"done\",\"rows\":5,\"imported\":2,\"failed\":3}", events.get(5));
+		assertEquals(6, events.size());
+
+		// after amelia's seeded tasks, in file order
+		List<String> titles = jdbcTemplate.queryForList(
+				"select t.title from tasks t join users u on u.id = t.user_id where u.email = 'amelia@email.com' order by t.rank", String.class);
+		assertEquals(List.of("imported first", "imported second"), titles.subList(titles.size() - 2, titles.size()));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from tasks where title = 'wrong password'", Integer.class));
+	}
+
+	private List<String> importBody(String uri, String contentType, String body) throws Exception {
+		return mockMvc.perform(post(uri).contentType(contentType).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString()
+				.lines().toList();
+	}
+}
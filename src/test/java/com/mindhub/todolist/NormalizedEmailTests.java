@@ -0,0 +1,77 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.models.UserEntity;
+import com.mindhub.todolist.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:normalized-email",
+		"todolist.email-backfill.initial-delay=PT1H"})
+@AutoConfigureMockMvc
+class NormalizedEmailTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void emailsAreMatchedAndReservedRegardlessOfCase() throws Exception {
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"mixed\",\"email\":\"Mixed.Case@Email.com\",\"password\":\"password123\"}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"mixed\",\"email\":\"mixed.case@email.com\",\"password\":\"password123\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"errors\":[\"email already taken\"]}"));
+
+		mockMvc.perform(post("/api/v1/tasks").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"case\",\"description\":\"\",\"user\":{\"email\":\"MIXED.CASE@EMAIL.COM\",\"password\":\"password123\"}}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/api/v1/tasks").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"case\",\"description\":\"\",\"user\":{\"email\":\"Amelia@Email.com\",\"password\":\"longerPassword544\"}}"))
+				.andExpect(status().isCreated());
+	}
+
+	@Test
+	void theBackfillNormalizesRowsWrittenBeforeTheColumnExisted() {
+		jdbcTemplate.update("insert into users (version, username, email, password) values (0, 'legacy', 'Legacy@Email.com', 'password123')");
+		// only differs in case from a user that is already normalized
+		jdbcTemplate.update("insert into users (version, username, email, normalized_email, password) values (0, 'taken', 'twin@email.com', 'twin@email.com', 'password123')");
+		jdbcTemplate.update("insert into users (version, username, email, password) values (0, 'twin', 'Twin@Email.com', 'password123')");
+
+		// found by its exact email until the backfill reaches it
+		assertEquals("Legacy@Email.com", userService.findUserByEmail("Legacy@Email.com").orElseThrow().getEmail());
+		assertEquals(1, userService.backfillNormalizedEmails());
+		assertEquals(0, userService.backfillNormalizedEmails());
+
+		UserEntity user = userService.findUserByEmail("legacy@email.com").orElseThrow();
+		assertEquals("Legacy@Email.com", user.getEmail());
+		assertEquals("legacy@email.com", user.getNormalizedEmail());
+
+		// the conflict did not keep the backfill from finishing, lookups no longer try the raw email
+		jdbcTemplate.update("insert into users (version, username, email, password) values (0, 'late', 'Late@Email.com', 'password123')");
+		assertTrue(userService.findUserByEmail("Late@Email.com").isEmpty());
+		jdbcTemplate.update("delete from users where username = 'late'");
+
+		// once the other user moved to another email the skipped row is normalized on the next run
+		jdbcTemplate.update("update users set email = 'moved@email.com', normalized_email = 'moved@email.com' where username = 'taken'");
+		assertEquals(1, userService.backfillNormalizedEmails());
+		assertEquals("twin", userService.findUserByEmail("twin@email.com").orElseThrow().getUsername());
+		assertEquals(0, userService.backfillNormalizedEmails());
+	}
+}
@@ -0,0 +1,54 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.datasources.FileStorage;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.repositories.UserRepository;
+import com.mindhub.todolist.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentStorageTests {
+
+	@Test
+	void dataSurvivesARestartWithoutBeingSeededAgain(@TempDir Path directory) throws Exception {
+		try (ConfigurableApplicationContext context = start(directory)) {
+			context.getBean(UserService.class).createUser(new NewUserRequestDTO("kept", "kept@email.com", "password123"));
+			FileStorage fileStorage = context.getBean(FileStorage.class);
+			fileStorage.checkpoint();
+			fileStorage.compact();
+			assertTrue(fileStorage.fileSize() > 0);
+
+			// a scrape reads the store without borrowing a pooled connection
+			MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+			Timer borrowed = meterRegistry.get("hikaricp.connections.usage").timer();
+			long borrowedBefore = borrowed.count();
+			assertTrue(meterRegistry.get("todolist.storage.file-size").gauge().value() > 0);
+			assertTrue(meterRegistry.get("todolist.storage.fill-rate").gauge().value() > 0);
+			assertEquals(borrowedBefore, borrowed.count());
+		}
+		assertTrue(Files.exists(directory.resolve("to-do-list.mv.db")));
+
+		try (ConfigurableApplicationContext context = start(directory)) {
+			assertEquals(4, context.getBean(UserRepository.class).count());
+			assertEquals(7, context.getBean(TaskRepository.class).count());
+			assertTrue(context.getBean(UserService.class).findUserByEmail("kept@email.com").isPresent());
+		}
+	}
+
+	private static ConfigurableApplicationContext start(Path directory) {
+		// arguments, default properties would lose to application.yml
+		return new SpringApplicationBuilder(TodolistApplication.class)
+				.run("--server.port=0", "--todolist.storage.persistent=true", "--todolist.storage.directory=" + directory);
+	}
+}
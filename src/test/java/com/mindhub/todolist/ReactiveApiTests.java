@@ -0,0 +1,80 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.reactive.ReactiveTodolistApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ReactiveTodolistApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {
+				"spring.config.name=reactive",
+				"spring.main.web-application-type=reactive",
+				"spring.r2dbc.url=r2dbc:h2:mem:///reactive-api;DB_CLOSE_DELAY=-1"})
+class ReactiveApiTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void createsAUserAndRejectsItsEmailAgainWithTheServletErrorFormat() {
+		String user = "{\"username\":\"reactive\",\"email\":\"reactive@email.com\",\"password\":\"password123\"}";
+		webTestClient.post().uri("/api/v1/users").contentType(MediaType.APPLICATION_JSON).bodyValue(user)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody()
+				.jsonPath("$.id").isNumber()
+				.jsonPath("$.email").isEqualTo("reactive@email.com")
+				.jsonPath("$.username").isEqualTo("reactive")
+				.jsonPath("$.password").doesNotExist();
+
+		// the unique constraint is on the normalized email, so only the case differs here
+		webTestClient.post().uri("/api/v1/users").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(user.replace("reactive@email.com", "Reactive@Email.com"))
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().json("{\"errors\":[\"email already taken\"]}", true);
+	}
+
+	@Test
+	void invalidBodiesAreRejectedWithEveryFieldError() {
+		webTestClient.post().uri("/api/v1/users").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"username\":\"two words\",\"email\":\"invalid\",\"password\":\"short\"}")
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.errors.length()").isEqualTo(3)
+				.jsonPath("$.errors[?(@ == 'invalid email')]").exists();
+	}
+
+	@Test
+	void theUserListIsStreamedAsAJsonArrayOrAsNdjson() {
+		webTestClient.get().uri("/api/v1/users?fields=id,email").accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].email").isEqualTo("armando@email.com")
+				.jsonPath("$[0].username").doesNotExist()
+				.jsonPath("$[2].email").isEqualTo("josecardamomo@email.com");
+
+		List<Map<String, Object>> users = webTestClient.get().uri("/api/v1/users").accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(new ParameterizedTypeReference<Map<String, Object>>() {})
+				.getResponseBody()
+				.collectList()
+				.block();
+		assertTrue(users.size() >= 3, users.size() + " users");
+		assertEquals(List.of("armando@email.com", "amelia@email.com", "josecardamomo@email.com"),
+				users.subList(0, 3).stream().map(user -> user.get("email")).toList());
+	}
+}
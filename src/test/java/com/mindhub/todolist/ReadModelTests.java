@@ -0,0 +1,111 @@
+package com.mindhub.todolist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.PatchTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.PatchUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.exceptions.TaskNotFoundException;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.readmodel.ReadModel;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.UserService;
+import com.mindhub.todolist.services.implementations.TaskServiceImp;
+import com.mindhub.todolist.services.implementations.UserServiceImp;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:read-model",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"todolist.read-model.enabled=true",
+		"todolist.read-model.batch-size=2"})
+class ReadModelTests {
+
+	@Autowired
+	private TaskService taskService;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private TaskServiceImp taskServiceImp;
+	@Autowired
+	private UserServiceImp userServiceImp;
+	@Autowired
+	private ReadModel readModel;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Test
+	void readsFromMemoryMatchTheDatabaseAfterWrites() throws Exception {
+		assertTrue(readModel.isLoaded());
+		UserTaskRequestDTO amelia = new UserTaskRequestDTO("amelia@email.com", "longerPassword544");
+		TaskDTO created = taskService.createTask(new NewTaskRequestDTO("read model", "", null, null, Set.of("cqrs"), amelia)).getBody();
+		taskService.updatePatchTask(created.getId(), new PatchTaskRequestDTO(null, "patched", TaskStatus.COMPLETED, null, Set.of("cqrs", "memory"), amelia));
+		taskService.deleteTask(4L, amelia);
+		userService.updatePatchUser(3L, new PatchUserRequestDTO("Jose", null, null));
+		userService.deleteUser(1L, true);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		String allTasks = json(taskService.getAllTasksDTO(false, null).getBody());
+		String createdTask = json(taskService.getTaskDTOById(created.getId(), false, Set.of("id", "description", "tags", "user")).getBody());
+		String amelia2 = json(userService.getUserDTOById(2L, null).getBody());
+		String jose = json(userService.getUserDTOById(3L, Set.of("username", "tasks")).getBody());
+		assertThrows(TaskNotFoundException.class, () -> taskService.getTaskDTOById(4L, false, null));
+		assertThrows(TaskNotFoundException.class, () -> taskService.getTaskDTOById(1L, false, null));
+		assertThrows(UserNotFoundException.class, () -> userService.getUserDTOById(1L, null));
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		assertEquals(json(taskServiceImp.getAllTasksDTO(false, null).getBody()), allTasks);
+		assertEquals(json(taskServiceImp.getTaskDTOById(created.getId(), false, Set.of("id", "description", "tags", "user")).getBody()), createdTask);
+		assertEquals(json(userServiceImp.getUserDTOById(2L, null).getBody()), amelia2);
+		assertEquals(json(userServiceImp.getUserDTOById(3L, Set.of("username", "tasks")).getBody()), jose);
+
+		// a rebuild from the database gives the same answers
+		readModel.rebuild();
+		assertEquals(allTasks, json(taskService.getAllTasksDTO(false, null).getBody()));
+		assertEquals(amelia2, json(userService.getUserDTOById(2L, null).getBody()));
+	}
+
+	@Test
+	void aPutPublishedAfterTheDeleteDoesNotBringTheTaskBack() throws Exception {
+		Task stale = taskRepository.findByIdWithUser(5L).orElseThrow();
+		taskService.deleteTask(5L, new UserTaskRequestDTO("josecardamomo@email.com", "jose-Kpo777"));
+
+		// the put of a write that committed before the delete, published after it
+		readModel.recordTaskAfterCommit(stale);
+		assertThrows(TaskNotFoundException.class, () -> taskService.getTaskDTOById(5L, false, null));
+		assertEquals(json(taskServiceImp.getAllTasksDTO(false, null).getBody()), json(taskService.getAllTasksDTO(false, null).getBody()));
+
+		// a task restored from the archive continues after the version it was removed at
+		ReflectionTestUtils.setField(stale, "version", stale.getVersion() + 1);
+		readModel.recordTaskAfterCommit(stale);
+		assertEquals(5L, taskService.getTaskDTOById(5L, false, null).getBody().getId());
+
+		readModel.rebuild();
+		assertThrows(TaskNotFoundException.class, () -> taskService.getTaskDTOById(5L, false, null));
+	}
+
+	private String json(Object body) throws Exception {
+		return objectMapper.writeValueAsString(body);
+	}
+}
@@ -0,0 +1,64 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.datasources.ReadWriteRoutingDataSource;
+import com.mindhub.todolist.datasources.ReplicaSynchronizer;
+import jakarta.servlet.http.Cookie;
+import org.h2.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ReadReplicaTests.PRIMARY_URL,
+		"todolist.datasource.replica.enabled=true",
+		"todolist.datasource.replica.url=jdbc:h2:mem:read-replica-copy;DB_CLOSE_DELAY=-1",
+		// only the scheduled run at startup, the test synchronizes by hand
+		"todolist.datasource.replica.sync-interval=PT1H"})
+@AutoConfigureMockMvc
+class ReadReplicaTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:read-replica;DB_CLOSE_DELAY=-1";
+	private static final String REPLICATED_USER = "$[?(@.email == 'replicated@email.com')]";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ReplicaSynchronizer replicaSynchronizer;
+
+	@Test
+	void readsGoToTheReplicaUnlessTheClientWroteSomethingItHasNotApplied() throws Exception {
+		replicaSynchronizer.synchronize();
+		// written behind the synchronizer's back, so only the primary has it
+		new JdbcTemplate(new SimpleDriverDataSource(new Driver(), PRIMARY_URL, "sa", "")).update(
+				"insert into users (version, username, email, normalized_email, password)"
+						+ " values (0, 'replicated', 'replicated@email.com', 'replicated@email.com', 'password123')");
+
+		mockMvc.perform(get("/api/v1/users"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].email").value("armando@email.com"))
+				.andExpect(jsonPath(REPLICATED_USER).isEmpty());
+
+		Cookie newerWrite = new Cookie(ReadWriteRoutingDataSource.WRITE_VERSION_COOKIE,
+				String.valueOf(replicaSynchronizer.getReplicaVersion() + 1));
+		mockMvc.perform(get("/api/v1/users").cookie(newerWrite))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath(REPLICATED_USER).isNotEmpty());
+
+		replicaSynchronizer.markPrimaryWrite();
+		replicaSynchronizer.synchronize();
+		mockMvc.perform(get("/api/v1/users"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath(REPLICATED_USER).isNotEmpty());
+		mockMvc.perform(get("/api/v1/users").cookie(newerWrite))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath(REPLICATED_USER).isNotEmpty());
+	}
+}
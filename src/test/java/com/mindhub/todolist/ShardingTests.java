@@ -0,0 +1,166 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.controllers.ShardController;
+import com.mindhub.todolist.datasources.ShardManager;
+import com.mindhub.todolist.dtos.task.NewTaskRequestDTO;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.dtos.user.NewUserRequestDTO;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.dtos.user.UserTaskRequestDTO;
+import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.UserService;
+import org.h2.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sharding",
+		"todolist.sharding.enabled=true",
+		"todolist.sharding.active-shards=2",
+		"todolist.sharding.urls[0]=jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1",
+		"todolist.sharding.urls[1]=jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1",
+		"todolist.sharding.urls[2]=jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1",
+		"todolist.admin.enabled=true"})
+@AutoConfigureMockMvc
+class ShardingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ShardManager shardManager;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private TaskService taskService;
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void usersAndTheirTasksAreRoutedToTheShardTheirIdMapsTo() throws Exception {
+		UserDTO user = userService.createUser(new NewUserRequestDTO("sharded", "sharded@email.com", "password123")).getBody();
+		TaskDTO task = taskService.createTask(new NewTaskRequestDTO("sharded task", "", null, null, null,
+				new UserTaskRequestDTO("sharded@email.com", "password123"))).getBody();
+		assertEquals(shardManager.shardOf(user.getId()), shardManager.shardOf(task.getId()));
+
+		assertPlacement();
+		mockMvc.perform(get("/api/v1/tasks/" + task.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("sharded task"));
+		// lists are merged from every shard in id order
+		List<Long> userIds = userService.getAllUsersDTO(null).getBody().stream().map(UserDTO::getId).toList();
+		assertThat(userIds).contains(user.getId()).isSorted();
+	}
+
+	@Test
+	void rebalanceMovesEveryUserWithItsTasks() throws Exception {
+		long users = userService.getAllUsers().size();
+		long tasks = taskService.getAllTasksDTO(false, null).getBody().size();
+
+		mockMvc.perform(post("/api/v1/admin/shards/rebalance").param("shards", "3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[2].active").value(true));
+		try {
+			assertEquals(3, shardManager.getActiveShards());
+			assertPlacement();
+			assertEquals(users, userService.getAllUsers().size());
+			assertEquals(tasks, taskService.getAllTasksDTO(false, null).getBody().size());
+			for (UserDTO user : userService.getAllUsersDTO(null).getBody())
+				mockMvc.perform(get("/api/v1/users/" + user.getId())).andExpect(status().isOk());
+			// moved tasks keep their ids and are still found by id
+			for (TaskDTO task : taskService.getAllTasksDTO(false, null).getBody())
+				mockMvc.perform(get("/api/v1/tasks/" + task.getId())).andExpect(status().isOk());
+
+			// the striped identities keep handing out ids of the shard a new user is created on
+			UserDTO created = userService.createUser(new NewUserRequestDTO("rebalanced", "rebalanced@email.com", "password123")).getBody();
+			assertPlacement();
+			mockMvc.perform(get("/api/v1/users/" + created.getId())).andExpect(status().isOk());
+		} finally {
+			mockMvc.perform(post("/api/v1/admin/shards/rebalance").param("shards", "2")).andExpect(status().isOk());
+		}
+		assertPlacement();
+		assertFalse(shardManager.getStatus().get(2).active());
+		assertEquals(0, shardManager.getStatus().get(2).users());
+	}
+
+	@Test
+	void rebalanceRejectsAShardCountOutsideTheConfiguredUrls() throws Exception {
+		mockMvc.perform(post("/api/v1/admin/shards/rebalance").param("shards", "4"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]").value("shards must be between 1 and 3"));
+	}
+
+	@Test
+	void everyShardHasItsSchemaBeforeScheduledJobsStart() {
+		assertEquals(List.of(true, true, true), SchemaAtRefresh.tasksTablePerShard);
+	}
+
+	@Test
+	void adminEndpointsAreOnlyMappedWhenEnabled() {
+		ApplicationContextRunner runner = new ApplicationContextRunner()
+				.withBean(ShardManager.class, () -> new ShardManager(List.of(new SimpleDriverDataSource()), 1, null))
+				.withUserConfiguration(ShardController.class)
+				.withPropertyValues("todolist.sharding.enabled=true");
+		runner.run(context -> assertThat(context).doesNotHaveBean(ShardController.class));
+		runner.withPropertyValues("todolist.admin.enabled=true")
+				.run(context -> assertThat(context).hasSingleBean(ShardController.class));
+	}
+
+	// @Scheduled jobs are started on this event, so every table they touch must exist by then
+	@TestConfiguration
+	static class SchemaAtRefresh {
+
+		static volatile List<Boolean> tasksTablePerShard;
+
+		@EventListener(ContextRefreshedEvent.class)
+		void recordTables() {
+			List<Boolean> tables = new ArrayList<>();
+			for (int shard = 0; shard < 3; shard++) {
+				DataSource source = new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:sharding-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+				tables.add(new JdbcTemplate(source).queryForObject(
+						"select count(*) from information_schema.tables where table_name = 'TASKS'", Integer.class) == 1);
+			}
+			tasksTablePerShard = tables;
+		}
+	}
+
+	// every user, task and archived task sits on the shard its owner's id maps to, and no other.
+	// Task ids only map to their shard until a rebalance moves the owner.
+	private void assertPlacement() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		List<Long> seen = new ArrayList<>();
+		for (int shard = 0; shard < shardManager.getActiveShards(); shard++) {
+			try (ShardManager.Scope ignored = shardManager.enter(shard)) {
+				for (Long userId : jdbc.queryForList("select id from users", Long.class)) {
+					assertEquals(shard, shardManager.shardOf(userId), "user " + userId);
+					seen.add(userId);
+				}
+				for (Long ownerId : jdbc.queryForList("select user_id from tasks union select user_id from tasks_archive", Long.class))
+					assertEquals(shard, shardManager.shardOf(ownerId), "owner " + ownerId);
+			}
+		}
+		assertEquals(Set.copyOf(seen).size(), seen.size());
+		assertEquals(userService.getAllUsers().size(), seen.size());
+	}
+}
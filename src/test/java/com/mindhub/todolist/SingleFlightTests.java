@@ -0,0 +1,160 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.controllers.UserController;
+import com.mindhub.todolist.dtos.user.UserDTO;
+import com.mindhub.todolist.exceptions.UserNotFoundException;
+import com.mindhub.todolist.services.implementations.SingleFlight;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:single-flight",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"todolist.single-flight.timeout=PT0.5S"})
+class SingleFlightTests {
+
+	private static final int HERD_SIZE = 64;
+	private static final int HERD_ROUNDS = 20;
+
+	@Autowired
+	private SingleFlight singleFlight;
+	@Autowired
+	private UserController userController;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute("test", "shared", () -> {
+			loads.incrementAndGet();
+			started.countDown();
+			release.await();
+			return "value";
+		}));
+		started.await();
+		Future<String> follower = executor.submit(() -> singleFlight.execute("test", "shared", () -> {
+			loads.incrementAndGet();
+			return "own value";
+		}));
+		Thread.sleep(100);
+		release.countDown();
+
+		assertEquals("value", leader.get());
+		assertEquals("value", follower.get());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void failureReachesEveryWaiter() throws Exception {
+		UserNotFoundException failure = new UserNotFoundException("not found");
+		CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+		Future<Object> leader = executor.submit(() -> singleFlight.execute("test", "failing", () -> {
+			started.countDown();
+			release.await();
+			throw failure;
+		}));
+		started.await();
+		Future<Object> follower = executor.submit(() -> singleFlight.execute("test", "failing", () -> "own value"));
+		Thread.sleep(100);
+		release.countDown();
+
+		assertSame(failure, assertThrows(Exception.class, leader::get).getCause());
+		assertSame(failure, assertThrows(Exception.class, follower::get).getCause());
+	}
+
+	@Test
+	void waiterRunsItsOwnLoadAfterTheTimeout() throws Exception {
+		CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+		Future<String> stuck = executor.submit(() -> singleFlight.execute("test", "stuck", () -> {
+			started.countDown();
+			release.await();
+			return "late value";
+		}));
+		started.await();
+		try {
+			long start = System.nanoTime();
+			assertEquals("own value", singleFlight.execute("test", "stuck", () -> "own value"));
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+		} finally {
+			release.countDown();
+		}
+		assertEquals("late value", stuck.get());
+	}
+
+	@Test
+	void loadStartedBeforeACommittedWriteIsNotJoined() throws Exception {
+		CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+		Future<String> stale = executor.submit(() -> singleFlight.execute("test", "written", () -> {
+			started.countDown();
+			release.await();
+			return "before the write";
+		}));
+		started.await();
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {});
+			assertEquals("after the write", singleFlight.execute("test", "written", () -> "after the write"));
+		} finally {
+			release.countDown();
+		}
+		assertEquals("before the write", stale.get());
+	}
+
+	// thundering herd: every round releases HERD_SIZE identical requests at once
+	@Test
+	void herdOfIdenticalReadsRunsFewerQueries() throws Exception {
+		userController.getUserById(1L, null);
+		statistics.clear();
+		userController.getUserById(1L, null);
+		long statementsPerRequest = statistics.getPrepareStatementCount();
+
+		statistics.clear();
+		for (int round = 0; round < HERD_ROUNDS; round++) {
+			CyclicBarrier barrier = new CyclicBarrier(HERD_SIZE);
+			List<Future<UserDTO>> requests = new ArrayList<>();
+			for (int i = 0; i < HERD_SIZE; i++)
+				requests.add(executor.submit(() -> {
+					barrier.await();
+					return userController.getUserById(1L, null).getBody();
+				}));
+			for (Future<UserDTO> request : requests)
+				assertEquals(1L, request.get().getId());
+		}
+		long statements = statistics.getPrepareStatementCount();
+		long uncoalesced = statementsPerRequest * HERD_SIZE * HERD_ROUNDS;
+		assertTrue(statements < uncoalesced / 2, statements + " statements, " + uncoalesced + " without coalescing");
+	}
+}
@@ -0,0 +1,59 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.services.TaskArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:task-archive",
+		"todolist.task-archive.enabled=false",
+		"todolist.task-archive.completed-for=PT0S"})
+@AutoConfigureMockMvc
+class TaskArchiveTests {
+
+	private static final String AMELIA = "\"user\":{\"email\":\"amelia@email.com\",\"password\":\"longerPassword544\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private TaskArchiveService taskArchiveService;
+
+	@Test
+	void aReopenedTaskIsNotServedFromTheJsonCachedBeforeItWasArchived() throws Exception {
+		// version 1 of the completed task is rendered and cached
+		mockMvc.perform(patch("/api/v1/tasks/4")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"description\":\"before archiving\"," + AMELIA + "}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/v1/tasks/4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.taskStatus").value("COMPLETED"));
+
+		assertTrue(taskArchiveService.archiveCompletedTasks() >= 1);
+		mockMvc.perform(get("/api/v1/tasks/4")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v1/tasks/4").param("archived", "true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.description").value("before archiving"));
+
+		// restoring and patching once must not bring the version back to the cached one
+		mockMvc.perform(patch("/api/v1/tasks/4")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"taskStatus\":\"PENDING\",\"description\":\"reopened\"," + AMELIA + "}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.taskStatus").value("PENDING"));
+		mockMvc.perform(get("/api/v1/tasks/4"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.taskStatus").value("PENDING"))
+				.andExpect(jsonPath("$.description").value("reopened"));
+	}
+}
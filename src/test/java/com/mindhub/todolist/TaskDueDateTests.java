@@ -0,0 +1,91 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.events.TaskOverdueEvent;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.repositories.TaskRepository;
+import com.mindhub.todolist.services.TaskDueDateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:task-due-dates")
+class TaskDueDateTests {
+
+	@Autowired
+	private TaskDueDateService taskDueDateService;
+	@Autowired
+	private TaskRepository taskRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private OverdueEvents overdueEvents;
+
+	@Test
+	void onlyTasksStillPendingInTheDatabaseAreMarkedAndPublished() throws InterruptedException {
+		Instant dueAt = Instant.now().minusSeconds(60);
+		jdbcTemplate.update("update tasks set due_at = ? where id in (1, 2)", Timestamp.from(dueAt));
+		taskDueDateService.scheduleAfterCommit(pendingTask(1L, dueAt));
+		taskDueDateService.scheduleAfterCommit(pendingTask(2L, dueAt));
+		// completed behind the wheel's back, its reminder is stale
+		jdbcTemplate.update("update tasks set task_status = ? where id = 1", TaskStatus.COMPLETED.ordinal());
+
+		for (int attempt = 0; attempt < 50 && !isOverdue(2L); attempt++) {
+			taskDueDateService.fireDueTasks();
+			Thread.sleep(100);
+		}
+		assertTrue(isOverdue(2L));
+		assertFalse(isOverdue(1L));
+		assertEquals(List.of(2L), overdueEvents.taskIds);
+	}
+
+	@Test
+	void theBulkUpdateRepeatsTheSelectionPredicate() {
+		Instant now = Instant.now();
+		jdbcTemplate.update("update tasks set due_at = ? where id = 4", Timestamp.from(now.minusSeconds(60)));
+		jdbcTemplate.update("update tasks set due_at = ? where id = 5", Timestamp.from(now.plusSeconds(3600)));
+
+		// task 4 is completed and task 5 is not due yet
+		Integer marked = transactionTemplate.execute(status -> taskRepository.markOverdue(List.of(4L, 5L), now, TaskStatus.COMPLETED));
+		assertEquals(0, marked);
+		assertFalse(isOverdue(4L));
+		assertFalse(isOverdue(5L));
+	}
+
+	private boolean isOverdue(Long id) {
+		return jdbcTemplate.queryForObject("select overdue from tasks where id = ?", Boolean.class, id);
+	}
+
+	private static Task pendingTask(Long id, Instant dueAt) {
+		Task task = new Task("due", "", TaskStatus.PENDING);
+		ReflectionTestUtils.setField(task, "id", id);
+		task.setDueAt(dueAt);
+		return task;
+	}
+
+	@TestConfiguration
+	static class OverdueEvents {
+		final List<Long> taskIds = new CopyOnWriteArrayList<>();
+
+		@EventListener
+		void overdue(TaskOverdueEvent event) {
+			taskIds.add(event.taskId());
+		}
+	}
+}
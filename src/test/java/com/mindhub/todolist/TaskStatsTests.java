@@ -0,0 +1,71 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.dtos.task.TaskStatsDTO;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.services.TaskStatsService;
+import com.mindhub.todolist.services.TaskStatsService.Granularity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:task-stats",
+		"todolist.task-stats.compact-after=PT0S"})
+class TaskStatsTests {
+
+	private static final int WRITERS = 8;
+	private static final int COMPACTIONS = 30;
+
+	@Autowired
+	private TaskStatsService taskStatsService;
+
+	@Test
+	void writesRacingWithCompactionAreCountedOnce() throws Exception {
+		// an hour the seeded tasks are not in, already closed so every compaction takes its bucket
+		Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(5, ChronoUnit.HOURS);
+		Task task = new Task("stats", "", TaskStatus.PENDING);
+		ReflectionTestUtils.setField(task, "createdAt", hour.plusSeconds(90));
+
+		ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		LongAdder written = new LongAdder();
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int i = 0; i < WRITERS; i++)
+				writers.add(executor.submit(() -> {
+					// outside a transaction the counters are updated right away
+					while (writing.get()) {
+						taskStatsService.recordCreatedAfterCommit(task);
+						written.increment();
+					}
+				}));
+			for (int compactions = 0; compactions < COMPACTIONS; )
+				compactions += taskStatsService.compactClosedBuckets();
+			writing.set(false);
+			for (Future<?> writer : writers)
+				writer.get();
+		} finally {
+			executor.shutdownNow();
+		}
+		taskStatsService.compactClosedBuckets();
+
+		List<TaskStatsDTO> stats = taskStatsService.getStats(hour, hour.plus(1, ChronoUnit.HOURS), Granularity.HOUR).getBody();
+		assertEquals(1, stats.size());
+		assertEquals(written.sum(), stats.get(0).created());
+		assertEquals(written.sum(), stats.get(0).statuses().get(TaskStatus.PENDING).entered());
+	}
+}
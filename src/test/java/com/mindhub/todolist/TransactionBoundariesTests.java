@@ -0,0 +1,84 @@
+package com.mindhub.todolist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.services.TaskService;
+import com.mindhub.todolist.services.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:transaction-boundaries",
+		"spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+class TransactionBoundariesTests {
+
+	@Autowired
+	private ApplicationContext applicationContext;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private TaskService taskService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private DataSource dataSource;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void openSessionInViewIsDisabled() {
+		assertEquals(0, applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+	}
+
+	@Test
+	void connectionIsReleasedAndSerializationDoesNotQueryTheDatabase() throws Exception {
+		List<Object> bodies = List.of(
+				userService.getAllUsersDTO(null).getBody(),
+				userService.getUserDTOById(1L, null).getBody(),
+				taskService.getAllTasksDTO(false, null).getBody(),
+				taskService.getTaskDTOById(1L, false, null).getBody(),
+				taskService.getTasksDTOByIds(List.of(1L, 2L), null).getBody());
+
+		// the connection goes back to the pool when the service returns, not when the response is written
+		assertEquals(0, dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections());
+
+		statistics.clear();
+		for (Object body : bodies)
+			objectMapper.writeValueAsString(body);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getConnectCount());
+	}
+
+	@Test
+	void endpointsSerializeWithoutAnOpenSession() throws Exception {
+		// a lazy load while writing the response would fail with LazyInitializationException
+		for (String uri : List.of("/api/v1/users", "/api/v1/users/1", "/api/v1/tasks", "/api/v1/tasks/1", "/api/v1/tasks/batch?ids=1,2"))
+			mockMvc.perform(get(uri)).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,100 @@
+package com.mindhub.todolist;
+
+import com.mindhub.todolist.services.TaskArchiveService;
+import com.mindhub.todolist.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user-deletion",
+		"todolist.task-archive.enabled=false",
+		"todolist.task-archive.completed-for=PT0S",
+		"todolist.user-purge.delay=PT1H",
+		"todolist.user-purge.chunk-size=2"})
+@AutoConfigureMockMvc
+class UserDeletionTests {
+
+	private static final String JOSE = "\"user\":{\"email\":\"josecardamomo@email.com\",\"password\":\"jose-Kpo777\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private TaskArchiveService taskArchiveService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aHardDeleteRemovesTheUserWithItsTasksAndArchivedTasks() throws Exception {
+		// amelia's completed task 4 moves to TASKS_ARCHIVE
+		taskArchiveService.archiveCompletedTasks();
+		assertEquals(1, count("tasks_archive", 2L));
+
+		mockMvc.perform(delete("/api/v1/users/2")).andExpect(status().isNoContent());
+
+		assertEquals(0, count("users", 2L));
+		assertEquals(0, count("tasks", 2L));
+		assertEquals(0, count("tasks_archive", 2L));
+		mockMvc.perform(get("/api/v1/users/2")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v1/tasks/2")).andExpect(status().isNotFound());
+		mockMvc.perform(delete("/api/v1/users/2")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void aSoftDeletedUserIsHiddenUntilThePurgeRemovesItChunkByChunk() throws Exception {
+		// more tasks than one purge chunk
+		for (int i = 0; i < 5; i++)
+			mockMvc.perform(post("/api/v1/tasks")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"title\":\"task " + i + "\"," + JOSE + "}"))
+					.andExpect(status().isCreated());
+		long tasks = count("tasks", 3L) + count("tasks_archive", 3L);
+		assertTrue(tasks > 2, tasks + " tasks");
+
+		mockMvc.perform(delete("/api/v1/users/3").param("soft", "true")).andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/v1/users/3")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v1/users"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.id == 3)]").isEmpty());
+		mockMvc.perform(get("/api/v1/tasks/5")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/v1/tasks"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.user.id == 3)]").isEmpty());
+		// the rows are still there until the purge
+		assertEquals(1, count("users", 3L));
+		assertEquals(tasks, count("tasks", 3L) + count("tasks_archive", 3L));
+
+		assertEquals(1, userService.purgeSoftDeletedUsers());
+		assertEquals(0, count("users", 3L));
+		assertEquals(0, count("tasks", 3L));
+		assertEquals(0, count("tasks_archive", 3L));
+		assertEquals(0, userService.purgeSoftDeletedUsers());
+	}
+
+	@Test
+	void theSoftDeleteRestrictionOfTasksProbesTheUsersPrimaryKey() {
+		String plan = jdbcTemplate.queryForObject("explain select t.id from tasks t where t.task_status = 0"
+				+ " and not exists (select 1 from users u where u.id = t.user_id and u.deleted_at is not null)", String.class);
+		assertTrue(plan.contains("PUBLIC.PRIMARY_KEY_") && plan.contains(": ID = T.USER_ID */"), plan);
+	}
+
+	private long count(String table, Long userId) {
+		return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + (table.equals("users") ? "id" : "user_id") + " = ?",
+				Long.class, userId);
+	}
+}
@@ -0,0 +1,121 @@
+package com.mindhub.todolist.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindhub.todolist.dtos.task.TaskDTO;
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskJsonCacheTests {
+
+	private static final int THREADS = 8;
+
+	private final ObjectMapper objectMapper = objectMapper();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final UserEntity owner = owner();
+
+	@Test
+	void theLeastRecentlyUsedFragmentsAreEvictedFirst() throws Exception {
+		TaskJsonCache cache = new TaskJsonCache(objectMapper, meterRegistry, DataSize.ofKilobytes(4));
+		TaskDTO hot = new TaskDTO(task(1L, 1L));
+		cache.toJson(hot);
+		for (long id = 2; id <= 200; id++) {
+			cache.toJson(new TaskDTO(task(id, 1L)));
+			cache.toJson(hot);
+		}
+
+		assertTrue(cache.getSizeBytes() <= DataSize.ofKilobytes(4).toBytes(), cache.getSizeBytes() + " bytes");
+		assertEquals(199, hits());
+		assertTrue(fragments(cache).containsKey(1L));
+		assertTrue(fragments(cache).containsKey(200L));
+		assertFalse(fragments(cache).containsKey(2L));
+	}
+
+	@Test
+	void aNewVersionIsEncodedAgain() throws Exception {
+		TaskJsonCache cache = new TaskJsonCache(objectMapper, meterRegistry, DataSize.ofKilobytes(4));
+		cache.toJson(new TaskDTO(task(1L, 1L)));
+		Task changed = task(1L, 2L);
+		changed.setTitle("changed");
+		byte[] json = cache.toJson(new TaskDTO(changed));
+
+		assertEquals(0, hits());
+		assertArrayEquals(objectMapper.writeValueAsBytes(new TaskDTO(changed)), json);
+		assertEquals(json.length, cache.getSizeBytes());
+	}
+
+	@Test
+	void theSizeMatchesTheCachedFragmentsAfterConcurrentUse() throws Exception {
+		long maxBytes = DataSize.ofKilobytes(16).toBytes();
+		TaskJsonCache cache = new TaskJsonCache(objectMapper, meterRegistry, DataSize.ofBytes(maxBytes));
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++)
+				workers.add(executor.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int request = 0; request < 20_000; request++)
+						cache.toJson(new TaskDTO(task(random.nextLong(1, 500), random.nextLong(1, 3))));
+					return null;
+				}));
+			for (Future<?> worker : workers)
+				worker.get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long cached = 0;
+		for (Object fragment : fragments(cache).values())
+			cached += ((byte[]) ReflectionTestUtils.getField(fragment, "json")).length;
+		assertEquals(cached, cache.getSizeBytes());
+		assertTrue(cache.getSizeBytes() <= maxBytes + THREADS * 1024L, cache.getSizeBytes() + " bytes");
+		assertTrue(hits() > 0);
+	}
+
+	private double hits() {
+		return meterRegistry.get("todolist.task-json-cache.requests").tag("result", "hit").counter().count();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Long, ?> fragments(TaskJsonCache cache) {
+		return (Map<Long, ?>) ReflectionTestUtils.getField(cache, "fragments");
+	}
+
+	private Task task(Long id, Long version) {
+		Task task = new Task("task" + id, "a description long enough to fill a few cache lines", TaskStatus.PENDING, owner);
+		ReflectionTestUtils.setField(task, "id", id);
+		ReflectionTestUtils.setField(task, "version", version);
+		return task;
+	}
+
+	private static ObjectMapper objectMapper() {
+		Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+		new JacksonConfiguration().serializeAllFieldsByDefault().customize(builder);
+		return builder.build();
+	}
+
+	private static UserEntity owner() {
+		UserEntity user = new UserEntity("owner@email.com", "password123", "owner");
+		ReflectionTestUtils.setField(user, "id", 1L);
+		ReflectionTestUtils.setField(user, "version", 0L);
+		return user;
+	}
+}
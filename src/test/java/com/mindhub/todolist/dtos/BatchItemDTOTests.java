@@ -0,0 +1,37 @@
+package com.mindhub.todolist.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchItemDTOTests {
+
+	@Test
+	void entriesFollowTheRequestedIdsWithAnErrorForMissingOnes() {
+		assertEquals(List.of(
+						new BatchItemDTO<>(3L, "c", null),
+						new BatchItemDTO<>(9L, null, "missing"),
+						new BatchItemDTO<>(1L, "a", null),
+						new BatchItemDTO<>(3L, "c", null)),
+				BatchItemDTO.inRequestOrder(List.of(3L, 9L, 1L, 3L), Map.of(1L, "a", 3L, "c"), "missing"));
+	}
+
+	@Test
+	void mergingShardsKeepsTheFoundEntryOfAnyShardAtEachPosition() {
+		List<Long> ids = List.of(4L, 1L, 9L, 2L);
+		List<BatchItemDTO<String>> shard0 = BatchItemDTO.inRequestOrder(ids, Map.of(2L, "b", 4L, "d"), "missing");
+		List<BatchItemDTO<String>> shard1 = BatchItemDTO.inRequestOrder(ids, Map.of(1L, "a"), "missing");
+
+		List<BatchItemDTO<String>> expected = List.of(
+				new BatchItemDTO<>(4L, "d", null),
+				new BatchItemDTO<>(1L, "a", null),
+				new BatchItemDTO<>(9L, null, "missing"),
+				new BatchItemDTO<>(2L, "b", null));
+		assertEquals(expected, BatchItemDTO.mergeShards(List.of(shard0, shard1)));
+		assertEquals(expected, BatchItemDTO.mergeShards(List.of(shard1, shard0)));
+		assertEquals(shard1, BatchItemDTO.mergeShards(List.of(shard1)));
+	}
+}
@@ -0,0 +1,65 @@
+package com.mindhub.todolist.journal;
+
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:journal-replay",
+		"todolist.journal.replay-on-startup=true"})
+class JournalReplayTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// written before the context starts, the older writes committed first but their afterCommit callbacks ran last
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) throws IOException {
+		Path directory = Files.createTempDirectory("journal-replay");
+		MutationJournal journal = new MutationJournal(new SimpleMeterRegistry(), true, directory,
+				DataSize.ofKilobytes(64), Duration.ofDays(30), Duration.ofMillis(50));
+		journal.open();
+		UserEntity user = new UserEntity("replayed@email.com", "password123", "newer");
+		ReflectionTestUtils.setField(user, "id", 1L);
+		ReflectionTestUtils.setField(user, "version", 3L);
+		Task task = new Task("newer", "", TaskStatus.IN_PROGRESS, user);
+		ReflectionTestUtils.setField(task, "id", 1L);
+		ReflectionTestUtils.setField(task, "version", 2L);
+		journal.append(JournalOperation.USER_UPSERT, 1L, JournalCodec.encodeUser(user));
+		journal.append(JournalOperation.TASK_UPSERT, 1L, JournalCodec.encodeTask(task));
+
+		ReflectionTestUtils.setField(user, "username", "older");
+		ReflectionTestUtils.setField(user, "version", 2L);
+		ReflectionTestUtils.setField(task, "title", "older");
+		ReflectionTestUtils.setField(task, "version", 1L);
+		journal.append(JournalOperation.USER_UPSERT, 1L, JournalCodec.encodeUser(user));
+		journal.append(JournalOperation.TASK_UPSERT, 1L, JournalCodec.encodeTask(task));
+		journal.close();
+		registry.add("todolist.journal.directory", directory::toString);
+	}
+
+	@Test
+	void anUpsertOlderThanTheReplayedRowIsSkipped() {
+		assertEquals(Map.of("USERNAME", "newer", "VERSION", 3L),
+				jdbcTemplate.queryForMap("select username, version from users where id = 1"));
+		assertEquals(Map.of("TITLE", "newer", "VERSION", 2L),
+				jdbcTemplate.queryForMap("select title, version from tasks where id = 1"));
+	}
+}
@@ -0,0 +1,289 @@
+package com.mindhub.todolist.journal;
+
+import com.mindhub.todolist.models.Task;
+import com.mindhub.todolist.models.TaskStatus;
+import com.mindhub.todolist.models.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MutationJournalTests {
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void codecRoundTripsUsersAndTasks() {
+		UserEntity user = user(7L, 3L);
+		JournalCodec.UserRow userRow = JournalCodec.decodeUser(record(JournalOperation.USER_UPSERT, 7L, JournalCodec.encodeUser(user)));
+		assertEquals(new JournalCodec.UserRow(7L, 3L, "user7", "user7@email.com", "password123"), userRow);
+
+		Task task = task(11L, user, Set.of("b", "a"));
+		task.setDueAt(Instant.parse("2026-01-02T03:04:05.123456789Z"));
+		ReflectionTestUtils.setField(task, "createdAt", Instant.parse("2026-01-01T00:00:00Z"));
+		JournalCodec.TaskRow taskRow = JournalCodec.decodeTask(record(JournalOperation.TASK_UPSERT, 11L, JournalCodec.encodeTask(task)));
+		assertEquals(new JournalCodec.TaskRow(11L, 2L, 7L, "task11", null, TaskStatus.COMPLETED.ordinal(),
+				task.getCompletedAt(), task.getDueAt(), false, null, Set.of("a", "b"),
+				task.getCreatedAt(), task.getStatusChangedAt()), taskRow);
+
+		Instant deletedAt = Instant.parse("2026-03-04T05:06:07.000000001Z");
+		assertEquals(deletedAt, JournalCodec.decodeInstant(record(JournalOperation.USER_SOFT_DELETE, 7L, JournalCodec.encodeInstant(deletedAt))));
+	}
+
+	@Test
+	void codecReadsTaskRecordsWrittenBeforeTagsAndTimestamps() {
+		Task task = task(11L, user(7L, 0L), Set.of());
+		ReflectionTestUtils.setField(task, "createdAt", Instant.now());
+		byte[] payload = JournalCodec.encodeTask(task);
+		// an empty tag count and two present instants
+		byte[] legacy = Arrays.copyOf(payload, payload.length - 2 - 13 - 13);
+
+		JournalCodec.TaskRow row = JournalCodec.decodeTask(record(JournalOperation.TASK_UPSERT, 11L, legacy));
+		assertEquals("task11", row.title());
+		assertEquals(Set.of(), row.tags());
+		assertNull(row.createdAt());
+		assertNull(row.statusChangedAt());
+	}
+
+	@Test
+	void recordsSurviveSegmentRollsAndAReopen() throws IOException {
+		MutationJournal journal = open(DataSize.ofBytes(256), Duration.ofDays(30));
+		for (long id = 1; id <= 50; id++)
+			journal.append(JournalOperation.TASK_DELETE, id, payload(id, 40));
+		assertThrows(IllegalArgumentException.class, () -> journal.append(JournalOperation.TASK_DELETE, 0, new byte[256]));
+		journal.close();
+		assertTrue(files("journal-").size() > 10);
+
+		MutationJournal reopened = open(DataSize.ofBytes(256), Duration.ofDays(30));
+		reopened.append(JournalOperation.TASK_DELETE, 51, payload(51, 40));
+		List<JournalRecord> records = read(reopened);
+		reopened.close();
+
+		assertEquals(51, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			assertEquals(i + 1, records.get(i).sequence());
+			assertEquals(i + 1, records.get(i).id());
+			assertArrayEquals(payload(i + 1, 40), records.get(i).payload());
+		}
+	}
+
+	@Test
+	void readingStopsAtATornRecordWhichTheNextAppendOverwrites() throws IOException {
+		MutationJournal journal = open(DataSize.ofKilobytes(4), Duration.ofDays(30));
+		for (long id = 1; id <= 3; id++)
+			journal.append(JournalOperation.TASK_DELETE, id, payload(id, 20));
+		journal.close();
+
+		// flip a payload byte of the third record, as if the crash hit while its page was written
+		Path segment = files("journal-").get(0);
+		int recordSize = JournalRecord.HEADER_SIZE + 20;
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			int position = 8 + 2 * recordSize + JournalRecord.HEADER_SIZE + 5;
+			ByteBuffer value = ByteBuffer.allocate(1);
+			channel.read(value, position);
+			channel.write(ByteBuffer.wrap(new byte[]{(byte) ~value.get(0)}), position);
+		}
+
+		MutationJournal reopened = open(DataSize.ofKilobytes(4), Duration.ofDays(30));
+		assertEquals(List.of(1L, 2L), read(reopened).stream().map(JournalRecord::sequence).toList());
+		reopened.append(JournalOperation.TASK_DELETE, 30, payload(30, 20));
+		reopened.append(JournalOperation.TASK_DELETE, 40, payload(40, 20));
+		List<JournalRecord> records = read(reopened);
+		reopened.close();
+		assertEquals(List.of(1L, 2L, 3L, 4L), records.stream().map(JournalRecord::sequence).toList());
+		assertEquals(List.of(1L, 2L, 30L, 40L), records.stream().map(JournalRecord::id).toList());
+	}
+
+	@Test
+	void segmentsPastRetentionAreFoldedIntoASnapshotThatReplaysToTheSameRows() throws IOException {
+		// a negative retention makes every rolled segment expired
+		MutationJournal journal = open(DataSize.ofBytes(512), Duration.ofSeconds(-1));
+		Rows expected = new Rows();
+		Random random = new Random(3);
+		Map<Long, UserEntity> users = new HashMap<>();
+		long nextTaskId = 1;
+		for (int step = 0; step < 2000; step++) {
+			long userId = 1 + random.nextInt(6);
+			UserEntity user = users.get(userId);
+			JournalRecord record;
+			int operation = random.nextInt(100);
+			if (user == null || operation < 10) {
+				user = user(userId, (long) step);
+				users.put(userId, user);
+				record = record(JournalOperation.USER_UPSERT, userId, JournalCodec.encodeUser(user));
+			} else if (operation < 15) {
+				record = record(JournalOperation.USER_SOFT_DELETE, userId, JournalCodec.encodeInstant(Instant.ofEpochSecond(step)));
+			} else if (operation < 17) {
+				users.remove(userId);
+				record = record(JournalOperation.USER_DELETE, userId, new byte[0]);
+			} else if (operation < 45 || expected.tasks.isEmpty()) {
+				long taskId = nextTaskId++;
+				record = record(JournalOperation.TASK_UPSERT, taskId, JournalCodec.encodeTask(task(taskId, user, Set.of("t" + step))));
+			} else {
+				List<Long> taskIds = new ArrayList<>(expected.tasks.keySet());
+				long taskId = taskIds.get(random.nextInt(taskIds.size()));
+				long ownerId = expected.owners.get(taskId);
+				record = operation < 85
+						? record(JournalOperation.TASK_UPSERT, taskId, JournalCodec.encodeTask(task(taskId, users.get(ownerId), Set.of("u" + step))))
+						: record(JournalOperation.TASK_DELETE, taskId, new byte[0]);
+			}
+			journal.append(record.operation(), record.id(), record.payload());
+			expected.apply(record);
+		}
+		journal.close();
+
+		// only the segment being written is left, the snapshot covers every sequence before it
+		assertEquals(1, files("snapshot-").size());
+		assertEquals(1, files("journal-").size());
+		assertEquals(files("journal-").get(0).getFileName().toString().substring("journal-".length()),
+				files("snapshot-").get(0).getFileName().toString().substring("snapshot-".length()));
+
+		MutationJournal reopened = open(DataSize.ofBytes(512), Duration.ofDays(30));
+		Rows replayed = new Rows();
+		reopened.forEach(replayed::apply);
+		reopened.close();
+		assertEquals(expected.users, replayed.users);
+		assertEquals(expected.softDeleted, replayed.softDeleted);
+		assertEquals(expected.tasks, replayed.tasks);
+		assertTrue(expected.tasks.size() > 10);
+	}
+
+	@Test
+	void theSnapshotKeepsTheHighestVersionEvenWhenItWasAppendedFirst() throws IOException {
+		MutationJournal journal = open(DataSize.ofBytes(512), Duration.ofSeconds(-1));
+		UserEntity newerUser = user(1L, 5L), olderUser = user(1L, 4L);
+		ReflectionTestUtils.setField(olderUser, "username", "older");
+		Task newerTask = task(2L, newerUser, Set.of("newer"));
+		Task olderTask = task(2L, newerUser, Set.of("older"));
+		ReflectionTestUtils.setField(olderTask, "version", 1L);
+		// the older writes committed first but their afterCommit callbacks ran last
+		journal.append(JournalOperation.USER_UPSERT, 1L, JournalCodec.encodeUser(newerUser));
+		journal.append(JournalOperation.TASK_UPSERT, 2L, JournalCodec.encodeTask(newerTask));
+		journal.append(JournalOperation.USER_UPSERT, 1L, JournalCodec.encodeUser(olderUser));
+		journal.append(JournalOperation.TASK_UPSERT, 2L, JournalCodec.encodeTask(olderTask));
+		// rolls the segments, every roll folds the expired ones
+		for (long id = 100; id < 120; id++)
+			journal.append(JournalOperation.TASK_DELETE, id, payload(id, 40));
+		journal.close();
+		assertEquals(1, files("snapshot-").size());
+
+		MutationJournal reopened = open(DataSize.ofBytes(512), Duration.ofDays(30));
+		List<JournalRecord> records = read(reopened);
+		reopened.close();
+		List<JournalRecord> upserts = records.stream().filter(record -> record.id() < 100).toList();
+		assertEquals(2, upserts.size());
+		assertEquals("user1", JournalCodec.decodeUser(upserts.get(0)).username());
+		assertEquals(5L, JournalCodec.decodeUser(upserts.get(0)).version());
+		assertEquals(Set.of("newer"), JournalCodec.decodeTask(upserts.get(1)).tags());
+		assertEquals(2L, JournalCodec.decodeTask(upserts.get(1)).version());
+	}
+
+	// the rows a replay would leave in the database, failing like the foreign key would
+	private static final class Rows {
+		final Map<Long, String> users = new HashMap<>(), tasks = new HashMap<>();
+		final Map<Long, Boolean> softDeleted = new HashMap<>();
+		final Map<Long, Long> owners = new HashMap<>();
+
+		void apply(JournalRecord record) {
+			long id = record.id();
+			String payload = HexFormat.of().formatHex(record.payload());
+			switch (record.operation()) {
+				case USER_UPSERT -> {
+					users.put(id, payload);
+					softDeleted.put(id, false);
+				}
+				case USER_SOFT_DELETE -> softDeleted.computeIfPresent(id, (user, deleted) -> true);
+				case USER_DELETE -> {
+					users.remove(id);
+					softDeleted.remove(id);
+					owners.entrySet().removeIf(owner -> {
+						if (owner.getValue() != id)
+							return false;
+						tasks.remove(owner.getKey());
+						return true;
+					});
+				}
+				case TASK_UPSERT -> {
+					long ownerId = JournalCodec.decodeTask(record).userId();
+					assertTrue(users.containsKey(ownerId), "task " + id + " replayed before its owner " + ownerId);
+					tasks.put(id, payload);
+					owners.put(id, ownerId);
+				}
+				case TASK_DELETE -> {
+					tasks.remove(id);
+					owners.remove(id);
+				}
+			}
+		}
+	}
+
+	private MutationJournal open(DataSize segmentSize, Duration retention) throws IOException {
+		MutationJournal journal = new MutationJournal(new SimpleMeterRegistry(), true, directory, segmentSize, retention, Duration.ofMillis(50));
+		journal.open();
+		return journal;
+	}
+
+	private List<Path> files(String prefix) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+		}
+	}
+
+	private static List<JournalRecord> read(MutationJournal journal) throws IOException {
+		List<JournalRecord> records = new ArrayList<>();
+		journal.forEach(records::add);
+		return records;
+	}
+
+	private static JournalRecord record(JournalOperation operation, long id, byte[] payload) {
+		return new JournalRecord(0, 0, operation, id, payload);
+	}
+
+	private static byte[] payload(long id, int length) {
+		byte[] payload = new byte[length];
+		for (int i = 0; i < length; i++)
+			payload[i] = (byte) (id + i);
+		return payload;
+	}
+
+	private static UserEntity user(Long id, Long version) {
+		UserEntity user = new UserEntity("user" + id + "@email.com", "password123", "user" + id);
+		ReflectionTestUtils.setField(user, "id", id);
+		ReflectionTestUtils.setField(user, "version", version);
+		return user;
+	}
+
+	private static Task task(Long id, UserEntity user, Set<String> tags) {
+		Task task = new Task("task" + id, null, TaskStatus.COMPLETED, user);
+		ReflectionTestUtils.setField(task, "id", id);
+		ReflectionTestUtils.setField(task, "version", 2L);
+		task.setTags(tags);
+		return task;
+	}
+}
@@ -0,0 +1,48 @@
+package com.mindhub.todolist.readmodel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LongMapTests {
+
+	@Test
+	void builtMapsMatchAHashMapAndAreNotChangedByLaterBuilders() {
+		Random random = new Random(42);
+		Map<Long, String> expected = new HashMap<>();
+		LongMap<String> map = LongMap.empty();
+		for (int batch = 0; batch < 200; batch++) {
+			LongMap<String> before = map;
+			Map<Long, String> expectedBefore = new HashMap<>(expected);
+			LongMap.Builder<String> builder = map.toBuilder();
+			for (int change = 0; change < 100; change++) {
+				long key = random.nextInt(5_000);
+				if (random.nextInt(3) == 0)
+					assertEquals(expected.remove(key), builder.remove(key));
+				else
+					assertEquals(expected.put(key, batch + ":" + change), builder.put(key, batch + ":" + change));
+			}
+			map = builder.build();
+
+			assertEquals(expected.size(), map.size());
+			for (long key = 0; key < 5_000; key++)
+				assertEquals(expected.get(key), map.get(key));
+			// the builder wrote to copies of the tables it changed, the previous map is untouched
+			assertEquals(expectedBefore.size(), before.size());
+			for (long key = 0; key < 5_000; key++)
+				assertEquals(expectedBefore.get(key), before.get(key));
+		}
+		List<String> values = new ArrayList<>();
+		map.forEachValue(values::add);
+		assertEquals(expected.values().stream().sorted().toList(), values.stream().sorted().toList());
+		assertEquals(0, LongMap.empty().size());
+		assertNull(LongMap.empty().get(0));
+	}
+}
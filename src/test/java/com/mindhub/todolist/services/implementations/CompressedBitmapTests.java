@@ -0,0 +1,141 @@
+package com.mindhub.todolist.services.implementations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedBitmapTests {
+
+	private static final long CHUNK = 1 << 16;
+
+	@Test
+	void aChunkTurnsIntoABitsetAbove4096ValuesAndBackAtOrBelow() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		for (long id = 0; id < 4096; id++)
+			bitmap.add(CHUNK + id * 3);
+		assertInstanceOf(char[].class, container(bitmap, 0));
+
+		bitmap.add(CHUNK + 1);
+		assertInstanceOf(long[].class, container(bitmap, 0));
+		assertEquals(4097, bitmap.cardinality());
+		assertTrue(bitmap.contains(CHUNK + 1));
+		assertTrue(bitmap.contains(CHUNK + 4095 * 3));
+
+		bitmap.remove(CHUNK);
+		assertInstanceOf(char[].class, container(bitmap, 0));
+		assertEquals(4096, bitmap.cardinality());
+		assertFalse(bitmap.contains(CHUNK));
+		assertTrue(bitmap.contains(CHUNK + 1));
+		assertEquals(List.of(CHUNK + 1, CHUNK + 3, CHUNK + 6), bitmap.toList(-1, 3));
+	}
+
+	@Test
+	void removingTheLastValueOfAChunkDropsTheChunk() {
+		CompressedBitmap bitmap = CompressedBitmap.of(5, CHUNK + 5, 2 * CHUNK + 5);
+		bitmap.remove(CHUNK + 5);
+		bitmap.remove(CHUNK + 6);
+		assertEquals(List.of(5L, 2 * CHUNK + 5), bitmap.toList(-1, 10));
+		bitmap.remove(5);
+		bitmap.remove(2 * CHUNK + 5);
+		assertTrue(bitmap.isEmpty());
+	}
+
+	@Test
+	void operationsAcrossChunkBoundariesMatchASortedSet() {
+		Random random = new Random(17);
+		// values clustered around chunk edges, in chunks that are sparse, dense or only on one side
+		LongSupplier sparse = () -> random.nextInt(6) * CHUNK + random.nextInt(3) * (CHUNK - 1) + random.nextInt(2);
+		LongSupplier dense = () -> 2 * CHUNK + random.nextInt((int) CHUNK);
+		LongSupplier far = () -> (1L << 40) + random.nextInt(3 * (int) CHUNK);
+		for (int round = 0; round < 20; round++) {
+			TreeSet<Long> left = new TreeSet<>(), right = new TreeSet<>();
+			fill(left, random, sparse, dense, far, round % 3 == 0 ? 20_000 : 300);
+			fill(right, random, sparse, dense, far, round % 4 == 0 ? 20_000 : 300);
+			CompressedBitmap a = bitmap(left), b = bitmap(right);
+
+			TreeSet<Long> and = new TreeSet<>(left);
+			and.retainAll(right);
+			TreeSet<Long> or = new TreeSet<>(left);
+			or.addAll(right);
+			TreeSet<Long> andNot = new TreeSet<>(left);
+			andNot.removeAll(right);
+
+			assertEquals(new ArrayList<>(and), a.and(b).toList(-1, Integer.MAX_VALUE), "and, round " + round);
+			assertEquals(new ArrayList<>(or), a.or(b).toList(-1, Integer.MAX_VALUE), "or, round " + round);
+			assertEquals(new ArrayList<>(andNot), a.andNot(b).toList(-1, Integer.MAX_VALUE), "andNot, round " + round);
+			assertEquals(or.size(), a.or(b).cardinality());
+			// the operands are left untouched
+			assertEquals(new ArrayList<>(left), a.toList(-1, Integer.MAX_VALUE));
+			assertEquals(new ArrayList<>(right), b.toList(-1, Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	void theUnionOfTwoArraysStaysAnArrayWhenItFitsOne() {
+		CompressedBitmap a = new CompressedBitmap(), b = new CompressedBitmap();
+		for (long id = 0; id < 3000; id++) {
+			a.add(id);
+			b.add(id + 1000);
+		}
+		CompressedBitmap or = a.or(b);
+		assertEquals(4000, or.cardinality());
+		assertInstanceOf(char[].class, container(or, 0));
+	}
+
+	@Test
+	void toListPagesThroughEveryIdOnce() {
+		TreeSet<Long> ids = new TreeSet<>();
+		for (long id = CHUNK - 50; id < CHUNK + 5000; id++)
+			ids.add(id);
+		for (long id = 3 * CHUNK; id < 3 * CHUNK + 200; id += 7)
+			ids.add(id);
+		CompressedBitmap bitmap = bitmap(ids);
+		assertInstanceOf(long[].class, container(bitmap, 1));
+
+		List<Long> paged = new ArrayList<>();
+		long afterId = -1;
+		for (List<Long> page = bitmap.toList(afterId, 64); !page.isEmpty(); page = bitmap.toList(afterId, 64)) {
+			assertTrue(page.size() <= 64);
+			paged.addAll(page);
+			afterId = page.get(page.size() - 1);
+		}
+		assertEquals(new ArrayList<>(ids), paged);
+
+		// a cursor between chunks or past the end
+		assertEquals(List.of(3 * CHUNK, 3 * CHUNK + 7), bitmap.toList(2 * CHUNK + 5, 2));
+		assertEquals(List.of(CHUNK + 4000), bitmap.toList(CHUNK + 3999, 1));
+		assertTrue(bitmap.toList(4 * CHUNK, 10).isEmpty());
+		assertTrue(bitmap.toList(-1, 0).isEmpty());
+	}
+
+	private static void fill(TreeSet<Long> ids, Random random, LongSupplier sparse, LongSupplier dense, LongSupplier far, int count) {
+		for (int i = 0; i < count; i++) {
+			int kind = random.nextInt(10);
+			ids.add(kind < 5 ? sparse.getAsLong() : kind < 9 ? dense.getAsLong() : far.getAsLong());
+		}
+	}
+
+	private static CompressedBitmap bitmap(TreeSet<Long> ids) {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		// in random order, so values are also inserted in the middle of arrays
+		List<Long> shuffled = new ArrayList<>(ids);
+		Collections.shuffle(shuffled, new Random(ids.size()));
+		shuffled.forEach(bitmap::add);
+		return bitmap;
+	}
+
+	private static Object container(CompressedBitmap bitmap, int chunk) {
+		return ((Object[]) ReflectionTestUtils.getField(bitmap, "containers"))[chunk];
+	}
+}
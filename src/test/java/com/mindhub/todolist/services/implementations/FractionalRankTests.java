@@ -0,0 +1,129 @@
+package com.mindhub.todolist.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FractionalRankTests {
+
+	@Test
+	void betweenPicksTheMiddleDigitWhenThereIsRoom() {
+		assertEquals("V", FractionalRank.between(null, null));
+		assertEquals("G", FractionalRank.between(null, "V"));
+		assertEquals("l", FractionalRank.between("V", null));
+		assertEquals("X", FractionalRank.between("V", "Z"));
+	}
+
+	@Test
+	void betweenHandlesKeysThatArePrefixesOfEachOther() {
+		assertBetween("V", "VV", "VG");
+		assertBetween("V", "V1", "V0V");
+		assertBetween(null, "0V", "0G");
+		assertBetween(null, "01", "00V");
+		assertBetween("VV", "VVV", "VVG");
+	}
+
+	@Test
+	void betweenHandlesAdjacentDigits() {
+		assertBetween("V", "W", "VV");
+		assertBetween("Vz", "W", "VzV");
+		assertBetween("V1", "W", "VW");
+		// the first digit of a longer upper key alone already sorts between them
+		assertBetween("V", "W1", "W");
+		assertBetween(null, "1", "0V");
+		assertBetween("z", null, "zV");
+	}
+
+	@Test
+	void betweenRejectsBoundsThatAreNotAscending() {
+		assertThrows(IllegalArgumentException.class, () -> FractionalRank.between("V", "V"));
+		assertThrows(IllegalArgumentException.class, () -> FractionalRank.between("W", "V"));
+	}
+
+	@Test
+	void randomInsertsKeepTheListOrderedAndNoKeyEndsInTheLowestDigit() {
+		Random random = new Random(5);
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			int position = random.nextInt(keys.size() + 1);
+			// every fifth insert goes to one of the ends, which is where lists usually grow
+			if (i % 5 == 0)
+				position = random.nextBoolean() ? 0 : keys.size();
+			String lower = position > 0 ? keys.get(position - 1) : null;
+			String upper = position < keys.size() ? keys.get(position) : null;
+			String key = FractionalRank.between(lower, upper);
+			assertKey(key);
+			assertTrue(lower == null || lower.compareTo(key) < 0, lower + " < " + key);
+			assertTrue(upper == null || key.compareTo(upper) < 0, key + " < " + upper);
+			keys.add(position, key);
+		}
+	}
+
+	@Test
+	void repeatedInsertsIntoTheSameGapStayValid() {
+		String lower = "V", upper = "W";
+		for (int i = 0; i < 200; i++) {
+			String key = FractionalRank.between(lower, upper);
+			assertKey(key);
+			assertTrue(lower.compareTo(key) < 0 && key.compareTo(upper) < 0);
+			if (i % 2 == 0)
+				upper = key;
+			else
+				lower = key;
+		}
+		String first = "V";
+		for (int i = 0; i < 200; i++) {
+			String key = FractionalRank.between(null, first);
+			assertKey(key);
+			assertTrue(key.compareTo(first) < 0);
+			first = key;
+		}
+	}
+
+	@Test
+	void evenlySpacedKeysAreAscendingShortAndNeverEndInTheLowestDigit() {
+		for (int count : new int[]{1, 2, 61, 62, 63, 1000, 3843, 3844, 100_000}) {
+			String[] keys = FractionalRank.evenlySpaced(count);
+			assertEquals(count, keys.length);
+			int maxLength = count < 62 ? 1 : count < 3844 ? 2 : 3;
+			for (int i = 0; i < count; i++) {
+				assertKey(keys[i]);
+				assertTrue(keys[i].length() <= maxLength, count + " keys: " + keys[i]);
+				if (i > 0)
+					assertTrue(keys[i - 1].compareTo(keys[i]) < 0, keys[i - 1] + " < " + keys[i]);
+			}
+		}
+	}
+
+	@Test
+	void afterAppendsAscendingKeysAboveTheLastOne() {
+		String[] keys = FractionalRank.after("zz", 10);
+		assertTrue("zz".compareTo(keys[0]) < 0);
+		String[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		assertEquals(Arrays.asList(sorted), Arrays.asList(keys));
+		assertEquals(Arrays.asList(FractionalRank.evenlySpaced(10)), Arrays.asList(FractionalRank.after(null, 10)));
+	}
+
+	private static void assertBetween(String lower, String upper, String expected) {
+		String key = FractionalRank.between(lower, upper);
+		assertEquals(expected, key);
+		assertKey(key);
+		assertTrue(lower == null || lower.compareTo(key) < 0);
+		assertTrue(upper == null || key.compareTo(upper) < 0);
+	}
+
+	private static void assertKey(String key) {
+		assertFalse(key.isEmpty());
+		assertFalse(key.endsWith("0"), key);
+		assertTrue(key.chars().allMatch(Character::isLetterOrDigit), key);
+	}
+}
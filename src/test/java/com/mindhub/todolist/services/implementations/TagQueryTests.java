@@ -0,0 +1,67 @@
+package com.mindhub.todolist.services.implementations;
+
+import com.mindhub.todolist.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TagQueryTests {
+
+	// ids 1 to 8 are every combination of the tags a, b and c: bit 0 is a, bit 1 is b, bit 2 is c of id - 1
+	private static final Map<String, CompressedBitmap> TAGS = Map.of(
+			"a", CompressedBitmap.of(2, 4, 6, 8),
+			"b", CompressedBitmap.of(3, 4, 7, 8),
+			"c", CompressedBitmap.of(5, 6, 7, 8));
+	private static final CompressedBitmap SCOPE = CompressedBitmap.of(1, 2, 3, 4, 5, 6, 7, 8);
+
+	@Test
+	void andBindsTighterThanOrAndNotTighterThanAnd() {
+		assertEquals(List.of(2L, 4L, 6L, 7L, 8L), evaluate("a OR b AND c"));
+		assertEquals(List.of(6L, 7L, 8L), evaluate("(a OR b) AND c"));
+		assertEquals(List.of(3L), evaluate("NOT a AND b AND NOT c"));
+		assertEquals(List.of(1L, 3L, 5L, 7L, 8L), evaluate("NOT a OR b AND c"));
+		assertEquals(List.of(1L, 3L, 5L), evaluate("NOT (a OR b AND c)"));
+		assertEquals(List.of(2L, 4L, 6L, 8L), evaluate("NOT NOT a"));
+	}
+
+	@Test
+	void keywordsAreCaseInsensitiveAndTagsLowerCased() {
+		assertEquals(List.of(4L, 8L), evaluate("A and B"));
+		assertEquals(List.of(1L, 5L), evaluate("not a AnD not B"));
+	}
+
+	@Test
+	void evaluationStaysInsideTheScope() {
+		CompressedBitmap scope = CompressedBitmap.of(1, 2, 3);
+		assertEquals(List.of(1L, 3L), TagQuery.parse("NOT a").evaluate(scope, TAGS::get).toList(-1, 100));
+		assertEquals(List.of(2L, 3L), TagQuery.parse("a OR b").evaluate(scope, TAGS::get).toList(-1, 100));
+		assertEquals(List.of(), evaluate("a AND unknown"));
+	}
+
+	@Test
+	void malformedQueriesAreRejected() {
+		assertRejected("", "tag query must not be empty");
+		assertRejected("   ", "tag query must not be empty");
+		assertRejected("(a OR b", "missing ')' in tag query");
+		assertRejected("a OR b)", "unexpected ')' in tag query");
+		assertRejected("()", "expected a tag but found ')'");
+		assertRejected("a AND", "tag query ends where a tag was expected");
+		assertRejected("AND a", "expected a tag but found 'AND'");
+		assertRejected("a NOT b", "unexpected 'NOT' in tag query");
+		assertRejected("a b", "unexpected 'b' in tag query");
+		assertRejected("a AND $b", "invalid tag query at position 5: 'a AND $b'");
+		assertRejected("a OR ".repeat(100) + "a", "tag query can have at most 200 terms");
+	}
+
+	private static List<Long> evaluate(String query) {
+		return TagQuery.parse(query).evaluate(SCOPE, tag -> TAGS.getOrDefault(tag, new CompressedBitmap())).toList(-1, 100);
+	}
+
+	private static void assertRejected(String query, String message) {
+		assertEquals(message, assertThrows(BadRequestException.class, () -> TagQuery.parse(query)).getMessage());
+	}
+}
@@ -0,0 +1,134 @@
+package com.mindhub.todolist.services.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+	private static final long TICK = 10;
+	// 4 slots per level and 3 levels, so the wheel spans 64 ticks and cascades often
+	private static final int BITS = 2;
+	private static final int LEVELS = 3;
+
+	@Test
+	void deadlinesCascadeThroughEveryLevelAndFireOnTheirTick() {
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, 0);
+		long[] ticks = {1, 3, 4, 5, 15, 16, 17, 20, 48, 63};
+		for (long tick : ticks)
+			wheel.schedule(tick, tick * TICK);
+
+		Map<Long, Long> fired = advanceTickByTick(wheel, 64);
+		for (long tick : ticks)
+			assertEquals(tick, fired.get(tick), "deadline of tick " + tick);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void deadlinesBeyondTheWheelSpanWaitForLaterRounds() {
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, 7 * TICK);
+		long[] ticks = {64, 71, 72, 130, 200, 1000, 4097};
+		for (long tick : ticks)
+			wheel.schedule(tick, tick * TICK + 3);
+
+		Map<Long, Long> fired = advanceTickByTick(wheel, 5000);
+		for (long tick : ticks)
+			assertEquals(tick, fired.get(tick), "deadline of tick " + tick);
+	}
+
+	@Test
+	void rescheduleMovesAndCancelRemovesADeadline() {
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, 0);
+		wheel.schedule(1L, 50 * TICK);
+		wheel.schedule(2L, 30 * TICK);
+		wheel.schedule(3L, 10 * TICK);
+		assertTrue(advanceTickByTick(wheel, 8).isEmpty());
+
+		// from a higher level into the slot due next, and from a low slot to a later round
+		wheel.schedule(1L, 9 * TICK);
+		wheel.schedule(3L, 100 * TICK);
+		wheel.cancel(2L);
+		wheel.cancel(4L);
+		assertEquals(2, wheel.size());
+		assertFalse(wheel.contains(2L));
+
+		Map<Long, Long> fired = advanceTickByTick(wheel, 200);
+		assertEquals(Map.of(1L, 9L, 3L, 100L), fired);
+	}
+
+	@Test
+	void aDeadlineThatAlreadyPassedFiresOnTheNextTick() {
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, 40 * TICK);
+		wheel.schedule(1L, 5 * TICK);
+		assertTrue(wheel.advance(40 * TICK + TICK - 1).isEmpty());
+		assertEquals(List.of(new TimingWheel.Timeout(1L, 5 * TICK)), wheel.advance(41 * TICK));
+	}
+
+	@Test
+	void advanceAfterALagFiresEveryReachedDeadlineInTickOrder() {
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, 0);
+		Random random = new Random(37);
+		for (long id = 0; id < 500; id++)
+			wheel.schedule(id, (1 + random.nextInt(3000)) * TICK + random.nextInt((int) TICK));
+
+		List<TimingWheel.Timeout> fired = wheel.advance(2000 * TICK);
+		for (int i = 1; i < fired.size(); i++)
+			assertTrue(fired.get(i - 1).deadlineMillis() / TICK <= fired.get(i).deadlineMillis() / TICK);
+		assertTrue(fired.stream().allMatch(timeout -> timeout.deadlineMillis() < 2001 * TICK));
+		assertEquals(500, fired.size() + wheel.size());
+		assertEquals(500, fired.size() + wheel.advance(3001 * TICK).size());
+	}
+
+	@Test
+	void matchesABruteForceScheduleUnderRandomOperations() {
+		Random random = new Random(11);
+		long now = 5 * TICK;
+		TimingWheel wheel = new TimingWheel(TICK, BITS, LEVELS, now);
+		// id -> tick it must fire on
+		Map<Long, Long> expected = new HashMap<>();
+		for (int step = 0; step < 20_000; step++) {
+			int operation = random.nextInt(10);
+			long id = random.nextInt(200);
+			if (operation < 5) {
+				long deadline = now - 20 * TICK + (long) (random.nextDouble() * random.nextDouble() * 300 * TICK);
+				wheel.schedule(id, deadline);
+				expected.put(id, Math.max(deadline / TICK, now / TICK + 1));
+			} else if (operation < 7) {
+				wheel.cancel(id);
+				expected.remove(id);
+			} else {
+				// mostly single ticks, sometimes a lag of up to 150 ticks
+				now += operation == 9 ? random.nextInt(150 * (int) TICK) : TICK;
+				long reached = now / TICK;
+				Map<Long, Long> due = new HashMap<>(expected);
+				due.values().removeIf(tick -> tick > reached);
+				expected.keySet().removeAll(due.keySet());
+
+				List<TimingWheel.Timeout> fired = wheel.advance(now);
+				assertEquals(due.keySet(), fired.stream().map(TimingWheel.Timeout::id).collect(Collectors.toSet()), "step " + step);
+				assertEquals(due.size(), fired.size(), "step " + step);
+				for (int i = 1; i < fired.size(); i++)
+					assertTrue(due.get(fired.get(i - 1).id()) <= due.get(fired.get(i).id()), "step " + step);
+			}
+			assertEquals(expected.size(), wheel.size(), "step " + step);
+		}
+	}
+
+	// id -> tick it fired on
+	private static Map<Long, Long> advanceTickByTick(TimingWheel wheel, long untilTick) {
+		Map<Long, Long> fired = new HashMap<>();
+		for (long tick = wheel.currentMillis() / TICK + 1; tick <= untilTick; tick++)
+			for (TimingWheel.Timeout timeout : wheel.advance(tick * TICK))
+				assertNull(fired.put(timeout.id(), tick), "fired twice: " + timeout.id());
+		return fired;
+	}
+}